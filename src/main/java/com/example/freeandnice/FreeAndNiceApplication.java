@@ -2,7 +2,9 @@ package com.example.freeandnice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableScheduling
 @SpringBootApplication
 public class FreeAndNiceApplication {
 
@@ -12,10 +14,4 @@ public class FreeAndNiceApplication {
 
 }
 
-//TODO:Контроллеры
-//TODO:Чат
-//TODO:Отзывы
-
-
-//TODO:Платежка
-//TODO:Аукцион
\ No newline at end of file
+//TODO:Контроллеры
\ No newline at end of file
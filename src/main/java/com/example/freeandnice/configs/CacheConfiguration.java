@@ -0,0 +1,16 @@
+package com.example.freeandnice.configs;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache sizes and TTLs are set by {@code spring.cache.caffeine.spec}; hit, miss
+ * and eviction counts are published as {@code cache.*} metrics by the actuator.
+ * The user caches are filled and evicted by {@code UserCacheService}.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+    public static final String USERS_BY_USERNAME = "usersByUsername";
+    public static final String USERS_BY_ID = "usersById";
+}
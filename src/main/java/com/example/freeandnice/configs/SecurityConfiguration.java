@@ -2,8 +2,10 @@ package com.example.freeandnice.configs;
 
 import com.example.freeandnice.services.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -17,6 +19,7 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 
+import java.time.Duration;
 import java.util.List;
 
 import static org.springframework.security.config.http.SessionCreationPolicy.STATELESS;
@@ -31,6 +34,18 @@ public class SecurityConfiguration {
 
     private final UserService userService;
 
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Value("${security.password.hashing-threads:0}")
+    private int hashingThreads;
+
+    @Value("${security.password.hashing-queue:64}")
+    private int hashingQueue;
+
+    @Value("${security.password.hashing-timeout:PT5S}")
+    private Duration hashingTimeout;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.csrf().disable()
@@ -53,7 +68,25 @@ public class SecurityConfiguration {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(bcryptStrength), passwordHashingExecutor(), hashingTimeout);
+    }
+
+    /**
+     * BCrypt is CPU bound, so by default there is one hashing thread per core.
+     * The default abort policy rejects work once the queue is full. Not a bean:
+     * any Executor bean would replace Boot's applicationTaskExecutor, so the
+     * encoder owns the pool and shuts it down.
+     */
+    private ThreadPoolTaskExecutor passwordHashingExecutor() {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(hashingQueue);
+        executor.setThreadNamePrefix("password-hashing-");
+        executor.initialize();
+        return executor;
     }
 
     @Bean
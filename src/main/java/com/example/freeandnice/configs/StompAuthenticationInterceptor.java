@@ -0,0 +1,65 @@
+package com.example.freeandnice.configs;
+
+import com.example.freeandnice.models.ChatPrincipal;
+import com.example.freeandnice.models.JwtPrincipal;
+import com.example.freeandnice.services.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates STOMP sessions with the same JWT as the REST API, sent in the
+ * Authorization header of the CONNECT frame; browsers cannot set headers on
+ * the WebSocket handshake itself. Only the claims are verified, so idle and
+ * reconnecting clients cost no database lookups. Clients may only subscribe
+ * to their own user destinations.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    private static final String USER_DESTINATION_PREFIX = "/user/queue/";
+
+    private final JwtService jwtService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        if (accessor.getCommand() == StompCommand.CONNECT) {
+            accessor.setUser(authenticate(accessor.getFirstNativeHeader(JwtAuthenticationFilter.HEADER_NAME)));
+        } else if (accessor.getCommand() == StompCommand.SUBSCRIBE) {
+            String destination = accessor.getDestination();
+            if (destination == null || !destination.startsWith(USER_DESTINATION_PREFIX)) {
+                throw new MessagingException("Subscriptions are limited to " + USER_DESTINATION_PREFIX + "*");
+            }
+        }
+        return message;
+    }
+
+    private ChatPrincipal authenticate(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith(JwtAuthenticationFilter.BEARER_PREFIX)) {
+            throw new MessagingException("Missing bearer token");
+        }
+        try {
+            Claims claims = jwtService.parseToken(authHeader.substring(JwtAuthenticationFilter.BEARER_PREFIX.length()));
+            JwtPrincipal principal = JwtPrincipal.fromClaims(claims);
+            if (principal.getId() == null || !jwtService.isTokenValid(claims, principal)) {
+                throw new MessagingException("Invalid token");
+            }
+            return new ChatPrincipal(principal.getId());
+        } catch (JwtException e) {
+            throw new MessagingException("Invalid token", e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.freeandnice.controllers;
+
+import com.example.freeandnice.dto.AuctionRequestDto;
+import com.example.freeandnice.dto.AuctionResponseDto;
+import com.example.freeandnice.dto.BidRequestDto;
+import com.example.freeandnice.services.AuctionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/auctions")
+@RequiredArgsConstructor
+public class AuctionController {
+
+    private final AuctionService auctionService;
+
+    @Operation(summary = "Start an auction", description = "Auctions a product of the current seller until endsAt")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Auction started",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = AuctionResponseDto.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "403", description = "Not signed in or not the product's seller"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "Product is already being auctioned")
+    })
+    @PostMapping
+    public ResponseEntity<AuctionResponseDto> createAuction(@RequestBody @Valid AuctionRequestDto request) {
+        return ResponseEntity.ok(auctionService.createAuction(request));
+    }
+
+    @Operation(summary = "Get auction by ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Auction found",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = AuctionResponseDto.class))}),
+            @ApiResponse(responseCode = "404", description = "Auction not found")
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<AuctionResponseDto> getAuction(@PathVariable Long id) {
+        return ResponseEntity.ok(auctionService.getAuction(id));
+    }
+
+    @Operation(summary = "Place a bid", description = "The first bid must be at least the starting price, every " +
+            "further one the high bid plus the minimum increment. A bid shortly before the end extends the auction")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Bid accepted, the auction's new state",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = AuctionResponseDto.class))}),
+            @ApiResponse(responseCode = "404", description = "Auction not found"),
+            @ApiResponse(responseCode = "409", description = "Bid too low or auction ended"),
+            @ApiResponse(responseCode = "429", description = "Too many bids at once, retry")
+    })
+    @PostMapping("/{id}/bids")
+    public ResponseEntity<AuctionResponseDto> placeBid(@PathVariable Long id, @RequestBody @Valid BidRequestDto request) {
+        return ResponseEntity.ok(auctionService.placeBid(id, request));
+    }
+
+    @Operation(summary = "Watch an auction", description = "Server-Sent Events with the auction's state, sent " +
+            "at once and then whenever it changes, at most a few times per second. The stream ends with the auction")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream opened"),
+            @ApiResponse(responseCode = "404", description = "Auction not found")
+    })
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter watchAuction(@PathVariable Long id) {
+        return auctionService.watch(id);
+    }
+}
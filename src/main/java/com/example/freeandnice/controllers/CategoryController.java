@@ -1,18 +1,21 @@
 package com.example.freeandnice.controllers;
 
-import com.example.freeandnice.models.Category;
+import com.example.freeandnice.dto.CategoryRequestDto;
+import com.example.freeandnice.dto.CategoryResponseDto;
+import com.example.freeandnice.models.CategorySnapshot;
 import com.example.freeandnice.services.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -24,45 +27,61 @@ public class CategoryController {
     @Operation(summary = "Create a new category")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Category created",
-                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = Category.class))}),
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = CategoryResponseDto.class))}),
             @ApiResponse(responseCode = "400", description = "Invalid input")
     })
     @PostMapping
-    public ResponseEntity<Category> createCategory(@RequestBody Category category) {
-        return ResponseEntity.ok(categoryService.createCategory(category));
+    public ResponseEntity<CategoryResponseDto> createCategory(@RequestBody @Valid CategoryRequestDto request) {
+        return ResponseEntity.ok(categoryService.createCategory(request));
     }
 
     @Operation(summary = "Get category by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Category found",
-                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = Category.class))}),
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = CategoryResponseDto.class))}),
             @ApiResponse(responseCode = "404", description = "Category not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Optional<Category>> getCategoryById(@PathVariable Long id) {
-        return ResponseEntity.ok(categoryService.getCategoryById(id));
+    public ResponseEntity<CategoryResponseDto> getCategoryById(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean withProductCount) {
+        return categoryService.getCategoryById(id, withProductCount)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
-    @Operation(summary = "Get all categories")
+    @Operation(summary = "Get all categories", description = "Served from memory. Send the returned ETag " +
+            "in If-None-Match to get 304 while the categories are unchanged. withProductCount adds product " +
+            "counts from one aggregate query, such responses carry no ETag")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Categories retrieved",
-                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = Category.class))})
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = CategoryResponseDto.class))}),
+            @ApiResponse(responseCode = "304", description = "Categories not modified")
     })
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<List<CategoryResponseDto>> getAllCategories(
+            @RequestParam(defaultValue = "false") boolean withProductCount) {
+        if (withProductCount) {
+            return ResponseEntity.ok(categoryService.getCategoriesWithProductCounts());
+        }
+        CategorySnapshot catalog = categoryService.getCatalog();
+        // The If-None-Match comparison against this ETag is done by Spring MVC.
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(catalog.getEtag())
+                .body(catalog.getCategories());
     }
 
     @Operation(summary = "Update an existing category")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Category updated",
-                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = Category.class))}),
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = CategoryResponseDto.class))}),
             @ApiResponse(responseCode = "404", description = "Category not found")
     })
     @PutMapping("/{id}")
-    public ResponseEntity<Category> updateCategory(@RequestBody Category category, @PathVariable Long id) {
-        category.setId(id);
-        return ResponseEntity.ok(categoryService.updateCategory(category));
+    public ResponseEntity<CategoryResponseDto> updateCategory(@RequestBody @Valid CategoryRequestDto request,
+                                                              @PathVariable Long id) {
+        return ResponseEntity.ok(categoryService.updateCategory(id, request));
     }
 
     @Operation(summary = "Delete a category")
@@ -0,0 +1,96 @@
+package com.example.freeandnice.controllers;
+
+import com.example.freeandnice.dto.ChatMessageDto;
+import com.example.freeandnice.dto.ChatMessagePageResponseDto;
+import com.example.freeandnice.dto.ChatMessageRequestDto;
+import com.example.freeandnice.dto.ConversationPageResponseDto;
+import com.example.freeandnice.dto.ConversationRequestDto;
+import com.example.freeandnice.dto.ConversationResponseDto;
+import com.example.freeandnice.dto.ReadMarkerRequestDto;
+import com.example.freeandnice.services.ChatService;
+import com.example.freeandnice.utils.SecurityUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/conversations")
+@RequiredArgsConstructor
+public class ChatController {
+
+    private final ChatService chatService;
+
+    @Operation(summary = "Start a conversation", description = "Opens the current user's conversation with the " +
+            "seller of a product, or returns the existing one. Live messages arrive over STOMP at /ws on " +
+            "/user/queue/messages")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Conversation opened",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ConversationResponseDto.class))}),
+            @ApiResponse(responseCode = "400", description = "Product has no seller, or it is the user's own"),
+            @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    @PostMapping
+    public ResponseEntity<ConversationResponseDto> startConversation(@RequestBody @Valid ConversationRequestDto request) {
+        return ResponseEntity.ok(chatService.startConversation(SecurityUtils.requireCurrentUserId(), request));
+    }
+
+    @Operation(summary = "Get conversations", description = "The current user's conversations, newest first, " +
+            "with unread counts. Pass the returned nextCursor to fetch the following page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Conversations retrieved",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ConversationPageResponseDto.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping
+    public ResponseEntity<ConversationPageResponseDto> getConversations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(chatService.getConversations(SecurityUtils.requireCurrentUserId(), cursor, size));
+    }
+
+    @Operation(summary = "Get message history", description = "Messages newest first. Pass the returned " +
+            "nextCursor as before to fetch older ones")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Messages retrieved",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ChatMessagePageResponseDto.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "404", description = "Conversation not found")
+    })
+    @GetMapping("/{id}/messages")
+    public ResponseEntity<ChatMessagePageResponseDto> getMessages(
+            @PathVariable Long id,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(chatService.getMessages(id, SecurityUtils.requireCurrentUserId(), before, size));
+    }
+
+    @Operation(summary = "Send a message", description = "Also pushed to both participants over STOMP")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Message sent",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ChatMessageDto.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Conversation not found"),
+            @ApiResponse(responseCode = "429", description = "Too many messages at once, retry")
+    })
+    @PostMapping("/{id}/messages")
+    public ResponseEntity<ChatMessageDto> sendMessage(@PathVariable Long id, @RequestBody @Valid ChatMessageRequestDto request) {
+        return ResponseEntity.ok(chatService.sendMessage(id, SecurityUtils.requireCurrentUserId(), request));
+    }
+
+    @Operation(summary = "Mark messages as read", description = "Marks the messages up to seq as read")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Conversation with its new unread count",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ConversationResponseDto.class))}),
+            @ApiResponse(responseCode = "404", description = "Conversation not found")
+    })
+    @PostMapping("/{id}/read")
+    public ResponseEntity<ConversationResponseDto> markRead(@PathVariable Long id, @RequestBody @Valid ReadMarkerRequestDto request) {
+        return ResponseEntity.ok(chatService.markRead(id, SecurityUtils.requireCurrentUserId(), request.getSeq()));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.freeandnice.controllers;
+
+import com.example.freeandnice.dto.ChatMessageRequestDto;
+import com.example.freeandnice.dto.ReadMarkerRequestDto;
+import com.example.freeandnice.models.ChatPrincipal;
+import com.example.freeandnice.services.ChatService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+
+/**
+ * STOMP counterpart of {@link ChatController} for connected clients. Sent
+ * messages reach both participants on {@code /user/queue/messages}, read
+ * markers the reader's other sessions on {@code /user/queue/reads}; errors
+ * go back to the sending session on {@code /user/queue/errors}.
+ */
+@Controller
+@RequiredArgsConstructor
+public class ChatMessagingController {
+
+    private final ChatService chatService;
+
+    @MessageMapping("/conversations/{id}/messages")
+    public void sendMessage(@DestinationVariable Long id, @Payload @Valid ChatMessageRequestDto request, Principal principal) {
+        chatService.sendMessage(id, userId(principal), request);
+    }
+
+    @MessageMapping("/conversations/{id}/read")
+    public void markRead(@DestinationVariable Long id, @Payload @Valid ReadMarkerRequestDto request, Principal principal) {
+        chatService.markRead(id, userId(principal), request.getSeq());
+    }
+
+    @MessageExceptionHandler
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public String handleException(Exception ex) {
+        return ex.getMessage();
+    }
+
+    private static Long userId(Principal principal) {
+        if (principal instanceof ChatPrincipal chatPrincipal) {
+            return chatPrincipal.userId();
+        }
+        throw new AccessDeniedException("Authentication required");
+    }
+}
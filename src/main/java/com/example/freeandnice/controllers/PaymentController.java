@@ -0,0 +1,64 @@
+package com.example.freeandnice.controllers;
+
+import com.example.freeandnice.dto.LedgerBalanceDto;
+import com.example.freeandnice.dto.PaymentRequestDto;
+import com.example.freeandnice.dto.PaymentResponseDto;
+import com.example.freeandnice.services.PaymentService;
+import com.example.freeandnice.utils.SecurityUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/payments")
+@RequiredArgsConstructor
+public class PaymentController {
+
+    private final PaymentService paymentService;
+
+    @Operation(summary = "Pay for a product", description = "Charges price times quantity. Send a unique " +
+            "Idempotency-Key per purchase and repeat it when retrying: the same payment is returned and the buyer " +
+            "is charged once. A PENDING payment is finished by retrying with the same key")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Payment succeeded, failed or is still pending",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = PaymentResponseDto.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid input or missing Idempotency-Key"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for another purchase"),
+            @ApiResponse(responseCode = "429", description = "Ledger busy, retry with the same key")
+    })
+    @PostMapping
+    public ResponseEntity<PaymentResponseDto> pay(@RequestHeader("Idempotency-Key") String idempotencyKey,
+                                                  @RequestBody @Valid PaymentRequestDto request) {
+        return ResponseEntity.ok(paymentService.pay(SecurityUtils.requireCurrentUserId(), idempotencyKey, request));
+    }
+
+    @Operation(summary = "Get payment by ID", description = "Visible to the buyer and the seller")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Payment found",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = PaymentResponseDto.class))}),
+            @ApiResponse(responseCode = "403", description = "Payment of other users"),
+            @ApiResponse(responseCode = "404", description = "Payment not found")
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<PaymentResponseDto> getPayment(@PathVariable Long id) {
+        return ResponseEntity.ok(paymentService.getPayment(id, SecurityUtils.requireCurrentUserId()));
+    }
+
+    @Operation(summary = "Get seller balance", description = "What the current user is owed from captured " +
+            "payments, after platform fees")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Balance retrieved",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = LedgerBalanceDto.class))})
+    })
+    @GetMapping("/balance")
+    public ResponseEntity<LedgerBalanceDto> getBalance() {
+        return ResponseEntity.ok(paymentService.getSellerBalance(SecurityUtils.requireCurrentUserId()));
+    }
+}
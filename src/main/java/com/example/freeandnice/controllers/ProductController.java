@@ -1,59 +1,211 @@
 package com.example.freeandnice.controllers;
 
 import com.example.freeandnice.dto.CreateProductRequestDto;
+import com.example.freeandnice.dto.ProductChangesResponseDto;
+import com.example.freeandnice.dto.ProductExportFilterDto;
+import com.example.freeandnice.dto.ProductFilterRequestDto;
+import com.example.freeandnice.dto.ProductFilterResponseDto;
+import com.example.freeandnice.dto.ProductImportResultDto;
+import com.example.freeandnice.dto.ProductPageResponseDto;
 import com.example.freeandnice.dto.ProductResponseDto;
 import com.example.freeandnice.dto.UpdateProductRequestDto;
+import com.example.freeandnice.models.EExportFormat;
+import com.example.freeandnice.services.ProductChangeStreamService;
+import com.example.freeandnice.services.ProductExportService;
+import com.example.freeandnice.services.ProductImportService;
 import com.example.freeandnice.services.ProductService;
+import com.example.freeandnice.utils.ContentCodingUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/products")
 public class ProductController {
 
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     private final ProductService productService;
+    private final ProductExportService productExportService;
+    private final ProductImportService productImportService;
+    private final ProductChangeStreamService productChangeStreamService;
 
-    @Operation(summary = "Search products by keyword", description = "Search products by name or category")
+    @Operation(summary = "Search products by keyword", description = "Full-text search over product name, " +
+            "category names and description. Words match by prefix, best matches come first")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Products found",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductResponseDto.class))),
             @ApiResponse(responseCode = "404", description = "No products found")
     })
     @GetMapping("/search")
-    public ResponseEntity<List<ProductResponseDto>> searchProducts(@RequestParam String keyword) {
-        List<ProductResponseDto> products = productService.searchByNameOrCategory(keyword);
+    public ResponseEntity<List<ProductResponseDto>> searchProducts(
+            @RequestParam String keyword,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        List<ProductResponseDto> products = productService.searchByNameOrCategory(keyword, page, size);
         return ResponseEntity.ok(products);
     }
 
-    @Operation(summary = "Filter products", description = "Filter products by category and/or price range")
+    @Operation(summary = "Filter products", description = "Filter products by categories, locations, price range " +
+            "and availability. Returns a page of matches with per-facet counts")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Products found",
-                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductResponseDto.class))),
-            @ApiResponse(responseCode = "404", description = "No products found for the given filters")
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductFilterResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
     })
     @GetMapping("/filter")
-    public ResponseEntity<List<ProductResponseDto>> filterProducts(
-            @RequestParam(required = false) String category,
+    public ResponseEntity<ProductFilterResponseDto> filterProducts(
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> location,
             @RequestParam(required = false) Long minPrice,
-            @RequestParam(required = false) Long maxPrice) {
-        List<ProductResponseDto> products = productService.filterProducts(category, minPrice, maxPrice);
-        return ResponseEntity.ok(products);
+            @RequestParam(required = false) Long maxPrice,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        ProductFilterRequestDto filter = ProductFilterRequestDto.builder()
+                .categories(category)
+                .locations(location)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .inStock(inStock)
+                .build();
+        return ResponseEntity.ok(productService.filterProducts(filter, cursor, size));
+    }
+
+    @Operation(summary = "Bulk import products from NDJSON", description = "One JSON object per line with the " +
+            "fields of a product creation request. The body is streamed and written in batches; invalid rows " +
+            "are skipped and reported with their line number")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductImportResultDto.class)))
+    })
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<ProductImportResultDto> importProductsNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importNdjson(body));
+    }
+
+    @Operation(summary = "Bulk import products from CSV", description = "A header row (name, description, price, " +
+            "quantity, location, categoryIds, imagePaths; name and price required), then one product per record. " +
+            "List columns separate values with |. Invalid rows are skipped and reported with their line number")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductImportResultDto.class))),
+            @ApiResponse(responseCode = "400", description = "Missing required header columns")
+    })
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ProductImportResultDto> importProductsCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importCsv(body));
+    }
+
+    @Operation(summary = "Export the catalog", description = "Streams all products matching the filters as NDJSON " +
+            "or CSV, ordered by id, in the import format. categoryId includes its subcategories, updatedSince " +
+            "selects products created or changed since then. Compressed with gzip when the client accepts it")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "NDJSON") EExportFormat format,
+            @RequestParam(required = false) Long sellerId,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ProductExportFilterDto filter = ProductExportFilterDto.builder()
+                .sellerId(sellerId)
+                .categoryId(categoryId)
+                .updatedSince(updatedSince)
+                .build();
+        boolean gzip = ContentCodingUtils.acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, EXPORT_BUFFER_SIZE) : new BufferedOutputStream(out, EXPORT_BUFFER_SIZE);
+            productExportService.export(filter, format, target);
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+            target.flush();
+        };
+
+        String extension = format == EExportFormat.CSV ? "csv" : "ndjson";
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format == EExportFormat.CSV ? TEXT_CSV : APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + extension + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @Operation(summary = "Get product changes", description = "Creations, updates and deletions after the given " +
+            "token, oldest first, each with the current state of its product (none for deletions). Poll again " +
+            "with nextToken; without a token the feed starts at the oldest retained change")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changes retrieved",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductChangesResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid token"),
+            @ApiResponse(responseCode = "410", description = "Token expired, resynchronize from an export")
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangesResponseDto> getProductChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(productService.getChanges(since, size));
+    }
+
+    @Operation(summary = "Get the latest change token", description = "Token of the newest change. Take it before " +
+            "a full export, then follow the feed from it to apply what changed during and after the export")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Token retrieved",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductChangesResponseDto.class)))
+    })
+    @GetMapping("/changes/head")
+    public ResponseEntity<ProductChangesResponseDto> getProductChangesHead() {
+        return ResponseEntity.ok(new ProductChangesResponseDto(List.of(), productService.getChangesHeadToken(), false));
+    }
+
+    @Operation(summary = "Stream product changes", description = "Server-Sent Events with one product-change event " +
+            "per change, its token as event id. Resumes after since or the Last-Event-ID header, otherwise " +
+            "starts with the changes from now on")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream opened"),
+            @ApiResponse(responseCode = "400", description = "Invalid token"),
+            @ApiResponse(responseCode = "410", description = "Token expired, resynchronize from an export")
+    })
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProductChanges(
+            @RequestParam(required = false) String since,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return productChangeStreamService.subscribe(since != null ? since : lastEventId);
     }
 
     @Operation(summary = "Create a new product", description = "Create a product with provided details")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Product created",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductResponseDto.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid input data")
+            @ApiResponse(responseCode = "400", description = "Invalid input data"),
+            @ApiResponse(responseCode = "404", description = "Category not found")
     })
     @PostMapping
     public ResponseEntity<ProductResponseDto> createProduct(@RequestBody CreateProductRequestDto createProductRequestDto) {
@@ -86,22 +238,25 @@ public class ProductController {
         return ResponseEntity.ok(product);
     }
 
-    @Operation(summary = "Get all products", description = "Retrieve all products in the system")
+    @Operation(summary = "Get products page", description = "Retrieve products ordered by ID, one page at a time. " +
+            "Pass the returned nextCursor to fetch the following page")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Products retrieved",
-                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductResponseDto.class)))
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductPageResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
     })
     @GetMapping
-    public ResponseEntity<List<ProductResponseDto>> getAllProducts() {
-        List<ProductResponseDto> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<ProductPageResponseDto> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(productService.getProductsPage(cursor, size));
     }
 
     @Operation(summary = "Update an existing product", description = "Update product details by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product updated",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductResponseDto.class))),
-            @ApiResponse(responseCode = "404", description = "Product not found")
+            @ApiResponse(responseCode = "404", description = "Product or category not found")
     })
     @PutMapping("/{id}")
     public ResponseEntity<ProductResponseDto> updateProduct(@RequestBody UpdateProductRequestDto updateProductRequestDto) {
@@ -0,0 +1,76 @@
+package com.example.freeandnice.controllers;
+
+import com.example.freeandnice.dto.ReservationRequestDto;
+import com.example.freeandnice.dto.ReservationResponseDto;
+import com.example.freeandnice.services.InventoryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/reservations")
+@RequiredArgsConstructor
+public class ReservationController {
+
+    private final InventoryService inventoryService;
+
+    @Operation(summary = "Reserve stock", description = "Takes the quantity out of the product's stock and holds " +
+            "it until the reservation is committed or released. Uncommitted reservations are returned to stock " +
+            "at expiresAt")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock reserved",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ReservationResponseDto.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "403", description = "Not signed in"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "Not enough in stock")
+    })
+    @PostMapping
+    public ResponseEntity<ReservationResponseDto> reserve(@RequestBody @Valid ReservationRequestDto request) {
+        return ResponseEntity.ok(inventoryService.reserve(request));
+    }
+
+    @Operation(summary = "Get reservation by ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reservation found",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ReservationResponseDto.class))}),
+            @ApiResponse(responseCode = "403", description = "Reservation of another buyer"),
+            @ApiResponse(responseCode = "404", description = "Reservation not found")
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<ReservationResponseDto> getReservation(@PathVariable Long id) {
+        return ResponseEntity.ok(inventoryService.getReservation(id));
+    }
+
+    @Operation(summary = "Commit a reservation", description = "Makes the sale final")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reservation committed",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ReservationResponseDto.class))}),
+            @ApiResponse(responseCode = "403", description = "Reservation of another buyer"),
+            @ApiResponse(responseCode = "404", description = "Reservation not found"),
+            @ApiResponse(responseCode = "409", description = "Reservation already committed, released or expired")
+    })
+    @PostMapping("/{id}/commit")
+    public ResponseEntity<ReservationResponseDto> commit(@PathVariable Long id) {
+        return ResponseEntity.ok(inventoryService.commit(id));
+    }
+
+    @Operation(summary = "Release a reservation", description = "Returns the reserved quantity to stock")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reservation released",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ReservationResponseDto.class))}),
+            @ApiResponse(responseCode = "403", description = "Reservation of another buyer"),
+            @ApiResponse(responseCode = "404", description = "Reservation not found"),
+            @ApiResponse(responseCode = "409", description = "Reservation already committed, released or expired")
+    })
+    @PostMapping("/{id}/release")
+    public ResponseEntity<ReservationResponseDto> release(@PathVariable Long id) {
+        return ResponseEntity.ok(inventoryService.release(id));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.freeandnice.controllers;
+
+import com.example.freeandnice.dto.RatingSummaryDto;
+import com.example.freeandnice.dto.ReviewPageResponseDto;
+import com.example.freeandnice.dto.ReviewRequestDto;
+import com.example.freeandnice.dto.ReviewResponseDto;
+import com.example.freeandnice.services.ReviewService;
+import com.example.freeandnice.utils.SecurityUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/reviews")
+@RequiredArgsConstructor
+public class ReviewController {
+
+    private final ReviewService reviewService;
+
+    @Operation(summary = "Review a product", description = "One review per user and product; it also counts " +
+            "towards the seller's rating")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Review created",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ReviewResponseDto.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid input, or the user's own product"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "The user has already reviewed the product")
+    })
+    @PostMapping("/products/{productId}")
+    public ResponseEntity<ReviewResponseDto> createReview(@PathVariable Long productId,
+                                                          @RequestBody @Valid ReviewRequestDto request) {
+        return ResponseEntity.ok(reviewService.createReview(productId, SecurityUtils.requireCurrentUserId(), request));
+    }
+
+    @Operation(summary = "Get product reviews", description = "Newest first. Pass the returned nextCursor to " +
+            "fetch the following page. The rating itself is part of the product")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reviews retrieved",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ReviewPageResponseDto.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<ReviewPageResponseDto> getProductReviews(
+            @PathVariable Long productId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(reviewService.getProductReviews(productId, cursor, size));
+    }
+
+    @Operation(summary = "Get seller reviews", description = "Reviews of all the seller's products, newest first. " +
+            "Pass the returned nextCursor to fetch the following page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reviews retrieved",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ReviewPageResponseDto.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping("/sellers/{sellerId}")
+    public ResponseEntity<ReviewPageResponseDto> getSellerReviews(
+            @PathVariable Long sellerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(reviewService.getSellerReviews(sellerId, cursor, size));
+    }
+
+    @Operation(summary = "Get seller rating", description = "Average, count and histogram over the reviews of " +
+            "all the seller's products")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rating retrieved",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = RatingSummaryDto.class))})
+    })
+    @GetMapping("/sellers/{sellerId}/rating")
+    public ResponseEntity<RatingSummaryDto> getSellerRating(@PathVariable Long sellerId) {
+        return ResponseEntity.ok(reviewService.getSellerRating(sellerId));
+    }
+
+    @Operation(summary = "Edit a review")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Review updated",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ReviewResponseDto.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "403", description = "Written by another user"),
+            @ApiResponse(responseCode = "404", description = "Review not found")
+    })
+    @PutMapping("/{id}")
+    public ResponseEntity<ReviewResponseDto> updateReview(@PathVariable Long id,
+                                                          @RequestBody @Valid ReviewRequestDto request) {
+        return ResponseEntity.ok(reviewService.updateReview(id, SecurityUtils.requireCurrentUserId(), request));
+    }
+
+    @Operation(summary = "Delete a review")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Review deleted"),
+            @ApiResponse(responseCode = "403", description = "Written by another user"),
+            @ApiResponse(responseCode = "404", description = "Review not found")
+    })
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteReview(@PathVariable Long id) {
+        reviewService.deleteReview(id, SecurityUtils.requireCurrentUserId());
+        return ResponseEntity.noContent().build();
+    }
+}
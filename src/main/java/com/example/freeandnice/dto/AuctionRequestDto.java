@@ -0,0 +1,30 @@
+package com.example.freeandnice.dto;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuctionRequestDto {
+    @NotNull
+    private Long productId;
+
+    @NotNull
+    @Min(0)
+    private Long startingPrice;
+
+    @NotNull
+    @Min(1)
+    private Long minIncrement;
+
+    @NotNull
+    @Future
+    private LocalDateTime endsAt;
+}
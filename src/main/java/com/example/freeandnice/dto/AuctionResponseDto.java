@@ -0,0 +1,25 @@
+package com.example.freeandnice.dto;
+
+import com.example.freeandnice.models.EAuctionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuctionResponseDto {
+    private Long id;
+    private Long productId;
+    private Long sellerId;
+    private Long startingPrice;
+    private Long minIncrement;
+    private EAuctionStatus status;
+    private Long highBid;
+    private Long highBidderId;
+    private int bidCount;
+    /** Moves later when bids arrive shortly before the end. */
+    private LocalDateTime endsAt;
+}
@@ -0,0 +1,14 @@
+package com.example.freeandnice.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BidRequestDto {
+    @NotNull
+    private Long amount;
+}
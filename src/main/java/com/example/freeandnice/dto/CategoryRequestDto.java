@@ -0,0 +1,13 @@
+package com.example.freeandnice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class CategoryRequestDto {
+    @NotBlank
+    @Size(max = 255)
+    private String name;
+    private Long parentId;
+}
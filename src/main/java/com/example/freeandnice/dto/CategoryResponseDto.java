@@ -0,0 +1,22 @@
+package com.example.freeandnice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryResponseDto {
+    private Long id;
+    private String name;
+    private Long parentId;
+    /** Products filed directly under the category, only present when requested. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long productCount;
+
+    public CategoryResponseDto(Long id, String name, Long parentId) {
+        this(id, name, parentId, null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.freeandnice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessageDto {
+    private Long conversationId;
+    private int seq;
+    private Long senderId;
+    private String body;
+    private LocalDateTime sentAt;
+}
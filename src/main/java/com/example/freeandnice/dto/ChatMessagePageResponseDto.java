@@ -0,0 +1,17 @@
+package com.example.freeandnice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessagePageResponseDto {
+    /** Newest first. */
+    private List<ChatMessageDto> messages;
+    /** Pass as {@code before} for older messages; null when there are none. */
+    private String nextCursor;
+}
@@ -0,0 +1,16 @@
+package com.example.freeandnice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessageRequestDto {
+    @NotBlank
+    @Size(max = 2000)
+    private String body;
+}
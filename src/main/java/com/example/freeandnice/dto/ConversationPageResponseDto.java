@@ -0,0 +1,16 @@
+package com.example.freeandnice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationPageResponseDto {
+    private List<ConversationResponseDto> conversations;
+    /** Null on the last page. */
+    private String nextCursor;
+}
@@ -0,0 +1,19 @@
+package com.example.freeandnice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationResponseDto {
+    private Long id;
+    private Long productId;
+    private Long buyerId;
+    private Long sellerId;
+    /** Seq of the newest message, 0 while there is none. */
+    private int lastSeq;
+    /** Messages of the other participant the current user has not read yet. */
+    private int unreadCount;
+}
@@ -0,0 +1,15 @@
+package com.example.freeandnice.dto;
+
+import com.example.freeandnice.models.ELedgerAccountType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerBalanceDto {
+    private ELedgerAccountType type;
+    private Long ownerId;
+    private long balance;
+}
@@ -0,0 +1,28 @@
+package com.example.freeandnice.dto;
+
+import com.example.freeandnice.models.EPaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentResponseDto {
+    private Long id;
+    private Long buyerId;
+    private String idempotencyKey;
+    private Long productId;
+    private Long sellerId;
+    private int quantity;
+    private long amount;
+    /** PENDING until the provider answered; retrying with the same key finishes it. */
+    private EPaymentStatus status;
+    private String provider;
+    private String providerReference;
+    private String failureReason;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,14 @@
+package com.example.freeandnice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBucketDto {
+    private Long from;
+    private Long to;
+    private Long count;
+}
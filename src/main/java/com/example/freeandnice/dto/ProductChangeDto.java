@@ -0,0 +1,21 @@
+package com.example.freeandnice.dto;
+
+import com.example.freeandnice.models.EProductChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeDto {
+    /** Pass as {@code since} to continue after this change. */
+    private String token;
+    private Long productId;
+    private EProductChangeType type;
+    private LocalDateTime changedAt;
+    /** Current state of the product; null for deletions and for products deleted since. */
+    private ProductResponseDto product;
+}
@@ -0,0 +1,17 @@
+package com.example.freeandnice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangesResponseDto {
+    private List<ProductChangeDto> changes;
+    /** Token to poll with next time; the given one when nothing changed. */
+    private String nextToken;
+    private boolean hasMore;
+}
@@ -0,0 +1,16 @@
+package com.example.freeandnice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class ProductExportFilterDto {
+    private Long sellerId;
+    /** Matches the category and all of its descendants. */
+    private Long categoryId;
+    /** Products created or updated at or after this time. */
+    private LocalDateTime updatedSince;
+}
@@ -0,0 +1,25 @@
+package com.example.freeandnice.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One exported product. The field names match the import format, so an
+ * export can be imported again.
+ */
+@Data
+public class ProductExportRowDto {
+    private Long id;
+    private String name;
+    private String description;
+    private Long price;
+    private Integer quantity;
+    private String location;
+    private Long sellerId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private List<Long> categoryIds;
+    private List<String> imagePaths;
+}
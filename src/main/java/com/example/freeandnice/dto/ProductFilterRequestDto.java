@@ -0,0 +1,18 @@
+package com.example.freeandnice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ProductFilterRequestDto {
+    private List<String> categories;
+    /** {@link #categories} resolved to ids by the service, never bound from the request. */
+    private List<Long> categoryIds;
+    private List<String> locations;
+    private Long minPrice;
+    private Long maxPrice;
+    private Boolean inStock;
+}
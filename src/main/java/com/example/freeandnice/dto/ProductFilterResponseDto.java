@@ -0,0 +1,17 @@
+package com.example.freeandnice.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class ProductFilterResponseDto {
+    private List<ProductResponseDto> items;
+    private String nextCursor;
+    private Long total;
+    private Map<String, Long> categories;
+    private Map<String, Long> locations;
+    private List<PriceBucketDto> priceBuckets;
+    private Long inStock;
+}
@@ -0,0 +1,14 @@
+package com.example.freeandnice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportErrorDto {
+    /** Line of the request body the row starts on, 1-based. */
+    private Long line;
+    private String message;
+}
@@ -0,0 +1,14 @@
+package com.example.freeandnice.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ProductImportResultDto {
+    private long imported;
+    private long failed;
+    /** The first row errors, up to {@code products.import.max-reported-errors}. */
+    private List<ProductImportErrorDto> errors = new ArrayList<>();
+}
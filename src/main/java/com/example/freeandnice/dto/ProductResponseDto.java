@@ -1,10 +1,12 @@
 package com.example.freeandnice.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.util.List;
 
 @Data
+@NoArgsConstructor
 public class ProductResponseDto {
     private Long id;
     private String name;
@@ -14,4 +16,24 @@ public class ProductResponseDto {
     private String location;
     private List<String> imagePaths;
     private List<String> categoryNames;
+    /** Send back when updating, so the update fails if the product changed in the meantime. */
+    private Long version;
+    private RatingSummaryDto rating;
+
+    /**
+     * Used by the JPQL constructor projections in {@code ProductRepository};
+     * collections are filled in afterwards.
+     */
+    public ProductResponseDto(Long id, String name, String description, Long price, Integer quantity, String location,
+                              Long version, Integer rating1, Integer rating2, Integer rating3, Integer rating4,
+                              Integer rating5) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.quantity = quantity;
+        this.location = location;
+        this.version = version;
+        this.rating = RatingSummaryDto.of(rating1, rating2, rating3, rating4, rating5);
+    }
 }
@@ -0,0 +1,33 @@
+package com.example.freeandnice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingSummaryDto {
+    private long count;
+    /** Null while there are no reviews. */
+    private Double average;
+    /** Number of reviews with 1 to 5 stars, in that order. */
+    private List<Integer> histogram;
+
+    /** From the review counts per star, 1 to 5; null counts as 0. */
+    public static RatingSummaryDto of(Integer... counts) {
+        long count = 0;
+        long sum = 0;
+        List<Integer> histogram = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            int stars = counts[i] == null ? 0 : counts[i];
+            histogram.add(stars);
+            count += stars;
+            sum += (long) (i + 1) * stars;
+        }
+        return new RatingSummaryDto(count, count == 0 ? null : (double) sum / count, histogram);
+    }
+}
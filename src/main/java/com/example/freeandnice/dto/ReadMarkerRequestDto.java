@@ -0,0 +1,17 @@
+package com.example.freeandnice.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadMarkerRequestDto {
+    /** Seq of the newest message read. */
+    @NotNull
+    @Min(0)
+    private Integer seq;
+}
@@ -0,0 +1,23 @@
+package com.example.freeandnice.dto;
+
+import com.example.freeandnice.models.EReservationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationResponseDto {
+    private Long id;
+    private Long productId;
+    private Long buyerId;
+    private Integer quantity;
+    private EReservationStatus status;
+    private LocalDateTime createdAt;
+    /** Until then the stock is held; an uncommitted reservation is returned to stock afterwards. */
+    private LocalDateTime expiresAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,17 @@
+package com.example.freeandnice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewPageResponseDto {
+    /** Newest first. */
+    private List<ReviewResponseDto> reviews;
+    /** Null when there are no older reviews. */
+    private String nextCursor;
+}
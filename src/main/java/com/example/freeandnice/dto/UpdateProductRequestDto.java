@@ -14,4 +14,6 @@ public class UpdateProductRequestDto {
     private String location;
     private List<String> imagePaths;
     private List<Long> categoryIds;
+    /** Version the update is based on; without it the update is applied whatever changed meanwhile. */
+    private Long version;
 }
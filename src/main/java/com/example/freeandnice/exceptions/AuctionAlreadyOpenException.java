@@ -0,0 +1,7 @@
+package com.example.freeandnice.exceptions;
+
+public class AuctionAlreadyOpenException extends RuntimeException {
+    public AuctionAlreadyOpenException(Long productId) {
+        super("Product " + productId + " is already being auctioned");
+    }
+}
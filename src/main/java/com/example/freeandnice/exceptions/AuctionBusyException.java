@@ -0,0 +1,7 @@
+package com.example.freeandnice.exceptions;
+
+public class AuctionBusyException extends RuntimeException {
+    public AuctionBusyException(Long auctionId) {
+        super("Too many bids on auction " + auctionId + ", please retry");
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.freeandnice.exceptions;
+
+public class BidRejectedException extends RuntimeException {
+    public BidRejectedException(String message) {
+        super(message);
+    }
+}
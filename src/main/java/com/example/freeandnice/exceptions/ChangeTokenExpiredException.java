@@ -0,0 +1,7 @@
+package com.example.freeandnice.exceptions;
+
+public class ChangeTokenExpiredException extends RuntimeException {
+    public ChangeTokenExpiredException(String token) {
+        super("Change token has expired, resynchronize from a full export: " + token);
+    }
+}
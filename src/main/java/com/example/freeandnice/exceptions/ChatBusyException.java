@@ -0,0 +1,7 @@
+package com.example.freeandnice.exceptions;
+
+public class ChatBusyException extends RuntimeException {
+    public ChatBusyException() {
+        super("Too many chat messages at once, please retry");
+    }
+}
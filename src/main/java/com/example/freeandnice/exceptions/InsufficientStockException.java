@@ -0,0 +1,7 @@
+package com.example.freeandnice.exceptions;
+
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(Long productId, int requested, int available) {
+        super("Only " + available + " of product " + productId + " in stock, " + requested + " requested");
+    }
+}
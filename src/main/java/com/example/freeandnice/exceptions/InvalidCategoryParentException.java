@@ -0,0 +1,7 @@
+package com.example.freeandnice.exceptions;
+
+public class InvalidCategoryParentException extends RuntimeException {
+    public InvalidCategoryParentException(Long parentId) {
+        super("Invalid parent category: " + parentId);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.freeandnice.exceptions;
+
+public class InvalidConversationException extends RuntimeException {
+    public InvalidConversationException(String message) {
+        super(message);
+    }
+}
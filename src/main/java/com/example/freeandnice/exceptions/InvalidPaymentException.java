@@ -0,0 +1,7 @@
+package com.example.freeandnice.exceptions;
+
+public class InvalidPaymentException extends RuntimeException {
+    public InvalidPaymentException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.freeandnice.exceptions;
+
+public class InvalidReviewException extends RuntimeException {
+    public InvalidReviewException(String message) {
+        super(message);
+    }
+}
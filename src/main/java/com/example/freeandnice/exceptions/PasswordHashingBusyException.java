@@ -0,0 +1,7 @@
+package com.example.freeandnice.exceptions;
+
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException() {
+        super("Too many sign-in requests, please retry later");
+    }
+}
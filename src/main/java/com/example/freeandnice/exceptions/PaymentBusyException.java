@@ -0,0 +1,7 @@
+package com.example.freeandnice.exceptions;
+
+public class PaymentBusyException extends RuntimeException {
+    public PaymentBusyException() {
+        super("The ledger is busy, retry the payment with the same idempotency key");
+    }
+}
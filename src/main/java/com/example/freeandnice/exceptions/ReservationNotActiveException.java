@@ -0,0 +1,9 @@
+package com.example.freeandnice.exceptions;
+
+import com.example.freeandnice.models.EReservationStatus;
+
+public class ReservationNotActiveException extends RuntimeException {
+    public ReservationNotActiveException(Long reservationId, EReservationStatus status) {
+        super("Reservation " + reservationId + " is no longer active: " + status);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.freeandnice.exceptions;
+
+public class ReviewAlreadyExistsException extends RuntimeException {
+    public ReviewAlreadyExistsException(Long productId) {
+        super("You have already reviewed product " + productId + ", edit that review instead");
+    }
+}
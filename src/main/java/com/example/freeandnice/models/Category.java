@@ -23,6 +23,10 @@ public class Category {
     @Column(unique = true, nullable = false)
     private String name;
 
+    /** Kept as a plain id, the tree is navigated through {@link CategorySnapshot}. */
+    @Column(name = "parent_id")
+    private Long parentId;
+
     @ManyToMany(mappedBy = "categories")
     private Set<Product> products;
 }
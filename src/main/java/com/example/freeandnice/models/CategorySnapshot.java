@@ -0,0 +1,120 @@
+package com.example.freeandnice.models;
+
+import com.example.freeandnice.dto.CategoryResponseDto;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable view of all categories at one point in time. A new instance is
+ * published as a whole on every change, so readers never see half an update.
+ * The descendant closure of the category tree is computed once per snapshot,
+ * so a subtree lookup is a map access.
+ */
+public final class CategorySnapshot {
+
+    private final List<CategoryResponseDto> categories;
+    private final Map<Long, String> namesById;
+    private final Map<String, Long> idsByName;
+    private final Map<Long, Set<Long>> subtreeIds;
+    private final String etag;
+
+    private CategorySnapshot(List<CategoryResponseDto> categories, Map<Long, String> namesById,
+                             Map<String, Long> idsByName, Map<Long, Set<Long>> subtreeIds, String etag) {
+        this.categories = categories;
+        this.namesById = namesById;
+        this.idsByName = idsByName;
+        this.subtreeIds = subtreeIds;
+        this.etag = etag;
+    }
+
+    public static CategorySnapshot of(List<Category> categories) {
+        Map<Long, String> namesById = new HashMap<>();
+        Map<String, Long> idsByName = new HashMap<>();
+        Map<Long, List<Long>> childrenById = new HashMap<>();
+        StringBuilder content = new StringBuilder();
+        List<Category> sorted = categories.stream().sorted(Comparator.comparing(Category::getId)).toList();
+        for (Category category : sorted) {
+            namesById.put(category.getId(), category.getName());
+            idsByName.put(category.getName(), category.getId());
+            if (category.getParentId() != null) {
+                childrenById.computeIfAbsent(category.getParentId(), id -> new ArrayList<>()).add(category.getId());
+            }
+            content.append(category.getId()).append(':').append(category.getName())
+                    .append(':').append(category.getParentId()).append('\n');
+        }
+
+        Map<Long, Set<Long>> subtreeIds = new HashMap<>();
+        for (Long id : namesById.keySet()) {
+            subtreeIds.put(id, Set.copyOf(collectSubtree(id, childrenById)));
+        }
+
+        List<CategoryResponseDto> views = sorted.stream()
+                .sorted(Comparator.comparing(Category::getName))
+                .map(category -> new CategoryResponseDto(category.getId(), category.getName(), category.getParentId()))
+                .toList();
+        String etag = DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8));
+        return new CategorySnapshot(views, Map.copyOf(namesById), Map.copyOf(idsByName), Map.copyOf(subtreeIds), etag);
+    }
+
+    private static Set<Long> collectSubtree(Long rootId, Map<Long, List<Long>> childrenById) {
+        // The visited set also stops on a cycle, which the service prevents but the table does not.
+        Set<Long> subtree = new LinkedHashSet<>();
+        Deque<Long> pending = new ArrayDeque<>();
+        pending.push(rootId);
+        while (!pending.isEmpty()) {
+            Long id = pending.pop();
+            if (subtree.add(id)) {
+                childrenById.getOrDefault(id, List.of()).forEach(pending::push);
+            }
+        }
+        return subtree;
+    }
+
+    /** All categories ordered by name. */
+    public List<CategoryResponseDto> getCategories() {
+        return categories;
+    }
+
+    /** Changes whenever any category is added, renamed, moved or removed. */
+    public String getEtag() {
+        return etag;
+    }
+
+    public boolean contains(Long id) {
+        return id != null && namesById.containsKey(id);
+    }
+
+    public String getName(Long id) {
+        return namesById.get(id);
+    }
+
+    public Long getId(String name) {
+        return idsByName.get(name);
+    }
+
+    /** The category and all of its descendants, or an empty set for an unknown id. */
+    public Set<Long> getSubtreeIds(Long id) {
+        return subtreeIds.getOrDefault(id, Set.of());
+    }
+
+    /** The union of the subtrees of the given categories. */
+    public Set<Long> getSubtreeIds(Collection<Long> ids) {
+        Set<Long> union = new HashSet<>();
+        for (Long id : ids) {
+            union.addAll(getSubtreeIds(id));
+        }
+        return union;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.freeandnice.models;
+
+import java.security.Principal;
+
+/**
+ * User of a WebSocket session, authenticated from the JWT sent with the STOMP
+ * CONNECT frame. Its name is the user id, which user destinations are keyed by.
+ */
+public record ChatPrincipal(Long userId) implements Principal {
+
+    @Override
+    public String getName() {
+        return String.valueOf(userId);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.freeandnice.models;
+
+public enum EEmailJobStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
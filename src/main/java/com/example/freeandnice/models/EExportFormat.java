@@ -0,0 +1,6 @@
+package com.example.freeandnice.models;
+
+public enum EExportFormat {
+    NDJSON,
+    CSV
+}
@@ -0,0 +1,9 @@
+package com.example.freeandnice.models;
+
+public enum ELedgerAccountType {
+    /** Money collected by the payment provider and not paid out yet; goes negative as buyers pay. */
+    PROVIDER_CLEARING,
+    PLATFORM_FEES,
+    /** Owed to one seller. */
+    SELLER
+}
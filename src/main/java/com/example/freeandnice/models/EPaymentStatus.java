@@ -0,0 +1,7 @@
+package com.example.freeandnice.models;
+
+public enum EPaymentStatus {
+    PENDING,
+    SUCCEEDED,
+    FAILED
+}
@@ -0,0 +1,7 @@
+package com.example.freeandnice.models;
+
+public enum EProductChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
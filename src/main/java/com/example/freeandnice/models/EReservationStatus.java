@@ -0,0 +1,8 @@
+package com.example.freeandnice.models;
+
+public enum EReservationStatus {
+    RESERVED,
+    COMMITTED,
+    RELEASED,
+    EXPIRED
+}
@@ -5,6 +5,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Table(name = "emails_pins")
 @Getter
@@ -22,6 +24,12 @@ public class EmailPin {
     @Column(name = "pin")
     private int pin;
 
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
     public EmailPin(String email, int pin) {
         this.email = email;
         this.pin = pin;
@@ -0,0 +1,41 @@
+package com.example.freeandnice.models;
+
+import io.jsonwebtoken.Claims;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal rebuilt from verified token claims, used instead of loading the
+ * {@link User} entity when stateless authentication is enabled.
+ */
+@Getter
+@AllArgsConstructor
+public class JwtPrincipal implements UserDetails {
+
+    private final Long id;
+    private final String email;
+    private final String username;
+
+    public static JwtPrincipal fromClaims(Claims claims) {
+        Object id = claims.get("id");
+        return new JwtPrincipal(
+                id instanceof Number number ? number.longValue() : null,
+                claims.get("email", String.class),
+                claims.getSubject());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of();
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.freeandnice.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Outcome of a charge that the provider did answer; a declined charge is not an error. */
+@Getter
+@AllArgsConstructor
+public class PaymentProviderResult {
+    private final boolean succeeded;
+    private final String reference;
+    private final String failureReason;
+}
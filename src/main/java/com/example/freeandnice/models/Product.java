@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,8 +19,12 @@ import java.util.Set;
 @Table(name = "products")
 public class Product {
 
+    /** Ids reserved per sequence call, shared by Hibernate and the bulk importer. */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -35,14 +40,19 @@ public class Product {
     private Integer quantity;
 
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "product_images", joinColumns = @JoinColumn(name = "product_id"))
     @Column(name = "image_path")
     private List<String> images;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private User seller;
 
     @ManyToMany
+    @BatchSize(size = 100)
+    @JoinTable(name = "products_categories",
+            joinColumns = @JoinColumn(name = "products_id"),
+            inverseJoinColumns = @JoinColumn(name = "categories_id"))
     private Set<Category> categories;
 
     @Column(name = "created_at")
@@ -53,6 +63,26 @@ public class Product {
 
     private String location;
 
+    /** Also bumped by the inventory's stock updates, so stale edits of the quantity are rejected. */
+    @Version
+    private Long version;
+
+    /** Review counts per star, maintained by {@code ReviewServiceImpl} and never written through the entity. */
+    @Column(name = "rating_1", insertable = false, updatable = false)
+    private Integer rating1;
+
+    @Column(name = "rating_2", insertable = false, updatable = false)
+    private Integer rating2;
+
+    @Column(name = "rating_3", insertable = false, updatable = false)
+    private Integer rating3;
+
+    @Column(name = "rating_4", insertable = false, updatable = false)
+    private Integer rating4;
+
+    @Column(name = "rating_5", insertable = false, updatable = false)
+    private Integer rating5;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,34 @@
+package com.example.freeandnice.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * An entry of the product change feed. Rows are inserted by
+ * {@code ProductChangeServiceImpl} in commit order, so {@code seq} only grows
+ * in the order readers can see it.
+ */
+@Entity
+@Table(name = "product_changes")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProductChange {
+
+    @Id
+    private Long seq;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private EProductChangeType changeType;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -2,8 +2,29 @@ package com.example.freeandnice.repositories;
 
 import com.example.freeandnice.models.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    @Modifying
+    @Query("UPDATE Category c SET c.parentId = :parentId WHERE c.parentId = :id")
+    int reparentChildren(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    @Query("SELECT c.id AS categoryId, COUNT(p.id) AS productCount FROM Product p JOIN p.categories c GROUP BY c.id")
+    List<CategoryProductCount> countProductsPerCategory();
+
+    @Query("SELECT COUNT(p.id) FROM Product p JOIN p.categories c WHERE c.id = :id")
+    long countProductsByCategoryId(@Param("id") Long id);
+
+    interface CategoryProductCount {
+        Long getCategoryId();
+
+        Long getProductCount();
+    }
 }
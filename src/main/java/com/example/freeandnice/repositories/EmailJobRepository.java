@@ -0,0 +1,24 @@
+package com.example.freeandnice.repositories;
+
+import com.example.freeandnice.models.EEmailJobStatus;
+import com.example.freeandnice.models.EmailJob;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailJobRepository extends JpaRepository<EmailJob, Long> {
+    List<EmailJob> findByStatusInAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(
+            Collection<EEmailJobStatus> statuses, LocalDateTime now, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM EmailJob j WHERE j.status = :status AND j.sentAt < :before")
+    int deleteByStatusAndSentAtBefore(@Param("status") EEmailJobStatus status, @Param("before") LocalDateTime before);
+}
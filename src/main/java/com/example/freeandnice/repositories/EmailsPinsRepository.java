@@ -1,9 +1,15 @@
 package com.example.freeandnice.repositories;
 
 import com.example.freeandnice.models.EmailPin;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +17,16 @@ public interface EmailsPinsRepository extends JpaRepository<EmailPin, Long> {
     boolean existsByEmail(String email);
 
     Optional<EmailPin> findByEmail(String email);
+
+    /**
+     * Locks the pin until the transaction ends, so concurrent guesses are
+     * counted one after the other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM EmailPin p WHERE p.email = :email")
+    Optional<EmailPin> findForUpdateByEmail(@Param("email") String email);
+
+    @Modifying
+    @Query("DELETE FROM EmailPin p WHERE p.expiresAt IS NULL OR p.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
 }
@@ -0,0 +1,29 @@
+package com.example.freeandnice.repositories;
+
+import com.example.freeandnice.models.ProductChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+    List<ProductChange> findBySeqGreaterThanOrderBySeq(Long seq, Limit limit);
+
+    @Query("SELECT MIN(c.seq) FROM ProductChange c")
+    Long findMinSeq();
+
+    @Query("SELECT MAX(c.seq) FROM ProductChange c")
+    Long findMaxSeq();
+
+    /** Keeps the newest row, so the oldest retained seq is always known. */
+    @Modifying
+    @Query("DELETE FROM ProductChange c WHERE c.changedAt < :before " +
+            "AND c.seq < (SELECT MAX(l.seq) FROM ProductChange l)")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
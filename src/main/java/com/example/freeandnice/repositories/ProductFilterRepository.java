@@ -0,0 +1,164 @@
+package com.example.freeandnice.repositories;
+
+import com.example.freeandnice.dto.PriceBucketDto;
+import com.example.freeandnice.dto.ProductFilterRequestDto;
+import com.example.freeandnice.dto.ProductResponseDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds the product filter queries. Each facet is counted with every
+ * criterion except the facet's own, so a client can widen a selection without
+ * losing the other options. Besides the page, a filter costs two statements:
+ * one pass over the products for every facet but the categories, and one
+ * grouped join for the categories, which counts a product once per category.
+ */
+@Repository
+public class ProductFilterRepository {
+
+    private enum Facet {CATEGORY, LOCATION, PRICE, STOCK}
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public List<ProductResponseDto> findPage(ProductFilterRequestDto filter, long afterId, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        String where = where(filter, null, params);
+        params.put("afterId", afterId);
+        TypedQuery<ProductResponseDto> query = entityManager.createQuery(
+                ProductRepository.PRODUCT_VIEW + where + " AND p.id > :afterId ORDER BY p.id",
+                ProductResponseDto.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /** Product counts keyed by category id. */
+    public Map<Long, Long> countByCategory(ProductFilterRequestDto filter) {
+        Map<String, Object> params = new HashMap<>();
+        TypedQuery<Object[]> query = entityManager.createQuery(
+                "SELECT c.id, COUNT(DISTINCT p.id) FROM Product p JOIN p.categories c " +
+                        where(filter, Facet.CATEGORY, params) + " GROUP BY c.id",
+                Object[].class);
+        params.forEach(query::setParameter);
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : query.getResultList()) {
+            counts.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    /**
+     * The total, the location counts, the price buckets and the in-stock count,
+     * computed in one pass grouped by location. Only the category criterion,
+     * which every one of them applies, filters the rows; the other criteria
+     * become CASE conditions, each count leaving out its own facet's. Bucket
+     * {@code i} covers {@code [bounds[i], bounds[i + 1])}, the last one is open-ended.
+     */
+    public FacetCounts countFacets(ProductFilterRequestDto filter, List<Long> bounds) {
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder select = new StringBuilder("SELECT p.location")
+                .append(", ").append(countWhere(condition(filter, EnumSet.of(Facet.LOCATION, Facet.PRICE, Facet.STOCK), params)))
+                .append(", ").append(countWhere(condition(filter, EnumSet.of(Facet.PRICE, Facet.STOCK), params)))
+                .append(", ").append(countWhere(condition(filter, EnumSet.of(Facet.LOCATION, Facet.PRICE), params)
+                        + " AND p.quantity > 0"));
+        String bucketFilter = condition(filter, EnumSet.of(Facet.LOCATION, Facet.STOCK), params);
+        for (int i = 0; i < bounds.size(); i++) {
+            params.put("from" + i, bounds.get(i));
+            String bucket = bucketFilter + " AND p.price >= :from" + i;
+            if (i + 1 < bounds.size()) {
+                params.put("to" + i, bounds.get(i + 1));
+                bucket += " AND p.price < :to" + i;
+            }
+            select.append(", ").append(countWhere(bucket));
+        }
+        TypedQuery<Object[]> query = entityManager.createQuery(
+                select + " FROM Product p WHERE " + condition(filter, EnumSet.of(Facet.CATEGORY), params) +
+                        " GROUP BY p.location ORDER BY p.location",
+                Object[].class);
+        params.forEach(query::setParameter);
+
+        long total = 0;
+        long inStock = 0;
+        long[] bucketCounts = new long[bounds.size()];
+        Map<String, Long> locations = new LinkedHashMap<>();
+        for (Object[] row : query.getResultList()) {
+            total += asLong(row[1]);
+            long locationCount = asLong(row[2]);
+            if (row[0] != null && locationCount > 0) {
+                locations.put((String) row[0], locationCount);
+            }
+            inStock += asLong(row[3]);
+            for (int i = 0; i < bounds.size(); i++) {
+                bucketCounts[i] += asLong(row[i + 4]);
+            }
+        }
+        List<PriceBucketDto> buckets = new ArrayList<>(bounds.size());
+        for (int i = 0; i < bounds.size(); i++) {
+            Long to = i + 1 < bounds.size() ? bounds.get(i + 1) : null;
+            buckets.add(new PriceBucketDto(bounds.get(i), to, bucketCounts[i]));
+        }
+        return new FacetCounts(total, locations, buckets, inStock);
+    }
+
+    private String where(ProductFilterRequestDto filter, Facet excluded, Map<String, Object> params) {
+        Set<Facet> facets = EnumSet.allOf(Facet.class);
+        if (excluded != null) {
+            facets.remove(excluded);
+        }
+        return "WHERE " + condition(filter, facets, params);
+    }
+
+    /** The criteria of the given facets, ANDed. */
+    private String condition(ProductFilterRequestDto filter, Set<Facet> facets, Map<String, Object> params) {
+        StringBuilder where = new StringBuilder("1 = 1");
+        if (facets.contains(Facet.CATEGORY) && filter.getCategoryIds() != null) {
+            if (filter.getCategoryIds().isEmpty()) {
+                // Only unknown categories were requested.
+                where.append(" AND 1 = 0");
+            } else {
+                // A subquery instead of a join keeps one row per product.
+                where.append(" AND p.id IN (SELECT fp.id FROM Product fp JOIN fp.categories fc WHERE fc.id IN :categoryIds)");
+                params.put("categoryIds", filter.getCategoryIds());
+            }
+        }
+        if (facets.contains(Facet.LOCATION) && filter.getLocations() != null && !filter.getLocations().isEmpty()) {
+            where.append(" AND p.location IN :locations");
+            params.put("locations", filter.getLocations());
+        }
+        if (facets.contains(Facet.PRICE) && filter.getMinPrice() != null) {
+            where.append(" AND p.price >= :minPrice");
+            params.put("minPrice", filter.getMinPrice());
+        }
+        if (facets.contains(Facet.PRICE) && filter.getMaxPrice() != null) {
+            where.append(" AND p.price <= :maxPrice");
+            params.put("maxPrice", filter.getMaxPrice());
+        }
+        if (facets.contains(Facet.STOCK) && Boolean.TRUE.equals(filter.getInStock())) {
+            where.append(" AND p.quantity > 0");
+        }
+        return where.toString();
+    }
+
+    private static String countWhere(String condition) {
+        return "SUM(CASE WHEN " + condition + " THEN 1 ELSE 0 END)";
+    }
+
+    private static long asLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    /** Counts of {@link #countFacets}; the location counts are ordered by location. */
+    public record FacetCounts(long total, Map<String, Long> locations, List<PriceBucketDto> priceBuckets,
+                              long inStock) {
+    }
+}
@@ -1,29 +1,80 @@
 package com.example.freeandnice.repositories;
 
+import com.example.freeandnice.dto.ProductResponseDto;
 import com.example.freeandnice.models.Product;
-import com.example.freeandnice.models.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    @Query("SELECT p FROM Product p " +
-            "WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<Product> searchByName(@Param("keyword") String keyword);
+    String PRODUCT_VIEW = "SELECT new com.example.freeandnice.dto.ProductResponseDto(" +
+            "p.id, p.name, p.description, p.price, p.quantity, p.location, p.version, " +
+            "p.rating1, p.rating2, p.rating3, p.rating4, p.rating5) FROM Product p ";
+
+    @Query(PRODUCT_VIEW + "WHERE p.id IN :ids")
+    List<ProductResponseDto> findViewsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(PRODUCT_VIEW + "WHERE p.seller.id = :sellerId")
+    List<ProductResponseDto> findBySellerId(@Param("sellerId") Long sellerId);
+
+    @Query(PRODUCT_VIEW + "WHERE p.id = :id")
+    Optional<ProductResponseDto> findViewById(@Param("id") Long id);
+
+    @Query(PRODUCT_VIEW + "WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductResponseDto> findPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT p.id AS productId, c.name AS item FROM Product p JOIN p.categories c WHERE p.id IN :ids")
+    List<ProductItem> findCategoryNamesByProductIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id AS productId, i AS item FROM Product p JOIN p.images i WHERE p.id IN :ids")
+    List<ProductItem> findImagePathsByProductIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id AS productId, p.name AS name, p.description AS description FROM Product p WHERE p.id = :id")
+    Optional<ProductText> findTextById(@Param("id") Long id);
+
+    @Query("SELECT p.id AS productId, p.name AS name, p.description AS description FROM Product p WHERE p.id IN :ids")
+    List<ProductText> findTextsByIds(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.id AS productId, p.name AS name, p.description AS description FROM Product p")
+    Stream<ProductText> streamTexts();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.id AS productId, c.name AS item FROM Product p JOIN p.categories c")
+    Stream<ProductItem> streamCategoryNames();
+
+    @Query("SELECT p.id FROM Product p JOIN p.categories c WHERE c.id = :categoryId")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+
+    /**
+     * The searchable free-text columns of a product.
+     */
+    interface ProductText {
+        Long getProductId();
+
+        String getName();
 
-    @Query("SELECT p FROM Product p" +
-            " JOIN p.categories c " +
-            "WHERE (:category IS NULL OR c.name = :category)" +
-            " AND (:minPrice IS NULL OR p.price >= :minPrice)" +
-            " AND (:maxPrice IS NULL OR p.price <= :maxPrice)")
-    List<Product> filterProducts(@Param("category") String category,
-                                 @Param("minPrice") Long minPrice,
-                                 @Param("maxPrice") Long maxPrice);
+        String getDescription();
+    }
 
-    List<Product> findBySeller(User seller);
+    /**
+     * A single (product, value) pair of one of the product collections.
+     */
+    interface ProductItem {
+        Long getProductId();
 
+        String getItem();
+    }
 }
@@ -0,0 +1,24 @@
+package com.example.freeandnice.services;
+
+import com.example.freeandnice.dto.AuctionRequestDto;
+import com.example.freeandnice.dto.AuctionResponseDto;
+import com.example.freeandnice.dto.BidRequestDto;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Service
+public interface AuctionService {
+    AuctionResponseDto createAuction(AuctionRequestDto request);
+
+    AuctionResponseDto getAuction(Long id);
+
+    /**
+     * Places a bid of the current user.
+     *
+     * @throws com.example.freeandnice.exceptions.BidRejectedException if the bid is too low or the auction has ended
+     */
+    AuctionResponseDto placeBid(Long auctionId, BidRequestDto request);
+
+    /** Streams the auction's state whenever it changes, until it closes. */
+    SseEmitter watch(Long auctionId);
+}
@@ -0,0 +1,10 @@
+package com.example.freeandnice.services;
+
+import com.example.freeandnice.models.CategorySnapshot;
+import org.springframework.stereotype.Service;
+
+@Service
+public interface CategoryCatalogService {
+    CategorySnapshot getSnapshot();
+    CategorySnapshot refresh();
+}
@@ -1,6 +1,8 @@
 package com.example.freeandnice.services;
 
-import com.example.freeandnice.models.Category;
+import com.example.freeandnice.dto.CategoryRequestDto;
+import com.example.freeandnice.dto.CategoryResponseDto;
+import com.example.freeandnice.models.CategorySnapshot;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -8,9 +10,10 @@ import java.util.Optional;
 
 @Service
 public interface CategoryService {
-    Category createCategory(Category category);
-    Optional<Category> getCategoryById(Long id);
-    List<Category> getAllCategories();
-    Category updateCategory(Category category);
+    CategoryResponseDto createCategory(CategoryRequestDto request);
+    Optional<CategoryResponseDto> getCategoryById(Long id, boolean withProductCount);
+    CategorySnapshot getCatalog();
+    List<CategoryResponseDto> getCategoriesWithProductCounts();
+    CategoryResponseDto updateCategory(Long id, CategoryRequestDto request);
     void deleteCategory(Long id);
 }
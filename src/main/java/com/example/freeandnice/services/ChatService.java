@@ -0,0 +1,31 @@
+package com.example.freeandnice.services;
+
+import com.example.freeandnice.dto.ChatMessageDto;
+import com.example.freeandnice.dto.ChatMessagePageResponseDto;
+import com.example.freeandnice.dto.ChatMessageRequestDto;
+import com.example.freeandnice.dto.ConversationPageResponseDto;
+import com.example.freeandnice.dto.ConversationRequestDto;
+import com.example.freeandnice.dto.ConversationResponseDto;
+import org.springframework.stereotype.Service;
+
+/**
+ * Buyer and seller chat about a product. Every method acts on behalf of the
+ * given user and denies access to conversations the user is not part of.
+ */
+@Service
+public interface ChatService {
+    /** Opens the buyer's conversation with the product's seller, or returns the existing one. */
+    ConversationResponseDto startConversation(Long buyerId, ConversationRequestDto request);
+
+    /** The user's conversations, newest first, with unread counts. */
+    ConversationPageResponseDto getConversations(Long userId, String cursor, Integer size);
+
+    /** Stores the message and pushes it to both participants. */
+    ChatMessageDto sendMessage(Long conversationId, Long senderId, ChatMessageRequestDto request);
+
+    /** Messages older than the cursor, newest first. */
+    ChatMessagePageResponseDto getMessages(Long conversationId, Long userId, String before, Integer size);
+
+    /** Marks the messages up to seq as read. */
+    ConversationResponseDto markRead(Long conversationId, Long userId, int seq);
+}
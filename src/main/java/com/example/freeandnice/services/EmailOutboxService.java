@@ -0,0 +1,18 @@
+package com.example.freeandnice.services;
+
+import org.springframework.stereotype.Service;
+
+@Service
+public interface EmailOutboxService {
+    /**
+     * Persists the email for asynchronous delivery and returns immediately.
+     */
+    void enqueue(String toAddress, String subject, String message);
+
+    /**
+     * Claims due emails and hands them to the sender pool without waiting for delivery.
+     *
+     * @return number of emails claimed
+     */
+    int dispatch();
+}
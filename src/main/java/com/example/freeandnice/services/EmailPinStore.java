@@ -0,0 +1,20 @@
+package com.example.freeandnice.services;
+
+import org.springframework.stereotype.Service;
+
+@Service
+public interface EmailPinStore {
+    /**
+     * Stores a new pin for the email, replacing any previous one.
+     */
+    void put(String email, int pin);
+
+    /**
+     * Consumes the pin if it matches. A wrong pin counts as a failed attempt and
+     * the pin is dropped once the attempts are used up.
+     *
+     * @throws com.example.freeandnice.exceptions.EmailPinNotFoundException if there is no live pin for the email
+     * @throws com.example.freeandnice.exceptions.InvalidPinException if the pin does not match
+     */
+    void verify(String email, Long pin);
+}
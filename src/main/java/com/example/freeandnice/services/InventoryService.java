@@ -0,0 +1,27 @@
+package com.example.freeandnice.services;
+
+import com.example.freeandnice.dto.ReservationRequestDto;
+import com.example.freeandnice.dto.ReservationResponseDto;
+import org.springframework.stereotype.Service;
+
+@Service
+public interface InventoryService {
+    /**
+     * Takes the quantity out of stock and holds it until the reservation is
+     * committed, released or expires.
+     *
+     * @throws com.example.freeandnice.exceptions.InsufficientStockException if less is in stock
+     */
+    ReservationResponseDto reserve(ReservationRequestDto request);
+
+    ReservationResponseDto getReservation(Long id);
+
+    /** Makes the sale final; the stock is not returned anymore. */
+    ReservationResponseDto commit(Long id);
+
+    /** Returns the reserved quantity to stock. */
+    ReservationResponseDto release(Long id);
+
+    /** Returns the stock of every reservation past its expiry; the number of reservations expired. */
+    int expireReservations();
+}
@@ -1,5 +1,6 @@
 package com.example.freeandnice.services;
 
+import io.jsonwebtoken.Claims;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
@@ -7,7 +8,14 @@ import org.springframework.stereotype.Service;
 public interface JwtService {
     String extractUserName(String token);
 
+    /**
+     * Verifies the signature and expiration of the token and returns its claims.
+     */
+    Claims parseToken(String token);
+
     String generateToken(UserDetails userDetails);
 
     boolean isTokenValid(String token, UserDetails userDetails);
+
+    boolean isTokenValid(Claims claims, UserDetails userDetails);
 }
@@ -0,0 +1,23 @@
+package com.example.freeandnice.services;
+
+import com.example.freeandnice.models.PaymentProviderResult;
+import org.springframework.stereotype.Service;
+
+/**
+ * The external payment provider, selected with {@code payments.provider}.
+ */
+@Service
+public interface PaymentProvider {
+    /** Stored with each payment. */
+    String getName();
+
+    /**
+     * Charges the buyer. A payment that was interrupted is charged again with
+     * the same key, so implementations must hand the key to the provider and
+     * get the first outcome back for a repeated key instead of a second charge.
+     *
+     * @throws RuntimeException when the provider could not be reached or did not answer;
+     *                          the payment stays pending and is retried
+     */
+    PaymentProviderResult charge(String idempotencyKey, Long buyerId, long amount);
+}
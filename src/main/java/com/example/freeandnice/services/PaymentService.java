@@ -0,0 +1,27 @@
+package com.example.freeandnice.services;
+
+import com.example.freeandnice.dto.LedgerBalanceDto;
+import com.example.freeandnice.dto.PaymentRequestDto;
+import com.example.freeandnice.dto.PaymentResponseDto;
+import org.springframework.stereotype.Service;
+
+@Service
+public interface PaymentService {
+    /**
+     * Charges the buyer for the product and posts the captured amount to the
+     * ledger. Repeating the call with the same key returns the same payment
+     * and never charges twice; a payment still pending is driven on.
+     *
+     * @throws com.example.freeandnice.exceptions.IdempotencyKeyReusedException if the key was used for another purchase
+     */
+    PaymentResponseDto pay(Long buyerId, String idempotencyKey, PaymentRequestDto request);
+
+    /** Visible to the payment's buyer and seller. */
+    PaymentResponseDto getPayment(Long id, Long userId);
+
+    /** What the seller is owed from captured payments. */
+    LedgerBalanceDto getSellerBalance(Long sellerId);
+
+    /** Drives on payments left pending by a crash or an unreachable provider; the number finished. */
+    int resumePending();
+}
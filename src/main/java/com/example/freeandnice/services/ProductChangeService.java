@@ -0,0 +1,28 @@
+package com.example.freeandnice.services;
+
+import com.example.freeandnice.models.EProductChangeType;
+import com.example.freeandnice.models.ProductChange;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+@Service
+public interface ProductChangeService {
+    /**
+     * Records changes of the current transaction. They become visible, with
+     * their sequence numbers, when it commits.
+     */
+    void record(Collection<Long> productIds, EProductChangeType type);
+
+    /**
+     * Changes after {@code seq}, oldest first.
+     *
+     * @throws com.example.freeandnice.exceptions.ChangeTokenExpiredException if changes after
+     *         {@code seq} have already been purged
+     */
+    List<ProductChange> findSince(long seq, int limit);
+
+    /** Sequence number of the newest change, 0 when there is none yet. */
+    long currentSeq();
+}
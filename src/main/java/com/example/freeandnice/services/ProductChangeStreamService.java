@@ -0,0 +1,16 @@
+package com.example.freeandnice.services;
+
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Service
+public interface ProductChangeStreamService {
+    /**
+     * Opens a stream of the changes after the given token, or of the changes
+     * from now on when the token is blank.
+     *
+     * @throws com.example.freeandnice.exceptions.ChangeTokenExpiredException if changes after
+     *         the token have already been purged
+     */
+    SseEmitter subscribe(String token);
+}
@@ -0,0 +1,17 @@
+package com.example.freeandnice.services;
+
+import com.example.freeandnice.dto.ProductExportFilterDto;
+import com.example.freeandnice.models.EExportFormat;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+@Service
+public interface ProductExportService {
+    /**
+     * Writes every product matching the filter to {@code out}, ordered by id.
+     * Rows are streamed, so memory use does not grow with the catalog.
+     */
+    void export(ProductExportFilterDto filter, EExportFormat format, OutputStream out) throws IOException;
+}
@@ -0,0 +1,19 @@
+package com.example.freeandnice.services;
+
+import com.example.freeandnice.dto.ProductImportResultDto;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Service
+public interface ProductImportService {
+    /** One JSON object per line, with the fields of {@code CreateProductRequestDto}. */
+    ProductImportResultDto importNdjson(InputStream body) throws IOException;
+
+    /**
+     * A header row naming the columns, then one product per record. List
+     * columns ({@code categoryIds}, {@code imagePaths}) separate values with {@code |}.
+     */
+    ProductImportResultDto importCsv(InputStream body) throws IOException;
+}
@@ -0,0 +1,23 @@
+package com.example.freeandnice.services;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+@Service
+public interface ProductSearchService {
+    /**
+     * Returns ids of products matching every token of the query as a word
+     * prefix, best ranked first.
+     */
+    List<Long> search(String query, int offset, int limit);
+
+    void index(Long productId);
+
+    void index(Collection<Long> productIds);
+
+    void reindexCategory(Long categoryId);
+
+    void remove(Long productId);
+}
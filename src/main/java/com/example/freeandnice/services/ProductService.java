@@ -1,6 +1,10 @@
 package com.example.freeandnice.services;
 
 import com.example.freeandnice.dto.CreateProductRequestDto;
+import com.example.freeandnice.dto.ProductChangesResponseDto;
+import com.example.freeandnice.dto.ProductFilterRequestDto;
+import com.example.freeandnice.dto.ProductFilterResponseDto;
+import com.example.freeandnice.dto.ProductPageResponseDto;
 import com.example.freeandnice.dto.ProductResponseDto;
 import com.example.freeandnice.dto.UpdateProductRequestDto;
 import org.springframework.stereotype.Service;
@@ -12,13 +16,13 @@ import java.util.Optional;
 public interface ProductService {
     ProductResponseDto createProduct(CreateProductRequestDto createProductRequestDto);
 
-    List<ProductResponseDto> searchByNameOrCategory(String keyword);
+    List<ProductResponseDto> searchByNameOrCategory(String keyword, Integer page, Integer size);
 
-    List<ProductResponseDto> filterProducts(String category, Long minPrice, Long maxPrice);
+    ProductFilterResponseDto filterProducts(ProductFilterRequestDto filter, String cursor, Integer size);
 
     Optional<ProductResponseDto> getProductById(Long id);
 
-    List<ProductResponseDto> getAllProducts();
+    ProductPageResponseDto getProductsPage(String cursor, Integer size);
 
     ProductResponseDto updateProduct(UpdateProductRequestDto updateProductRequestDto);
 
@@ -26,4 +30,13 @@ public interface ProductService {
 
     List<ProductResponseDto> getProductsBySeller(Long sellerId);
 
+    /**
+     * Changes after the given token, each with the current state of its
+     * product. A blank token starts at the oldest retained change.
+     */
+    ProductChangesResponseDto getChanges(String token, Integer size);
+
+    /** Token of the newest change, to follow the feed from now on. */
+    String getChangesHeadToken();
+
 }
@@ -0,0 +1,41 @@
+package com.example.freeandnice.services;
+
+import com.example.freeandnice.dto.RatingSummaryDto;
+import com.example.freeandnice.dto.ReviewPageResponseDto;
+import com.example.freeandnice.dto.ReviewRequestDto;
+import com.example.freeandnice.dto.ReviewResponseDto;
+import org.springframework.stereotype.Service;
+
+/**
+ * Product reviews. A review also counts towards the rating of the product's
+ * seller. Product ratings are part of {@code ProductResponseDto}.
+ */
+@Service
+public interface ReviewService {
+    /**
+     * One review per author and product.
+     *
+     * @throws com.example.freeandnice.exceptions.ReviewAlreadyExistsException if the author reviewed it before
+     */
+    ReviewResponseDto createReview(Long productId, Long authorId, ReviewRequestDto request);
+
+    /** Only the author may edit a review. */
+    ReviewResponseDto updateReview(Long id, Long authorId, ReviewRequestDto request);
+
+    /** Only the author may delete a review. */
+    void deleteReview(Long id, Long authorId);
+
+    /** Reviews of the product older than the cursor, newest first. */
+    ReviewPageResponseDto getProductReviews(Long productId, String cursor, Integer size);
+
+    /** Reviews of all the seller's products older than the cursor, newest first. */
+    ReviewPageResponseDto getSellerReviews(Long sellerId, String cursor, Integer size);
+
+    RatingSummaryDto getSellerRating(Long sellerId);
+
+    /**
+     * Takes the product's reviews out of its seller's rating. Called in the
+     * transaction deleting the product, whose reviews go with it.
+     */
+    void removeProductRatings(Long productId);
+}
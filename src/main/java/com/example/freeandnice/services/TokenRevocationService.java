@@ -0,0 +1,15 @@
+package com.example.freeandnice.services;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.stereotype.Service;
+
+@Service
+public interface TokenRevocationService {
+    /**
+     * Invalidates every token issued to the user up to now, whatever username
+     * the tokens carry.
+     */
+    void revokeAll(Long userId);
+
+    boolean isRevoked(Claims claims);
+}
@@ -0,0 +1,23 @@
+package com.example.freeandnice.services;
+
+import com.example.freeandnice.models.User;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+@Service
+public interface UserCacheService {
+    /**
+     * Cached lookups for resolving the current user. Every call returns a new
+     * detached copy, so callers may modify it without affecting other requests.
+     */
+    Optional<User> findByUsername(String username);
+
+    Optional<User> findById(Long id);
+
+    /**
+     * Drops the user's entries; call after every write. Inside a transaction
+     * they are dropped again once it completes.
+     */
+    void evict(User user);
+}
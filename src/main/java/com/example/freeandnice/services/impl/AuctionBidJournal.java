@@ -0,0 +1,172 @@
+package com.example.freeandnice.services.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists what the auction engine decided, off the bidding path. Entries
+ * are queued by the shard threads and written by one background thread,
+ * everything queued meanwhile in one transaction. Bids are acknowledged
+ * before they are written, so a crash loses at most the entries still
+ * queued. While the database is down the queue fills up; a shard then waits
+ * at most the offer timeout and turns the bid away as busy, rather than
+ * buffering without bound or blocking its thread.
+ */
+@Slf4j
+@Component
+public class AuctionBidJournal {
+
+    private static final String INSERT_BID =
+            "INSERT INTO auction_bids (auction_id, seq, bidder_id, amount, placed_at) " +
+            "VALUES (:auctionId, :seq, :bidderId, :amount, :placedAt)";
+    private static final String UPDATE_AUCTION =
+            "UPDATE auctions SET high_bid = :amount, high_bidder_id = :bidderId, bid_count = :seq, ends_at = :endsAt " +
+            "WHERE id = :auctionId";
+    private static final String CLOSE_AUCTION =
+            "UPDATE auctions SET status = 'CLOSED', closed_at = :closedAt WHERE id = :auctionId";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Entry> queue;
+    private final int batchSize;
+
+    @Value("${auctions.journal.retry-delay:PT1S}")
+    private Duration retryDelay;
+
+    @Value("${auctions.journal.offer-timeout:PT0.1S}")
+    private Duration offerTimeout;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AuctionBidJournal(NamedParameterJdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${auctions.journal.queue-capacity:100000}") int queueCapacity,
+                             @Value("${auctions.journal.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Called on a shard thread before the bid is applied. Returns false when the
+     * queue stayed full for the offer timeout; the bid must then be rejected.
+     */
+    public boolean bidAccepted(long auctionId, int seq, long bidderId, long amount, LocalDateTime placedAt,
+                               LocalDateTime endsAt) throws InterruptedException {
+        return offer(new Entry(auctionId, seq, bidderId, amount, placedAt, endsAt, false));
+    }
+
+    /** Queued behind the auction's bids, so it is written after all of them. Returns false like a bid. */
+    public boolean auctionClosed(long auctionId, LocalDateTime closedAt) throws InterruptedException {
+        return offer(new Entry(auctionId, 0, 0, 0, closedAt, null, true));
+    }
+
+    private boolean offer(Entry entry) throws InterruptedException {
+        return queue.offer(entry, offerTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::run, "auction-journal");
+        writer.start();
+    }
+
+    /** Stops taking new work and writes out what is queued. */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join();
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeWithRetry(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void writeWithRetry(List<Entry> batch) throws InterruptedException {
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(batch));
+                return;
+            } catch (DataIntegrityViolationException e) {
+                // E.g. the auction was deleted with its product; only the offending entries are dropped.
+                if (batch.size() == 1) {
+                    log.warn("Dropping auction journal entry {}: {}", batch.get(0), e.getMostSpecificCause().getMessage());
+                    return;
+                }
+                for (Entry entry : batch) {
+                    writeWithRetry(List.of(entry));
+                }
+                return;
+            } catch (DataAccessException e) {
+                // The bids were already acknowledged, so they are retried until the database is back.
+                log.error("Writing {} auction journal entries failed, retrying", batch.size(), e);
+                Thread.sleep(retryDelay.toMillis());
+            }
+        }
+    }
+
+    private void write(List<Entry> batch) {
+        List<MapSqlParameterSource> bids = new ArrayList<>(batch.size());
+        // Only the latest state of each auction needs to reach its row.
+        Map<Long, MapSqlParameterSource> latest = new LinkedHashMap<>();
+        List<MapSqlParameterSource> closes = new ArrayList<>();
+        for (Entry entry : batch) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("auctionId", entry.auctionId());
+            if (entry.close()) {
+                closes.add(params.addValue("closedAt", entry.at()));
+                continue;
+            }
+            params.addValue("seq", entry.seq())
+                    .addValue("bidderId", entry.bidderId())
+                    .addValue("amount", entry.amount())
+                    .addValue("placedAt", entry.at())
+                    .addValue("endsAt", entry.endsAt());
+            bids.add(params);
+            latest.put(entry.auctionId(), params);
+        }
+        jdbcTemplate.batchUpdate(INSERT_BID, bids.toArray(MapSqlParameterSource[]::new));
+        jdbcTemplate.batchUpdate(UPDATE_AUCTION, latest.values().toArray(MapSqlParameterSource[]::new));
+        jdbcTemplate.batchUpdate(CLOSE_AUCTION, closes.toArray(MapSqlParameterSource[]::new));
+    }
+
+    private record Entry(long auctionId, int seq, long bidderId, long amount, LocalDateTime at,
+                         LocalDateTime endsAt, boolean close) {
+    }
+}
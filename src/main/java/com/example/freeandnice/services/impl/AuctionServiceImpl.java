@@ -0,0 +1,478 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.AuctionRequestDto;
+import com.example.freeandnice.dto.AuctionResponseDto;
+import com.example.freeandnice.dto.BidRequestDto;
+import com.example.freeandnice.exceptions.AuctionAlreadyOpenException;
+import com.example.freeandnice.exceptions.AuctionBusyException;
+import com.example.freeandnice.exceptions.BidRejectedException;
+import com.example.freeandnice.exceptions.ResourceNotFoundException;
+import com.example.freeandnice.models.EAuctionStatus;
+import com.example.freeandnice.services.AuctionService;
+import com.example.freeandnice.utils.SecurityUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory auction engine. Every open lot belongs to one shard, a
+ * single-threaded executor picked by auction id, and only that thread reads
+ * or changes the lot. Bids are validated and applied without locks or
+ * database round trips. The result is published as an immutable snapshot
+ * and handed to {@link AuctionBidJournal} to be persisted in batches.
+ * Watchers get the latest snapshot at a fixed interval, so a burst of bids
+ * costs them one event.
+ * <p>
+ * The engine owns the open auctions, so it assumes one instance serves
+ * them, or that requests are routed to instances by auction id.
+ */
+@Slf4j
+@Service
+public class AuctionServiceImpl implements AuctionService {
+
+    private static final String EVENT_NAME = "auction";
+
+    private static final int TASK_PENDING = 0;
+    private static final int TASK_RUNNING = 1;
+    private static final int TASK_ABANDONED = 2;
+
+    private static final String INSERT_AUCTION =
+            "INSERT INTO auctions (product_id, seller_id, starting_price, min_increment, status, bid_count, created_at, ends_at) " +
+            "VALUES (:productId, :sellerId, :startingPrice, :minIncrement, 'OPEN', 0, :now, :endsAt) RETURNING *";
+
+    private static final RowMapper<AuctionResponseDto> AUCTION_MAPPER = (resultSet, rowNum) ->
+            new AuctionResponseDto(
+                    resultSet.getLong("id"),
+                    resultSet.getLong("product_id"),
+                    resultSet.getObject("seller_id", Long.class),
+                    resultSet.getLong("starting_price"),
+                    resultSet.getLong("min_increment"),
+                    EAuctionStatus.valueOf(resultSet.getString("status")),
+                    resultSet.getObject("high_bid", Long.class),
+                    resultSet.getObject("high_bidder_id", Long.class),
+                    resultSet.getInt("bid_count"),
+                    toLocalDateTime(resultSet.getTimestamp("ends_at")));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final AuctionBidJournal journal;
+    private final Shard[] shards;
+
+    private final Map<Long, AuctionResponseDto> snapshots = new ConcurrentHashMap<>();
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<SseEmitter>> watchers = new ConcurrentHashMap<>();
+    private volatile long lastKeepAliveNanos = System.nanoTime();
+
+    @Value("${auctions.engine.bid-timeout:PT2S}")
+    private Duration bidTimeout;
+
+    @Value("${auctions.anti-sniping.window:PT2M}")
+    private Duration antiSnipingWindow;
+
+    @Value("${auctions.anti-sniping.extension:PT2M}")
+    private Duration antiSnipingExtension;
+
+    @Value("${auctions.watch.timeout:PT1H}")
+    private Duration watchTimeout;
+
+    @Value("${auctions.watch.keep-alive:PT15S}")
+    private Duration keepAlive;
+
+    public AuctionServiceImpl(NamedParameterJdbcTemplate jdbcTemplate,
+                              AuctionBidJournal journal,
+                              @Value("${auctions.engine.shards:0}") int shardCount,
+                              @Value("${auctions.engine.shard-queue:10000}") int shardQueue) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.journal = journal;
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(i, shardQueue);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOpenAuctions() {
+        List<AuctionResponseDto> open = jdbcTemplate.query(
+                "SELECT * FROM auctions WHERE status = 'OPEN'", Map.of(), AUCTION_MAPPER);
+        open.forEach(this::register);
+        log.info("Loaded {} open auctions", open.size());
+    }
+
+    @Override
+    public AuctionResponseDto createAuction(AuctionRequestDto request) {
+        return createAuction(request, SecurityUtils.requireCurrentUserId());
+    }
+
+    /** Opens an auction on behalf of the given seller, who must own the product. */
+    public AuctionResponseDto createAuction(AuctionRequestDto request, long sellerId) {
+        List<Long> sellers = jdbcTemplate.query("SELECT seller_id FROM products WHERE id = :id",
+                Map.of("id", request.getProductId()), (resultSet, rowNum) -> resultSet.getObject("seller_id", Long.class));
+        if (sellers.isEmpty()) {
+            throw new ResourceNotFoundException("Product not found with id: " + request.getProductId());
+        }
+        if (!Objects.equals(sellers.get(0), sellerId)) {
+            throw new AccessDeniedException("Only the seller can auction product " + request.getProductId());
+        }
+
+        AuctionResponseDto auction;
+        try {
+            auction = jdbcTemplate.queryForObject(INSERT_AUCTION, new MapSqlParameterSource()
+                    .addValue("productId", request.getProductId())
+                    .addValue("sellerId", sellerId)
+                    .addValue("startingPrice", request.getStartingPrice())
+                    .addValue("minIncrement", request.getMinIncrement())
+                    .addValue("now", LocalDateTime.now())
+                    .addValue("endsAt", request.getEndsAt()), AUCTION_MAPPER);
+        } catch (DuplicateKeyException e) {
+            throw new AuctionAlreadyOpenException(request.getProductId());
+        }
+        try {
+            return register(auction);
+        } catch (RuntimeException e) {
+            // Otherwise an OPEN row would sit in the database that the engine only loads on restart.
+            unregister(auction.getId());
+            jdbcTemplate.update("DELETE FROM auctions WHERE id = :id", Map.of("id", auction.getId()));
+            throw e;
+        }
+    }
+
+    @Override
+    public AuctionResponseDto getAuction(Long id) {
+        AuctionResponseDto snapshot = snapshots.get(id);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        List<AuctionResponseDto> auctions = jdbcTemplate.query(
+                "SELECT * FROM auctions WHERE id = :id", Map.of("id", id), AUCTION_MAPPER);
+        if (auctions.isEmpty()) {
+            throw new ResourceNotFoundException("Auction not found with id: " + id);
+        }
+        return auctions.get(0);
+    }
+
+    @Override
+    public AuctionResponseDto placeBid(Long auctionId, BidRequestDto request) {
+        Long bidderId = SecurityUtils.currentUserId();
+        if (bidderId == null) {
+            throw new AccessDeniedException("Sign in to bid");
+        }
+        return bid(auctionId, bidderId, request.getAmount());
+    }
+
+    /** Places a bid on behalf of the given bidder. */
+    public AuctionResponseDto bid(Long auctionId, long bidderId, long amount) {
+        if (!snapshots.containsKey(auctionId)) {
+            AuctionResponseDto auction = getAuction(auctionId);
+            if (auction.getStatus() == EAuctionStatus.OPEN) {
+                // Still being loaded at startup.
+                throw new AuctionBusyException(auctionId);
+            }
+            throw new BidRejectedException("Auction " + auctionId + " has ended");
+        }
+        return onShard(auctionId, lots -> {
+            Lot lot = lots.get(auctionId);
+            LocalDateTime now = LocalDateTime.now();
+            if (lot == null || !now.isBefore(lot.endsAt)) {
+                throw new BidRejectedException("Auction " + auctionId + " has ended");
+            }
+            if (Objects.equals(lot.sellerId, bidderId)) {
+                throw new BidRejectedException("Sellers cannot bid on their own auction");
+            }
+            long minimum = lot.highBid == null ? lot.startingPrice : lot.highBid + lot.minIncrement;
+            if (amount < minimum) {
+                throw new BidRejectedException("Bid must be at least " + minimum);
+            }
+
+            LocalDateTime endsAt = lot.endsAt;
+            // Anti-sniping: a bid close to the end gives the others time to answer it.
+            if (Duration.between(now, endsAt).compareTo(antiSnipingWindow) < 0) {
+                LocalDateTime extended = now.plus(antiSnipingExtension);
+                if (extended.isAfter(endsAt)) {
+                    endsAt = extended;
+                }
+            }
+            // Journaled before the lot changes, so a bid the journal cannot take leaves no trace.
+            try {
+                if (!journal.bidAccepted(lot.id, lot.bidCount + 1, bidderId, amount, now, endsAt)) {
+                    throw new AuctionBusyException(auctionId);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AuctionBusyException(auctionId);
+            }
+            lot.highBid = amount;
+            lot.highBidderId = bidderId;
+            lot.bidCount++;
+            lot.endsAt = endsAt;
+            return publish(lot);
+        });
+    }
+
+    @Override
+    public SseEmitter watch(Long auctionId) {
+        AuctionResponseDto auction = getAuction(auctionId);
+        SseEmitter emitter = new SseEmitter(watchTimeout.toMillis());
+        if (auction.getStatus() == EAuctionStatus.OPEN) {
+            Set<SseEmitter> lotWatchers = watchers.computeIfAbsent(auctionId, id -> ConcurrentHashMap.newKeySet());
+            lotWatchers.add(emitter);
+            emitter.onCompletion(() -> lotWatchers.remove(emitter));
+            emitter.onTimeout(() -> lotWatchers.remove(emitter));
+            emitter.onError(e -> lotWatchers.remove(emitter));
+        }
+        send(emitter, auction);
+        if (auction.getStatus() == EAuctionStatus.CLOSED) {
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    /** Closes the lots whose end has passed; an extension may have moved it, the shard checks again. */
+    @Scheduled(fixedDelayString = "${auctions.engine.close-interval-ms:1000}")
+    public void closeEnded() {
+        LocalDateTime now = LocalDateTime.now();
+        for (AuctionResponseDto snapshot : snapshots.values()) {
+            if (snapshot.getStatus() == EAuctionStatus.OPEN && !now.isBefore(snapshot.getEndsAt())) {
+                shardOf(snapshot.getId()).tryExecute(lots -> {
+                    Lot lot = lots.get(snapshot.getId());
+                    LocalDateTime closedAt = LocalDateTime.now();
+                    if (lot == null || closedAt.isBefore(lot.endsAt)) {
+                        return;
+                    }
+                    try {
+                        if (!journal.auctionClosed(lot.id, closedAt)) {
+                            // The journal is full; the next run tries again.
+                            return;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    lots.remove(lot.id);
+                    lot.closed = true;
+                    publish(lot);
+                });
+            }
+        }
+        // The journal has long written them by then, reads can go to the database.
+        snapshots.values().removeIf(snapshot -> snapshot.getStatus() == EAuctionStatus.CLOSED
+                && snapshot.getEndsAt().isBefore(now.minusHours(1)));
+    }
+
+    @Scheduled(fixedDelayString = "${auctions.watch.broadcast-interval-ms:250}")
+    public void broadcast() {
+        Iterator<Long> iterator = changed.iterator();
+        while (iterator.hasNext()) {
+            Long auctionId = iterator.next();
+            iterator.remove();
+            AuctionResponseDto snapshot = snapshots.get(auctionId);
+            Set<SseEmitter> lotWatchers = watchers.get(auctionId);
+            if (snapshot == null || lotWatchers == null) {
+                continue;
+            }
+            for (SseEmitter emitter : lotWatchers) {
+                send(emitter, snapshot);
+            }
+            if (snapshot.getStatus() == EAuctionStatus.CLOSED) {
+                watchers.remove(auctionId);
+                lotWatchers.forEach(SseEmitter::complete);
+            }
+        }
+
+        long now = System.nanoTime();
+        if (now - lastKeepAliveNanos >= keepAlive.toNanos()) {
+            lastKeepAliveNanos = now;
+            watchers.values().forEach(lotWatchers -> lotWatchers.forEach(emitter -> {
+                try {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                } catch (IOException | IllegalStateException e) {
+                    lotWatchers.remove(emitter);
+                    emitter.completeWithError(e);
+                }
+            }));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+        for (Shard shard : shards) {
+            shard.executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private AuctionResponseDto register(AuctionResponseDto auction) {
+        return onShard(auction.getId(), lots -> {
+            Lot lot = new Lot(auction);
+            lots.put(lot.id, lot);
+            return publish(lot);
+        });
+    }
+
+    /** Queued behind a register task that may still run, so it undoes that task too. */
+    private void unregister(long auctionId) {
+        shardOf(auctionId).tryExecute(lots -> {
+            lots.remove(auctionId);
+            snapshots.remove(auctionId);
+            changed.remove(auctionId);
+        });
+    }
+
+    /** Runs on the lot's shard thread. */
+    private AuctionResponseDto publish(Lot lot) {
+        AuctionResponseDto snapshot = lot.snapshot();
+        snapshots.put(lot.id, snapshot);
+        changed.add(lot.id);
+        return snapshot;
+    }
+
+    private void send(SseEmitter emitter, AuctionResponseDto snapshot) {
+        try {
+            emitter.send(SseEmitter.event().id(String.valueOf(snapshot.getBidCount())).name(EVENT_NAME).data(snapshot));
+        } catch (IOException | IllegalStateException e) {
+            Set<SseEmitter> lotWatchers = watchers.get(snapshot.getId());
+            if (lotWatchers != null) {
+                lotWatchers.remove(emitter);
+            }
+            emitter.completeWithError(e);
+        }
+    }
+
+    private Shard shardOf(long auctionId) {
+        return shards[(int) Math.floorMod(auctionId, (long) shards.length)];
+    }
+
+    /**
+     * Runs the task on the lot's shard and waits for it. A task that has not
+     * started when the caller gives up is skipped, so a bid reported as busy
+     * is never accepted after all. A running task only waits on the journal,
+     * for at most its offer timeout, so the second wait below is bounded too.
+     */
+    private <T> T onShard(long auctionId, Function<Map<Long, Lot>, T> task) {
+        Shard shard = shardOf(auctionId);
+        AtomicInteger state = new AtomicInteger(TASK_PENDING);
+        FutureTask<T> future = new FutureTask<>(() ->
+                state.compareAndSet(TASK_PENDING, TASK_RUNNING) ? task.apply(shard.lots) : null);
+        try {
+            shard.executor.execute(future);
+        } catch (RejectedExecutionException e) {
+            throw new AuctionBusyException(auctionId);
+        }
+        try {
+            try {
+                return future.get(bidTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (state.compareAndSet(TASK_PENDING, TASK_ABANDONED)) {
+                    throw new AuctionBusyException(auctionId);
+                }
+                // Already running; it is about to finish, so its outcome is worth waiting for.
+                return future.get(bidTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException | TimeoutException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new AuctionBusyException(auctionId);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private static class Shard {
+
+        private final ThreadPoolExecutor executor;
+        /** Confined to the shard thread. */
+        private final Map<Long, Lot> lots = new HashMap<>();
+
+        Shard(int index, int queueCapacity) {
+            this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                        Thread thread = new Thread(runnable, "auction-shard-" + index);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+
+        /** Fire and forget; a full queue skips the task, the caller retries it later. */
+        void tryExecute(Consumer<Map<Long, Lot>> task) {
+            try {
+                executor.execute(() -> task.accept(lots));
+            } catch (RejectedExecutionException e) {
+                // Next run.
+            }
+        }
+    }
+
+    /** Mutable state of an open auction, only touched by its shard thread. */
+    private static class Lot {
+
+        private final long id;
+        private final long productId;
+        private final Long sellerId;
+        private final long startingPrice;
+        private final long minIncrement;
+        private Long highBid;
+        private Long highBidderId;
+        private int bidCount;
+        private LocalDateTime endsAt;
+        private boolean closed;
+
+        Lot(AuctionResponseDto auction) {
+            this.id = auction.getId();
+            this.productId = auction.getProductId();
+            this.sellerId = auction.getSellerId();
+            this.startingPrice = auction.getStartingPrice();
+            this.minIncrement = auction.getMinIncrement();
+            this.highBid = auction.getHighBid();
+            this.highBidderId = auction.getHighBidderId();
+            this.bidCount = auction.getBidCount();
+            this.endsAt = auction.getEndsAt();
+        }
+
+        AuctionResponseDto snapshot() {
+            return new AuctionResponseDto(id, productId, sellerId, startingPrice, minIncrement,
+                    closed ? EAuctionStatus.CLOSED : EAuctionStatus.OPEN,
+                    highBid, highBidderId, bidCount, endsAt);
+        }
+    }
+}
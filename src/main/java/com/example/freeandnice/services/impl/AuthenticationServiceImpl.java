@@ -1,19 +1,18 @@
 package com.example.freeandnice.services.impl;
 
 import com.example.freeandnice.dto.*;
-import com.example.freeandnice.exceptions.EmailPinNotFoundException;
 import com.example.freeandnice.exceptions.InvalidPasswordException;
-import com.example.freeandnice.exceptions.InvalidPinException;
 import com.example.freeandnice.exceptions.UserIsNotConfirmedByEmailException;
 import com.example.freeandnice.models.ERole;
-import com.example.freeandnice.models.EmailPin;
 import com.example.freeandnice.models.User;
-import com.example.freeandnice.repositories.EmailsPinsRepository;
 import com.example.freeandnice.repositories.UserRepository;
 import com.example.freeandnice.services.AuthenticationService;
-import com.example.freeandnice.services.EmailService;
+import com.example.freeandnice.services.EmailOutboxService;
+import com.example.freeandnice.services.EmailPinStore;
 import com.example.freeandnice.services.JwtService;
+import com.example.freeandnice.services.TokenRevocationService;
 import com.example.freeandnice.services.UserService;
+import com.example.freeandnice.utils.PinUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,7 +22,6 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
-import java.util.Random;
 
 @Slf4j
 @Service
@@ -32,9 +30,10 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     private final UserService userService;
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
-    private final EmailService emailService;
-    private final EmailsPinsRepository emailsPinsRepository;
+    private final EmailOutboxService emailOutboxService;
+    private final EmailPinStore emailPinStore;
     private final UserRepository userRepository;
+    private final TokenRevocationService tokenRevocationService;
 
 
     @Override
@@ -87,6 +86,11 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         if (user.getIsConfirmed().equals(false)) throw new UserIsNotConfirmedByEmailException(user.getEmail());
 
         if (passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+            // Re-hash with the current BCrypt cost while the raw password is at hand.
+            if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+                user.setPassword(passwordEncoder.encode(request.getPassword()));
+                userService.save(user);
+            }
             UserDetails userDetails = userService
                     .userDetailsService()
                     .loadUserByUsername(request.getEmail());
@@ -100,24 +104,17 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
     @Override
     public void sendValidationMsgToEmail(String email) {
-        Random random = new Random();
-        int randomNumber = random.nextInt(900000) + 100000;
-        emailService.sendSimpleEmail(
+        int pin = PinUtils.generate();
+        emailPinStore.put(email, pin);
+        emailOutboxService.enqueue(
                 email,
                 "Подтверждение почты",
-                "Для подтверждения почты введите пин код: " + randomNumber);
-        Optional<EmailPin> emailPin = emailsPinsRepository.findByEmail(email);
-        if (emailPin.isEmpty()) emailsPinsRepository.save(new EmailPin(email, randomNumber));
-        else emailsPinsRepository.save(emailPin.get().setPin(randomNumber));
+                "Для подтверждения почты введите пин код: " + pin);
     }
 
     @Override
     public void validateEmail(String email, Long pin) {
-        EmailPin emailPin = emailsPinsRepository.findByEmail(email)
-                .orElseThrow(() -> new EmailPinNotFoundException(email));
-        if (emailPin.getPin() == pin) {
-            emailsPinsRepository.delete(emailPin);
-        } else throw new InvalidPinException(pin);
+        emailPinStore.verify(email, pin);
     }
 
     @Override
@@ -134,7 +131,9 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                 .orElseThrow(() -> new UsernameNotFoundException(changePasswordRequest.getUsername()));
         if (passwordEncoder.matches(changePasswordRequest.getOldPassword(), user.getPassword())) {
             user.setPassword(passwordEncoder.encode(changePasswordRequest.getNewPassword()));
-            return userRepository.save(user).getId();
+            Long id = userService.save(user).getId();
+            tokenRevocationService.revokeAll(id);
+            return id;
         } else {
             throw new InvalidPasswordException(user.getEmail());
         }
@@ -142,15 +141,12 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
     @Override
     public void forgotPassword(String email) {
-        Random random = new Random();
-        int randomNumber = random.nextInt(900000) + 100000;
-        emailService.sendSimpleEmail(
+        int pin = PinUtils.generate();
+        emailPinStore.put(email, pin);
+        emailOutboxService.enqueue(
                 email,
                 "Восстановление доступа к аккаунту",
-                "Для смены пароля введите пин код: " + randomNumber);
-        Optional<EmailPin> emailPin = emailsPinsRepository.findByEmail(email);
-        if (emailPin.isEmpty()) emailsPinsRepository.save(new EmailPin(email, randomNumber));
-        else emailsPinsRepository.save(emailPin.get().setPin(randomNumber));
+                "Для смены пароля введите пин код: " + pin);
     }
 
     @Override
@@ -158,6 +154,8 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         User user = userRepository.findByEmail(forgotPasswordRequest.getEmail())
                 .orElseThrow(() -> new UsernameNotFoundException(forgotPasswordRequest.getEmail()));
         user.setPassword(passwordEncoder.encode(forgotPasswordRequest.getPassword()));
-        return userRepository.save(user).getId();
+        Long id = userService.save(user).getId();
+        tokenRevocationService.revokeAll(id);
+        return id;
     }
 }
\ No newline at end of file
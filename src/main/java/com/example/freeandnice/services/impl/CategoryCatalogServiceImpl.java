@@ -0,0 +1,55 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.models.CategorySnapshot;
+import com.example.freeandnice.repositories.CategoryRepository;
+import com.example.freeandnice.services.CategoryCatalogService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps all categories in memory as one {@link CategorySnapshot}. Category
+ * writes on this instance republish it right away. The periodic reload picks
+ * up changes made through other instances.
+ */
+@Service
+@RequiredArgsConstructor
+public class CategoryCatalogServiceImpl implements CategoryCatalogService {
+
+    private final CategoryRepository categoryRepository;
+
+    // Serializes reloads so an older read can never be published after a newer one.
+    private final Lock refreshLock = new ReentrantLock();
+
+    private volatile CategorySnapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    @Override
+    public CategorySnapshot getSnapshot() {
+        CategorySnapshot current = snapshot;
+        return current != null ? current : refresh();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${categories.catalog.refresh-interval-ms:60000}",
+            initialDelayString = "${categories.catalog.refresh-interval-ms:60000}")
+    public CategorySnapshot refresh() {
+        refreshLock.lock();
+        try {
+            CategorySnapshot loaded = CategorySnapshot.of(categoryRepository.findAll());
+            snapshot = loaded;
+            return loaded;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+}
@@ -1,42 +1,135 @@
 package com.example.freeandnice.services.impl;
 
+import com.example.freeandnice.dto.CategoryRequestDto;
+import com.example.freeandnice.dto.CategoryResponseDto;
+import com.example.freeandnice.exceptions.InvalidCategoryParentException;
+import com.example.freeandnice.exceptions.ResourceNotFoundException;
 import com.example.freeandnice.models.Category;
+import com.example.freeandnice.models.CategorySnapshot;
 import com.example.freeandnice.repositories.CategoryRepository;
+import com.example.freeandnice.services.CategoryCatalogService;
 import com.example.freeandnice.services.CategoryService;
+import com.example.freeandnice.services.ProductSearchService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ProductSearchService productSearchService;
+    private final CategoryCatalogService categoryCatalogService;
 
     @Override
-    public Category createCategory(Category category) {
-        return categoryRepository.save(category);
+    @Transactional
+    public CategoryResponseDto createCategory(CategoryRequestDto request) {
+        validateParent(null, request.getParentId());
+        Category category = new Category();
+        category.setName(request.getName());
+        category.setParentId(request.getParentId());
+        Category createdCategory = categoryRepository.save(category);
+        refreshCatalogAfterCommit();
+        return mapToCategoryResponseDto(createdCategory);
     }
 
     @Override
-    public Optional<Category> getCategoryById(Long id) {
-        return categoryRepository.findById(id);
+    public Optional<CategoryResponseDto> getCategoryById(Long id, boolean withProductCount) {
+        return categoryRepository.findById(id).map(category -> {
+            CategoryResponseDto dto = mapToCategoryResponseDto(category);
+            if (withProductCount) {
+                dto.setProductCount(categoryRepository.countProductsByCategoryId(id));
+            }
+            return dto;
+        });
     }
 
     @Override
-    public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+    public CategorySnapshot getCatalog() {
+        return categoryCatalogService.getSnapshot();
     }
 
+    /**
+     * Copies the catalog entries, which are shared, and adds the counts of all
+     * categories from one grouped query.
+     */
     @Override
-    public Category updateCategory(Category category) {
-        return categoryRepository.save(category);
+    public List<CategoryResponseDto> getCategoriesWithProductCounts() {
+        Map<Long, Long> counts = categoryRepository.countProductsPerCategory().stream()
+                .collect(Collectors.toMap(
+                        CategoryRepository.CategoryProductCount::getCategoryId,
+                        CategoryRepository.CategoryProductCount::getProductCount));
+        return categoryCatalogService.getSnapshot().getCategories().stream()
+                .map(category -> new CategoryResponseDto(category.getId(), category.getName(), category.getParentId(),
+                        counts.getOrDefault(category.getId(), 0L)))
+                .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional
+    public CategoryResponseDto updateCategory(Long id, CategoryRequestDto request) {
+        Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
+        validateParent(id, request.getParentId());
+        category.setName(request.getName());
+        category.setParentId(request.getParentId());
+        // Flushed first: the search index reads the new name back with plain JDBC, in this transaction.
+        Category updatedCategory = categoryRepository.saveAndFlush(category);
+        productSearchService.reindexCategory(updatedCategory.getId());
+        refreshCatalogAfterCommit();
+        return mapToCategoryResponseDto(updatedCategory);
+    }
+
+    /**
+     * Children of a deleted category move up to its parent, so the rest of the
+     * tree and the products filed under it stay reachable.
+     */
+    @Override
+    @Transactional
     public void deleteCategory(Long id) {
-        categoryRepository.deleteById(id);
+        categoryRepository.findById(id).ifPresent(category -> {
+            categoryRepository.reparentChildren(id, category.getParentId());
+            categoryRepository.delete(category);
+        });
+        refreshCatalogAfterCommit();
+    }
+
+    /**
+     * Reloads the catalog once the write is committed, so the reload sees it
+     * and a rolled back write is never published.
+     */
+    private void refreshCatalogAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                categoryCatalogService.refresh();
+            }
+        });
+    }
+
+    private CategoryResponseDto mapToCategoryResponseDto(Category category) {
+        return new CategoryResponseDto(category.getId(), category.getName(), category.getParentId());
+    }
+
+    /**
+     * A parent must exist and must not lie in the category's own subtree,
+     * which would turn the tree into a cycle.
+     */
+    private void validateParent(Long id, Long parentId) {
+        if (parentId == null) {
+            return;
+        }
+        CategorySnapshot catalog = categoryCatalogService.getSnapshot();
+        if (!catalog.contains(parentId) || (id != null && catalog.getSubtreeIds(id).contains(parentId))) {
+            throw new InvalidCategoryParentException(parentId);
+        }
     }
 }
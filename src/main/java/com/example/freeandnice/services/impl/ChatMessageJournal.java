@@ -0,0 +1,152 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.ChatMessageDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends chat messages to the database in batches, off the sending path.
+ * Senders only queue the message; one background thread inserts everything
+ * queued meanwhile with one JDBC batch, then runs each message's callback so
+ * the chat service can drop it from its unpersisted tail.
+ */
+@Slf4j
+@Component
+public class ChatMessageJournal {
+
+    private static final String INSERT_MESSAGE =
+            "INSERT INTO chat_messages (conversation_id, seq, sender_id, body, sent_at) " +
+            "VALUES (:conversationId, :seq, :senderId, :body, :sentAt)";
+    // Own messages count as read, so the sender's marker moves along without a write per message.
+    private static final String ADVANCE_READ_MARKER =
+            "INSERT INTO conversation_reads (conversation_id, user_id, last_read_seq) " +
+            "VALUES (:conversationId, :senderId, :seq) " +
+            "ON CONFLICT (conversation_id, user_id) " +
+            "DO UPDATE SET last_read_seq = GREATEST(conversation_reads.last_read_seq, EXCLUDED.last_read_seq)";
+    private static final String TOUCH_CONVERSATION =
+            "UPDATE conversations SET last_message_at = :sentAt WHERE id = :conversationId";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Entry> queue;
+    private final int batchSize;
+
+    @Value("${chat.journal.retry-delay:PT1S}")
+    private Duration retryDelay;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public ChatMessageJournal(NamedParameterJdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${chat.journal.queue-capacity:100000}") int queueCapacity,
+                              @Value("${chat.journal.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+    }
+
+    /** Returns false when the queue is full; the message is then not accepted. */
+    public boolean append(ChatMessageDto message, Runnable onPersisted) {
+        return queue.offer(new Entry(message, onPersisted));
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::run, "chat-journal");
+        writer.start();
+    }
+
+    /** Stops taking new work and writes out what is queued. */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join();
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeWithRetry(batch);
+                batch.forEach(entry -> entry.onPersisted().run());
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void writeWithRetry(List<Entry> batch) throws InterruptedException {
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(batch));
+                return;
+            } catch (DataIntegrityViolationException e) {
+                // E.g. the conversation was deleted with its product; only the offending messages are dropped.
+                if (batch.size() == 1) {
+                    log.warn("Dropping chat message {}: {}", batch.get(0).message(), e.getMostSpecificCause().getMessage());
+                    return;
+                }
+                for (Entry entry : batch) {
+                    writeWithRetry(List.of(entry));
+                }
+                return;
+            } catch (DataAccessException e) {
+                // The messages were already delivered, so they are retried until the database is back.
+                log.error("Writing {} chat messages failed, retrying", batch.size(), e);
+                Thread.sleep(retryDelay.toMillis());
+            }
+        }
+    }
+
+    private void write(List<Entry> batch) {
+        List<MapSqlParameterSource> messages = new ArrayList<>(batch.size());
+        Map<Long, MapSqlParameterSource> latest = new LinkedHashMap<>();
+        Map<List<Long>, MapSqlParameterSource> latestBySender = new LinkedHashMap<>();
+        for (Entry entry : batch) {
+            ChatMessageDto message = entry.message();
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("conversationId", message.getConversationId())
+                    .addValue("seq", message.getSeq())
+                    .addValue("senderId", message.getSenderId())
+                    .addValue("body", message.getBody())
+                    .addValue("sentAt", message.getSentAt());
+            messages.add(params);
+            latest.put(message.getConversationId(), params);
+            latestBySender.put(List.of(message.getConversationId(), message.getSenderId()), params);
+        }
+        jdbcTemplate.batchUpdate(INSERT_MESSAGE, messages.toArray(MapSqlParameterSource[]::new));
+        jdbcTemplate.batchUpdate(TOUCH_CONVERSATION, latest.values().toArray(MapSqlParameterSource[]::new));
+        jdbcTemplate.batchUpdate(ADVANCE_READ_MARKER, latestBySender.values().toArray(MapSqlParameterSource[]::new));
+    }
+
+    private record Entry(ChatMessageDto message, Runnable onPersisted) {
+    }
+}
@@ -0,0 +1,331 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.ChatMessageDto;
+import com.example.freeandnice.dto.ChatMessagePageResponseDto;
+import com.example.freeandnice.dto.ChatMessageRequestDto;
+import com.example.freeandnice.dto.ConversationPageResponseDto;
+import com.example.freeandnice.dto.ConversationRequestDto;
+import com.example.freeandnice.dto.ConversationResponseDto;
+import com.example.freeandnice.exceptions.ChatBusyException;
+import com.example.freeandnice.exceptions.InvalidConversationException;
+import com.example.freeandnice.exceptions.ResourceNotFoundException;
+import com.example.freeandnice.services.ChatService;
+import com.example.freeandnice.utils.CursorUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Conversations are tracked in memory while in use: the last seq, both
+ * participants' read markers, and the messages not written yet. Seqs are
+ * handed out there, unread counts are differences of seqs, and the database
+ * is only written in batches by {@link ChatMessageJournal}. Idle states are
+ * evicted and reloaded with one query when needed again.
+ * <p>
+ * Messages are pushed through the in-process STOMP broker, so this assumes
+ * one instance serves the chat.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatServiceImpl implements ChatService {
+
+    public static final String MESSAGES_DESTINATION = "/queue/messages";
+    public static final String READS_DESTINATION = "/queue/reads";
+
+    private static final String LOAD_STATES =
+            "SELECT c.id, c.product_id, c.buyer_id, c.seller_id," +
+            " COALESCE((SELECT MAX(m.seq) FROM chat_messages m WHERE m.conversation_id = c.id), 0) AS last_seq," +
+            " COALESCE(rb.last_read_seq, 0) AS buyer_read_seq," +
+            " COALESCE(rs.last_read_seq, 0) AS seller_read_seq " +
+            "FROM conversations c " +
+            "LEFT JOIN conversation_reads rb ON rb.conversation_id = c.id AND rb.user_id = c.buyer_id " +
+            "LEFT JOIN conversation_reads rs ON rs.conversation_id = c.id AND rs.user_id = c.seller_id " +
+            "WHERE c.id IN (:ids)";
+    private static final String UPSERT_READ_MARKER =
+            "INSERT INTO conversation_reads (conversation_id, user_id, last_read_seq) " +
+            "VALUES (:conversationId, :userId, :seq) " +
+            "ON CONFLICT (conversation_id, user_id) " +
+            "DO UPDATE SET last_read_seq = GREATEST(conversation_reads.last_read_seq, EXCLUDED.last_read_seq)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ChatMessageJournal journal;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Map<Long, ConversationState> states = new ConcurrentHashMap<>();
+
+    @Value("${chat.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${chat.page.max-size:200}")
+    private int maxPageSize;
+
+    @Value("${chat.state.idle-eviction:PT1H}")
+    private Duration idleEviction;
+
+    @Override
+    public ConversationResponseDto startConversation(Long buyerId, ConversationRequestDto request) {
+        List<Long> sellers = jdbcTemplate.query("SELECT seller_id FROM products WHERE id = :id",
+                Map.of("id", request.getProductId()), (resultSet, rowNum) -> resultSet.getObject("seller_id", Long.class));
+        if (sellers.isEmpty()) {
+            throw new ResourceNotFoundException("Product not found with id: " + request.getProductId());
+        }
+        Long sellerId = sellers.get(0);
+        if (sellerId == null) {
+            throw new InvalidConversationException("Product " + request.getProductId() + " has no seller to chat with");
+        }
+        if (sellerId.equals(buyerId)) {
+            throw new InvalidConversationException("Sellers cannot start a conversation about their own product");
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("productId", request.getProductId())
+                .addValue("buyerId", buyerId)
+                .addValue("sellerId", sellerId)
+                .addValue("now", LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO conversations (product_id, buyer_id, seller_id, created_at) " +
+                "VALUES (:productId, :buyerId, :sellerId, :now) ON CONFLICT (product_id, buyer_id) DO NOTHING", params);
+        Long conversationId = jdbcTemplate.queryForObject(
+                "SELECT id FROM conversations WHERE product_id = :productId AND buyer_id = :buyerId", params, Long.class);
+        return toDto(state(conversationId), buyerId);
+    }
+
+    @Override
+    public ConversationPageResponseDto getConversations(Long userId, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        long after = cursor == null || cursor.isBlank() ? Long.MAX_VALUE : CursorUtils.decode(cursor);
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM conversations WHERE (buyer_id = :userId OR seller_id = :userId) AND id < :after " +
+                "ORDER BY id DESC LIMIT :limit",
+                Map.of("userId", userId, "after", after, "limit", pageSize + 1), Long.class);
+        boolean hasMore = ids.size() > pageSize;
+        if (hasMore) {
+            ids = ids.subList(0, pageSize);
+        }
+
+        load(ids.stream().filter(id -> !states.containsKey(id)).collect(Collectors.toList()));
+        List<ConversationResponseDto> conversations = ids.stream()
+                .map(id -> toDto(state(id), userId))
+                .collect(Collectors.toList());
+        String nextCursor = hasMore ? CursorUtils.encode(ids.get(ids.size() - 1)) : null;
+        return new ConversationPageResponseDto(conversations, nextCursor);
+    }
+
+    @Override
+    public ChatMessageDto sendMessage(Long conversationId, Long senderId, ChatMessageRequestDto request) {
+        ConversationState state;
+        ChatMessageDto message;
+        while (true) {
+            state = state(conversationId);
+            synchronized (state) {
+                if (state.evicted) {
+                    continue;
+                }
+                checkParticipant(state, senderId);
+                message = new ChatMessageDto(conversationId, state.lastSeq + 1, senderId, request.getBody(), LocalDateTime.now());
+                // Queued under the lock, so the journal sees each conversation's messages in seq order.
+                ConversationState owner = state;
+                ChatMessageDto persisted = message;
+                if (!journal.append(message, () -> owner.persisted(persisted))) {
+                    throw new ChatBusyException();
+                }
+                state.lastSeq = message.getSeq();
+                state.unpersisted.addLast(message);
+                state.advanceRead(senderId, message.getSeq());
+                state.touch();
+                break;
+            }
+        }
+        // Clients order by seq; two senders' messages may arrive in either order.
+        messagingTemplate.convertAndSendToUser(String.valueOf(state.buyerId), MESSAGES_DESTINATION, message);
+        messagingTemplate.convertAndSendToUser(String.valueOf(state.sellerId), MESSAGES_DESTINATION, message);
+        return message;
+    }
+
+    @Override
+    public ChatMessagePageResponseDto getMessages(Long conversationId, Long userId, String before, Integer size) {
+        int pageSize = resolvePageSize(size);
+        int beforeSeq = before == null || before.isBlank() ? Integer.MAX_VALUE : (int) CursorUtils.decode(before);
+
+        ConversationState state = state(conversationId);
+        List<ChatMessageDto> messages = new ArrayList<>(pageSize);
+        int oldestUnpersisted;
+        synchronized (state) {
+            checkParticipant(state, userId);
+            Iterator<ChatMessageDto> newestFirst = state.unpersisted.descendingIterator();
+            while (newestFirst.hasNext() && messages.size() < pageSize) {
+                ChatMessageDto message = newestFirst.next();
+                if (message.getSeq() < beforeSeq) {
+                    messages.add(message);
+                }
+            }
+            oldestUnpersisted = state.unpersisted.isEmpty() ? state.lastSeq + 1 : state.unpersisted.getFirst().getSeq();
+        }
+        if (messages.size() < pageSize) {
+            // Everything below the oldest unwritten message is in the table.
+            messages.addAll(jdbcTemplate.query(
+                    "SELECT conversation_id, seq, sender_id, body, sent_at FROM chat_messages " +
+                    "WHERE conversation_id = :conversationId AND seq < :before ORDER BY seq DESC LIMIT :limit",
+                    Map.of("conversationId", conversationId,
+                            "before", Math.min(beforeSeq, oldestUnpersisted),
+                            "limit", pageSize - messages.size()),
+                    (resultSet, rowNum) -> new ChatMessageDto(
+                            resultSet.getLong("conversation_id"),
+                            resultSet.getInt("seq"),
+                            resultSet.getLong("sender_id"),
+                            resultSet.getString("body"),
+                            resultSet.getTimestamp("sent_at").toLocalDateTime())));
+        }
+        int oldest = messages.isEmpty() ? 1 : messages.get(messages.size() - 1).getSeq();
+        String nextCursor = messages.size() == pageSize && oldest > 1 ? CursorUtils.encode(oldest) : null;
+        return new ChatMessagePageResponseDto(messages, nextCursor);
+    }
+
+    @Override
+    public ConversationResponseDto markRead(Long conversationId, Long userId, int seq) {
+        ConversationState state = state(conversationId);
+        int readSeq;
+        synchronized (state) {
+            checkParticipant(state, userId);
+            readSeq = Math.min(seq, state.lastSeq);
+            if (!state.advanceRead(userId, readSeq)) {
+                return toDto(state, userId);
+            }
+        }
+        jdbcTemplate.update(UPSERT_READ_MARKER, Map.of("conversationId", conversationId, "userId", userId, "seq", readSeq));
+        ConversationResponseDto conversation = toDto(state, userId);
+        // Lets the user's other devices update their unread badge.
+        messagingTemplate.convertAndSendToUser(String.valueOf(userId), READS_DESTINATION, conversation);
+        return conversation;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.state.evict-interval-ms:600000}")
+    public void evictIdleStates() {
+        long idleSince = System.nanoTime() - idleEviction.toNanos();
+        for (ConversationState state : states.values()) {
+            synchronized (state) {
+                if (state.unpersisted.isEmpty() && state.lastAccessNanos - idleSince < 0) {
+                    state.evicted = true;
+                    states.remove(state.id, state);
+                }
+            }
+        }
+    }
+
+    private ConversationState state(Long conversationId) {
+        ConversationState state = states.get(conversationId);
+        if (state == null) {
+            load(List.of(conversationId));
+            state = states.get(conversationId);
+            if (state == null) {
+                throw new ResourceNotFoundException("Conversation not found with id: " + conversationId);
+            }
+        }
+        return state;
+    }
+
+    private void load(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query(LOAD_STATES, Map.of("ids", ids), (resultSet, rowNum) -> new ConversationState(
+                        resultSet.getLong("id"),
+                        resultSet.getLong("product_id"),
+                        resultSet.getLong("buyer_id"),
+                        resultSet.getLong("seller_id"),
+                        resultSet.getInt("last_seq"),
+                        resultSet.getInt("buyer_read_seq"),
+                        resultSet.getInt("seller_read_seq")))
+                // A state loaded concurrently may already have new messages, it wins.
+                .forEach(state -> states.putIfAbsent(state.id, state));
+    }
+
+    private static void checkParticipant(ConversationState state, Long userId) {
+        if (userId == null || (userId != state.buyerId && userId != state.sellerId)) {
+            throw new AccessDeniedException("Not a participant of conversation " + state.id);
+        }
+    }
+
+    private static ConversationResponseDto toDto(ConversationState state, Long userId) {
+        synchronized (state) {
+            checkParticipant(state, userId);
+            state.touch();
+            int readSeq = userId == state.buyerId ? state.buyerReadSeq : state.sellerReadSeq;
+            return new ConversationResponseDto(state.id, state.productId, state.buyerId, state.sellerId,
+                    state.lastSeq, state.lastSeq - readSeq);
+        }
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    /** Guarded by its own monitor. */
+    private static class ConversationState {
+
+        private final long id;
+        private final long productId;
+        private final long buyerId;
+        private final long sellerId;
+        private int lastSeq;
+        private int buyerReadSeq;
+        private int sellerReadSeq;
+        /** Sent but not written yet, oldest first. */
+        private final ArrayDeque<ChatMessageDto> unpersisted = new ArrayDeque<>();
+        private long lastAccessNanos = System.nanoTime();
+        private boolean evicted;
+
+        ConversationState(long id, long productId, long buyerId, long sellerId,
+                          int lastSeq, int buyerReadSeq, int sellerReadSeq) {
+            this.id = id;
+            this.productId = productId;
+            this.buyerId = buyerId;
+            this.sellerId = sellerId;
+            this.lastSeq = lastSeq;
+            this.buyerReadSeq = buyerReadSeq;
+            this.sellerReadSeq = sellerReadSeq;
+        }
+
+        /** Returns whether the marker moved. */
+        boolean advanceRead(long userId, int seq) {
+            if (userId == buyerId && seq > buyerReadSeq) {
+                buyerReadSeq = seq;
+                return true;
+            }
+            if (userId == sellerId && seq > sellerReadSeq) {
+                sellerReadSeq = seq;
+                return true;
+            }
+            return false;
+        }
+
+        void touch() {
+            lastAccessNanos = System.nanoTime();
+        }
+
+        /** Called by the journal thread once the message is written, in seq order. */
+        synchronized void persisted(ChatMessageDto message) {
+            while (!unpersisted.isEmpty() && unpersisted.getFirst().getSeq() <= message.getSeq()) {
+                unpersisted.removeFirst();
+            }
+        }
+    }
+}
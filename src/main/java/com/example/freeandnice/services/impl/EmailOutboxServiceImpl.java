@@ -0,0 +1,222 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.models.EEmailJobStatus;
+import com.example.freeandnice.models.EmailJob;
+import com.example.freeandnice.repositories.EmailJobRepository;
+import com.example.freeandnice.services.EmailOutboxService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Transactional outbox for outgoing email. Due jobs are claimed with a lease
+ * (optimistic locking keeps concurrent instances from claiming the same job),
+ * split into chunks and handed to the sender pool without waiting for them, so
+ * a slow mail host never holds up the scheduler. Only as many jobs are claimed
+ * as idle senders can take. Each chunk goes out through a single
+ * {@link JavaMailSender#send(SimpleMailMessage...)} call, which reuses one SMTP
+ * connection. Failed jobs are retried with exponential backoff.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+
+    private static final Set<EEmailJobStatus> CLAIMABLE = Set.of(EEmailJobStatus.PENDING, EEmailJobStatus.SENDING);
+
+    private final EmailJobRepository emailJobRepository;
+    private final JavaMailSender emailSender;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * SMTP senders, kept apart from the servlet threads so a slow mail host can
+     * only delay emails, never requests. Not a bean: any Executor bean would
+     * replace Boot's applicationTaskExecutor.
+     */
+    private ThreadPoolTaskExecutor senders;
+
+    /** One permit per sender thread that has no chunk to send. */
+    private Semaphore idleSenders;
+
+    @Value("${email.outbox.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${email.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${email.outbox.chunk-size:25}")
+    private int chunkSize;
+
+    @Value("${email.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${email.outbox.lease:PT2M}")
+    private Duration lease;
+
+    @Value("${email.outbox.retry-backoff:PT10S}")
+    private Duration retryBackoff;
+
+    @Value("${email.outbox.sent-retention:P7D}")
+    private Duration sentRetention;
+
+    @PostConstruct
+    public void start() {
+        senders = new ThreadPoolTaskExecutor();
+        senders.setCorePoolSize(senderThreads);
+        senders.setMaxPoolSize(senderThreads);
+        senders.setThreadNamePrefix("email-sender-");
+        senders.setWaitForTasksToCompleteOnShutdown(true);
+        senders.setAwaitTerminationSeconds(30);
+        senders.initialize();
+        idleSenders = new Semaphore(senderThreads);
+    }
+
+    @PreDestroy
+    public void stop() {
+        senders.shutdown();
+    }
+
+    @Override
+    public void enqueue(String toAddress, String subject, String message) {
+        emailJobRepository.save(new EmailJob(toAddress, subject, message));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:1000}")
+    public int dispatch() {
+        int capacity = Math.min(batchSize, idleSenders.availablePermits() * chunkSize);
+        if (capacity == 0) {
+            return 0;
+        }
+        List<EmailJob> jobs;
+        try {
+            jobs = transactionTemplate.execute(status -> claim(capacity));
+        } catch (OptimisticLockingFailureException e) {
+            log.debug("Email jobs were claimed concurrently, retrying on next poll");
+            return 0;
+        }
+        if (jobs == null || jobs.isEmpty()) {
+            return 0;
+        }
+
+        for (int from = 0; from < jobs.size(); from += chunkSize) {
+            List<EmailJob> chunk = jobs.subList(from, Math.min(from + chunkSize, jobs.size()));
+            // Free right away unless another dispatch claimed in the meantime.
+            idleSenders.acquireUninterruptibly();
+            senders.execute(() -> {
+                try {
+                    send(chunk);
+                } finally {
+                    idleSenders.release();
+                }
+            });
+        }
+        return jobs.size();
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        Integer purged = transactionTemplate.execute(status -> emailJobRepository.deleteByStatusAndSentAtBefore(
+                EEmailJobStatus.SENT, LocalDateTime.now().minus(sentRetention)));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} sent emails from the outbox", purged);
+        }
+    }
+
+    private List<EmailJob> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        // SENDING jobs are only due again once their lease expired, i.e. their sender died.
+        List<EmailJob> jobs = emailJobRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(
+                CLAIMABLE, now, Limit.of(limit));
+        for (EmailJob job : jobs) {
+            job.setStatus(EEmailJobStatus.SENDING);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setNextAttemptAt(now.plus(lease));
+        }
+        return emailJobRepository.saveAllAndFlush(jobs);
+    }
+
+    private void send(List<EmailJob> chunk) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            messages[i] = toMessage(chunk.get(i));
+        }
+
+        Set<Object> failed = new HashSet<>();
+        String error = null;
+        try {
+            emailSender.send(messages);
+        } catch (MailSendException e) {
+            error = e.getMessage();
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            // No per-message failures means the connection itself failed.
+            failed.addAll(failedMessages.isEmpty() ? List.of(messages) : failedMessages.keySet());
+        } catch (MailException e) {
+            error = e.getMessage();
+            failed.addAll(List.of(messages));
+        }
+
+        String lastError = StringUtils.abbreviate(error, 1000);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                for (int i = 0; i < chunk.size(); i++) {
+                    EmailJob job = chunk.get(i);
+                    if (failed.contains(messages[i])) {
+                        markFailed(job, lastError, now);
+                    } else {
+                        job.setStatus(EEmailJobStatus.SENT);
+                        job.setSentAt(now);
+                    }
+                }
+                emailJobRepository.saveAll(chunk);
+            });
+        } catch (OptimisticLockingFailureException e) {
+            // The lease expired and another sender took over; it will record the outcome.
+            log.warn("Lost the lease on {} email jobs while sending", chunk.size());
+        }
+        if (!failed.isEmpty()) {
+            log.warn("Failed to send {} of {} emails: {}", failed.size(), chunk.size(), error);
+        }
+    }
+
+    private void markFailed(EmailJob job, String error, LocalDateTime now) {
+        job.setLastError(error);
+        if (job.getAttempts() >= maxAttempts) {
+            job.setStatus(EEmailJobStatus.FAILED);
+            return;
+        }
+        long factor = 1L << Math.min(job.getAttempts() - 1, 16);
+        job.setStatus(EEmailJobStatus.PENDING);
+        job.setNextAttemptAt(now.plus(retryBackoff.multipliedBy(factor)));
+    }
+
+    private SimpleMailMessage toMessage(EmailJob job) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(job.getToAddress());
+        message.setSubject(job.getSubject());
+        message.setText(job.getBody());
+        return message;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.models.PaymentProviderResult;
+import com.example.freeandnice.services.PaymentProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stands in for a real provider in development and tests. Approves charges up
+ * to the decline limit and, like a real provider, answers a repeated key with
+ * the first outcome. Charges are only kept in memory.
+ */
+@Service
+@ConditionalOnProperty(name = "payments.provider", havingValue = "fake", matchIfMissing = true)
+public class FakePaymentProviderImpl implements PaymentProvider {
+
+    private final Map<String, PaymentProviderResult> charges = new ConcurrentHashMap<>();
+    private final long declineAbove;
+
+    public FakePaymentProviderImpl(@Value("${payments.fake.decline-above:1000000000}") long declineAbove) {
+        this.declineAbove = declineAbove;
+    }
+
+    @Override
+    public String getName() {
+        return "fake";
+    }
+
+    @Override
+    public PaymentProviderResult charge(String idempotencyKey, Long buyerId, long amount) {
+        return charges.computeIfAbsent(idempotencyKey, key -> amount > declineAbove
+                ? new PaymentProviderResult(false, null, "Declined: amount over " + declineAbove)
+                : new PaymentProviderResult(true, "fake_" + UUID.randomUUID(), null));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.exceptions.EmailPinNotFoundException;
+import com.example.freeandnice.exceptions.InvalidPinException;
+import com.example.freeandnice.services.EmailPinStore;
+import com.example.freeandnice.utils.PinUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps pins in a size-bounded cache that expires them on its own, so
+ * verification never touches the database. Pins are lost on restart and are
+ * not shared between instances; use the jpa store when that matters.
+ */
+@Service
+@ConditionalOnProperty(name = "email.pins.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryEmailPinStoreImpl implements EmailPinStore {
+
+    private final Cache<String, PinEntry> pins;
+    private final int maxAttempts;
+
+    public InMemoryEmailPinStoreImpl(@Value("${email.pins.ttl:PT15M}") Duration ttl,
+                                     @Value("${email.pins.max-size:100000}") long maxSize,
+                                     @Value("${email.pins.max-attempts:5}") int maxAttempts) {
+        this.pins = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public void put(String email, int pin) {
+        pins.put(email, new PinEntry(pin));
+    }
+
+    @Override
+    public void verify(String email, Long pin) {
+        PinEntry entry = pins.getIfPresent(email);
+        if (entry == null) {
+            throw new EmailPinNotFoundException(email);
+        }
+        // Every guess takes an attempt up front, so concurrent guesses cannot exceed the limit.
+        int attempt = entry.attempts.incrementAndGet();
+        if (attempt > maxAttempts) {
+            throw new EmailPinNotFoundException(email);
+        }
+        if (PinUtils.matches(entry.pin, pin)) {
+            // Only the caller that removes the entry succeeds, so a pin is consumed once.
+            if (pins.asMap().remove(email, entry)) {
+                return;
+            }
+            throw new EmailPinNotFoundException(email);
+        }
+        if (attempt == maxAttempts) {
+            pins.asMap().remove(email, entry);
+        }
+        throw new InvalidPinException(pin);
+    }
+
+    private static final class PinEntry {
+        private final int pin;
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        private PinEntry(int pin) {
+            this.pin = pin;
+        }
+    }
+}
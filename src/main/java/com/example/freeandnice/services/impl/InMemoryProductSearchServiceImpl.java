@@ -0,0 +1,302 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.repositories.ProductRepository;
+import com.example.freeandnice.services.ProductSearchService;
+import com.example.freeandnice.utils.SearchTokenizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Embedded inverted index for deployments that should not rely on database
+ * full-text features. Every term maps to a posting list of sorted product ids
+ * with a bit mask of the fields the term occurs in, so queries are answered
+ * by merging primitive arrays without touching the database.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "products.search.engine", havingValue = "memory")
+public class InMemoryProductSearchServiceImpl implements ProductSearchService {
+
+    private static final byte DESCRIPTION = 1;
+    private static final byte CATEGORY = 2;
+    private static final byte NAME = 4;
+    private static final float PREFIX_PENALTY = 0.5f;
+
+    private final ProductRepository productRepository;
+
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> termsByProduct = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void initialize() {
+        try (Stream<ProductRepository.ProductText> texts = productRepository.streamTexts()) {
+            texts.forEach(text -> {
+                lock.writeLock().lock();
+                try {
+                    addText(text);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+        }
+        try (Stream<ProductRepository.ProductItem> categories = productRepository.streamCategoryNames()) {
+            categories.forEach(category -> {
+                lock.writeLock().lock();
+                try {
+                    addField(category.getProductId(), category.getItem(), CATEGORY);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+        }
+        log.info("In-memory product search index built: {} products, {} terms", termsByProduct.size(), postings.size());
+    }
+
+    @Override
+    public List<Long> search(String query, int offset, int limit) {
+        Set<String> tokens = new LinkedHashSet<>(SearchTokenizer.tokenize(query));
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Hits hits = null;
+        lock.readLock().lock();
+        try {
+            for (String token : tokens) {
+                Hits tokenHits = matchPrefix(token);
+                hits = hits == null ? tokenHits : hits.intersect(tokenHits);
+                if (hits.size == 0) {
+                    return List.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return hits.top(offset, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void index(Long productId) {
+        var text = productRepository.findTextById(productId);
+        var categories = productRepository.findCategoryNamesByProductIds(List.of(productId));
+        lock.writeLock().lock();
+        try {
+            removeProduct(productId);
+            text.ifPresent(this::addText);
+            categories.forEach(category -> addField(productId, category.getItem(), CATEGORY));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void index(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        var texts = productRepository.findTextsByIds(productIds);
+        var categories = productRepository.findCategoryNamesByProductIds(productIds);
+        lock.writeLock().lock();
+        try {
+            productIds.forEach(this::removeProduct);
+            texts.forEach(this::addText);
+            categories.forEach(category -> addField(category.getProductId(), category.getItem(), CATEGORY));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void reindexCategory(Long categoryId) {
+        productRepository.findIdsByCategoryId(categoryId).forEach(this::index);
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeProduct(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addText(ProductRepository.ProductText text) {
+        addField(text.getProductId(), text.getName(), NAME);
+        addField(text.getProductId(), text.getDescription(), DESCRIPTION);
+    }
+
+    private void addField(Long productId, String value, byte field) {
+        for (String term : SearchTokenizer.tokenize(value)) {
+            postings.computeIfAbsent(term, t -> new PostingList()).add(productId, field);
+            termsByProduct.computeIfAbsent(productId, id -> new HashSet<>()).add(term);
+        }
+    }
+
+    private void removeProduct(Long productId) {
+        Set<String> terms = termsByProduct.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            PostingList postingList = postings.get(term);
+            if (postingList != null && postingList.remove(productId) && postingList.size == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private Hits matchPrefix(String token) {
+        Hits hits = new Hits(0);
+        // Every term in [token, token + Character.MAX_VALUE) starts with the token.
+        for (Map.Entry<String, PostingList> entry : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            float factor = entry.getKey().length() == token.length() ? 1f : PREFIX_PENALTY;
+            hits = hits.union(entry.getValue(), factor);
+        }
+        return hits;
+    }
+
+    private static float weight(byte fields) {
+        return ((fields & NAME) != 0 ? 3f : 0f)
+                + ((fields & CATEGORY) != 0 ? 2f : 0f)
+                + ((fields & DESCRIPTION) != 0 ? 1f : 0f);
+    }
+
+    /**
+     * Sorted product ids with the fields the term occurs in.
+     */
+    private static final class PostingList {
+        private long[] ids = new long[4];
+        private byte[] fields = new byte[4];
+        private int size;
+
+        void add(long id, byte field) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                fields[position] |= field;
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            System.arraycopy(fields, position, fields, position + 1, size - position);
+            ids[position] = id;
+            fields[position] = field;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            System.arraycopy(fields, position + 1, fields, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+
+    /**
+     * Scored product ids, sorted by id so that sets can be merged linearly.
+     */
+    private static final class Hits {
+        private final long[] ids;
+        private final float[] scores;
+        private int size;
+
+        Hits(int capacity) {
+            ids = new long[capacity];
+            scores = new float[capacity];
+        }
+
+        Hits union(PostingList postingList, float factor) {
+            Hits result = new Hits(size + postingList.size);
+            int i = 0;
+            int j = 0;
+            while (i < size || j < postingList.size) {
+                if (j == postingList.size || (i < size && ids[i] < postingList.ids[j])) {
+                    result.append(ids[i], scores[i++]);
+                } else if (i == size || postingList.ids[j] < ids[i]) {
+                    result.append(postingList.ids[j], weight(postingList.fields[j++]) * factor);
+                } else {
+                    result.append(ids[i], Math.max(scores[i++], weight(postingList.fields[j++]) * factor));
+                }
+            }
+            return result;
+        }
+
+        Hits intersect(Hits other) {
+            Hits result = new Hits(Math.min(size, other.size));
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                if (ids[i] < other.ids[j]) {
+                    i++;
+                } else if (other.ids[j] < ids[i]) {
+                    j++;
+                } else {
+                    result.append(ids[i], scores[i++] + other.scores[j++]);
+                }
+            }
+            return result;
+        }
+
+        List<Long> top(int offset, int limit) {
+            int wanted = offset + limit;
+            // Min-heap of the best `wanted` positions: lowest score (then highest id) on top.
+            PriorityQueue<Integer> heap = new PriorityQueue<>(Math.max(1, Math.min(wanted, size)), (a, b) ->
+                    scores[a] != scores[b] ? Float.compare(scores[a], scores[b]) : Long.compare(ids[b], ids[a]));
+            for (int i = 0; i < size; i++) {
+                heap.offer(i);
+                if (heap.size() > wanted) {
+                    heap.poll();
+                }
+            }
+            List<Long> best = new ArrayList<>(heap.size());
+            while (!heap.isEmpty()) {
+                best.add(ids[heap.poll()]);
+            }
+            List<Long> result = new ArrayList<>(limit);
+            for (int i = best.size() - 1 - offset; i >= 0 && result.size() < limit; i--) {
+                result.add(best.get(i));
+            }
+            return result;
+        }
+
+        private void append(long id, float score) {
+            ids[size] = id;
+            scores[size] = score;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.services.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deny-list keyed by user id: a token is revoked unless it was issued after the
+ * user's last revocation, compared in milliseconds. Entries are dropped once
+ * every token they could deny has expired anyway, so the map only holds
+ * recently revoked users. The list is per instance.
+ */
+@Service
+public class InMemoryTokenRevocationServiceImpl implements TokenRevocationService {
+
+    private final Map<Long, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    @Value("${token.lifetime-ms:144000000}")
+    private long tokenLifetimeMillis;
+
+    @Override
+    public void revokeAll(Long userId) {
+        revokedBefore.put(userId, System.currentTimeMillis());
+    }
+
+    @Override
+    public boolean isRevoked(Claims claims) {
+        Long userId = claims.get(JwtServiceImpl.USER_ID_CLAIM, Long.class);
+        if (userId == null) {
+            // Every token issued here carries the id; one without it cannot be checked.
+            return true;
+        }
+        Long revokedAt = revokedBefore.get(userId);
+        if (revokedAt == null) {
+            return false;
+        }
+        // The standard iat claim is in whole seconds; older tokens without the precise one fall back to it.
+        Long issuedAtMillis = claims.get(JwtServiceImpl.ISSUED_AT_MILLIS_CLAIM, Long.class);
+        if (issuedAtMillis == null) {
+            Date issuedAt = claims.getIssuedAt();
+            issuedAtMillis = issuedAt == null ? null : issuedAt.getTime();
+        }
+        return issuedAtMillis == null || issuedAtMillis <= revokedAt;
+    }
+
+    @Scheduled(fixedDelayString = "${token.revocation.prune-interval-ms:600000}")
+    public void prune() {
+        long oldestRelevant = System.currentTimeMillis() - tokenLifetimeMillis;
+        revokedBefore.values().removeIf(revokedAt -> revokedAt < oldestRelevant);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.ReservationRequestDto;
+import com.example.freeandnice.dto.ReservationResponseDto;
+import com.example.freeandnice.exceptions.InsufficientStockException;
+import com.example.freeandnice.exceptions.ReservationNotActiveException;
+import com.example.freeandnice.exceptions.ResourceNotFoundException;
+import com.example.freeandnice.models.EReservationStatus;
+import com.example.freeandnice.services.InventoryService;
+import com.example.freeandnice.utils.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stock is only ever changed by single conditional UPDATEs, never read,
+ * modified and written back. Overselling is impossible and a hot product's
+ * row is locked only for the few statements of one reservation. The product
+ * version is bumped too, so an edit based on a stale read of the product
+ * fails instead of overwriting the stock.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryServiceImpl implements InventoryService {
+
+    private static final String TAKE_STOCK =
+            "UPDATE products SET quantity = quantity - :quantity, version = version + 1, updated_at = :now " +
+            "WHERE id = :productId AND quantity >= :quantity";
+    private static final String RETURN_STOCK =
+            "UPDATE products SET quantity = quantity + :quantity, version = version + 1, updated_at = :now " +
+            "WHERE id = :productId";
+    private static final String INSERT_RESERVATION =
+            "INSERT INTO inventory_reservations (product_id, buyer_id, quantity, status, created_at, expires_at) " +
+            "VALUES (:productId, :buyerId, :quantity, 'RESERVED', :now, :expiresAt) RETURNING *";
+    private static final String COMPLETE_RESERVATION =
+            "UPDATE inventory_reservations SET status = :status, completed_at = :now " +
+            "WHERE id = :id AND status = 'RESERVED' AND expires_at > :now RETURNING *";
+    // Skips reservations a concurrent sweep or release has locked; they are that one's to finish.
+    private static final String EXPIRE_RESERVATIONS =
+            "WITH expired AS (" +
+            "  UPDATE inventory_reservations SET status = 'EXPIRED', completed_at = :now" +
+            "  WHERE id IN (SELECT id FROM inventory_reservations WHERE status = 'RESERVED' AND expires_at <= :now" +
+            "               ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED)" +
+            "  RETURNING product_id, quantity), " +
+            "restocked AS (" +
+            "  UPDATE products p SET quantity = p.quantity + e.quantity, version = p.version + 1, updated_at = :now" +
+            "  FROM (SELECT product_id, SUM(quantity) AS quantity FROM expired GROUP BY product_id) e" +
+            "  WHERE p.id = e.product_id) " +
+            "SELECT COUNT(*) FROM expired";
+
+    private static final RowMapper<ReservationResponseDto> RESERVATION_MAPPER = (resultSet, rowNum) ->
+            new ReservationResponseDto(
+                    resultSet.getLong("id"),
+                    resultSet.getLong("product_id"),
+                    resultSet.getObject("buyer_id", Long.class),
+                    resultSet.getInt("quantity"),
+                    EReservationStatus.valueOf(resultSet.getString("status")),
+                    toLocalDateTime(resultSet.getTimestamp("created_at")),
+                    toLocalDateTime(resultSet.getTimestamp("expires_at")),
+                    toLocalDateTime(resultSet.getTimestamp("completed_at")));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${inventory.reservations.ttl:PT15M}")
+    private Duration ttl;
+
+    @Value("${inventory.reservations.expire-batch-size:500}")
+    private int expireBatchSize;
+
+    @Override
+    public ReservationResponseDto reserve(ReservationRequestDto request) {
+        return reserve(request, SecurityUtils.requireCurrentUserId());
+    }
+
+    /** Reserves on behalf of the given buyer. */
+    public ReservationResponseDto reserve(ReservationRequestDto request, long buyerId) {
+        LocalDateTime now = LocalDateTime.now();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("productId", request.getProductId())
+                .addValue("buyerId", buyerId)
+                .addValue("quantity", request.getQuantity())
+                .addValue("now", now)
+                .addValue("expiresAt", now.plus(ttl));
+        return transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(TAKE_STOCK, params) == 0) {
+                List<Integer> available = jdbcTemplate.queryForList(
+                        "SELECT COALESCE(quantity, 0) FROM products WHERE id = :productId", params, Integer.class);
+                if (available.isEmpty()) {
+                    throw new ResourceNotFoundException("Product not found with id: " + request.getProductId());
+                }
+                throw new InsufficientStockException(request.getProductId(), request.getQuantity(), available.get(0));
+            }
+            return jdbcTemplate.queryForObject(INSERT_RESERVATION, params, RESERVATION_MAPPER);
+        });
+    }
+
+    @Override
+    public ReservationResponseDto getReservation(Long id) {
+        ReservationResponseDto reservation = find(id);
+        checkOwner(reservation, SecurityUtils.requireCurrentUserId());
+        return reservation;
+    }
+
+    @Override
+    public ReservationResponseDto commit(Long id) {
+        return commit(id, SecurityUtils.requireCurrentUserId());
+    }
+
+    /** Commits on behalf of the given buyer, who must own the reservation. */
+    public ReservationResponseDto commit(Long id, long buyerId) {
+        checkOwner(find(id), buyerId);
+        return complete(id, EReservationStatus.COMMITTED);
+    }
+
+    @Override
+    public ReservationResponseDto release(Long id) {
+        return release(id, SecurityUtils.requireCurrentUserId());
+    }
+
+    /** Releases on behalf of the given buyer, who must own the reservation. */
+    public ReservationResponseDto release(Long id, long buyerId) {
+        checkOwner(find(id), buyerId);
+        return transactionTemplate.execute(status -> {
+            ReservationResponseDto released = complete(id, EReservationStatus.RELEASED);
+            jdbcTemplate.update(RETURN_STOCK, new MapSqlParameterSource()
+                    .addValue("productId", released.getProductId())
+                    .addValue("quantity", released.getQuantity())
+                    .addValue("now", released.getCompletedAt()));
+            return released;
+        });
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${inventory.reservations.expire-interval-ms:10000}")
+    public int expireReservations() {
+        int total = 0;
+        int expired;
+        do {
+            expired = transactionTemplate.execute(status -> jdbcTemplate.queryForObject(EXPIRE_RESERVATIONS,
+                    Map.of("now", LocalDateTime.now(), "limit", expireBatchSize), Integer.class));
+            total += expired;
+        } while (expired == expireBatchSize);
+        if (total > 0) {
+            log.info("Returned {} expired reservations to stock", total);
+        }
+        return total;
+    }
+
+    /** The status change is conditional, so of two concurrent calls only one succeeds. */
+    private ReservationResponseDto complete(Long id, EReservationStatus target) {
+        List<ReservationResponseDto> completed = jdbcTemplate.query(COMPLETE_RESERVATION, new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("status", target.name())
+                .addValue("now", LocalDateTime.now()), RESERVATION_MAPPER);
+        if (completed.isEmpty()) {
+            ReservationResponseDto current = find(id);
+            // Past its expiry but not swept yet; the sweep will return the stock.
+            EReservationStatus status = current.getStatus() == EReservationStatus.RESERVED
+                    ? EReservationStatus.EXPIRED : current.getStatus();
+            throw new ReservationNotActiveException(id, status);
+        }
+        return completed.get(0);
+    }
+
+    private ReservationResponseDto find(Long id) {
+        List<ReservationResponseDto> reservations = jdbcTemplate.query(
+                "SELECT * FROM inventory_reservations WHERE id = :id", Map.of("id", id), RESERVATION_MAPPER);
+        if (reservations.isEmpty()) {
+            throw new ResourceNotFoundException("Reservation not found with id: " + id);
+        }
+        return reservations.get(0);
+    }
+
+    private void checkOwner(ReservationResponseDto reservation, long buyerId) {
+        if (reservation.getBuyerId() != buyerId) {
+            throw new AccessDeniedException("Reservation " + reservation.getId() + " belongs to another buyer");
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.exceptions.EmailPinNotFoundException;
+import com.example.freeandnice.exceptions.InvalidPinException;
+import com.example.freeandnice.models.EmailPin;
+import com.example.freeandnice.repositories.EmailsPinsRepository;
+import com.example.freeandnice.services.EmailPinStore;
+import com.example.freeandnice.utils.PinUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Pins in the {@code emails_pins} table, for deployments with several
+ * instances. The row is locked while a guess is checked, so attempts are
+ * never lost and a pin is consumed once. Expired rows are purged periodically.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "email.pins.store", havingValue = "jpa")
+public class JpaEmailPinStoreImpl implements EmailPinStore {
+
+    private final EmailsPinsRepository emailsPinsRepository;
+
+    @Value("${email.pins.ttl:PT15M}")
+    private Duration ttl;
+
+    @Value("${email.pins.max-attempts:5}")
+    private int maxAttempts;
+
+    @Override
+    @Transactional
+    public void put(String email, int pin) {
+        EmailPin emailPin = emailsPinsRepository.findForUpdateByEmail(email)
+                .orElseGet(() -> new EmailPin(email, pin));
+        emailPin.setPin(pin);
+        emailPin.setAttempts(0);
+        emailPin.setExpiresAt(LocalDateTime.now().plus(ttl));
+        emailsPinsRepository.save(emailPin);
+    }
+
+    @Override
+    @Transactional(noRollbackFor = InvalidPinException.class)
+    public void verify(String email, Long pin) {
+        EmailPin emailPin = emailsPinsRepository.findForUpdateByEmail(email)
+                .filter(p -> p.getAttempts() < maxAttempts)
+                .filter(p -> p.getExpiresAt() != null && p.getExpiresAt().isAfter(LocalDateTime.now()))
+                .orElseThrow(() -> new EmailPinNotFoundException(email));
+        if (PinUtils.matches(emailPin.getPin(), pin)) {
+            emailsPinsRepository.delete(emailPin);
+            return;
+        }
+        emailPin.setAttempts(emailPin.getAttempts() + 1);
+        if (emailPin.getAttempts() >= maxAttempts) {
+            emailsPinsRepository.delete(emailPin);
+        }
+        throw new InvalidPinException(pin);
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${email.pins.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        int purged = emailsPinsRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired email pins", purged);
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.example.freeandnice.services.impl;
 
 import com.example.freeandnice.models.User;
 import com.example.freeandnice.services.JwtService;
+import com.example.freeandnice.services.TokenRevocationService;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -12,28 +14,48 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 
 @Slf4j
 @Service
 public class JwtServiceImpl implements JwtService {
-    @Value("${token.signing.key}")
-    private String jwtSigningKey;
+    static final String USER_ID_CLAIM = "id";
+    // Revocation needs the issue time in milliseconds; the standard iat claim only has seconds.
+    static final String ISSUED_AT_MILLIS_CLAIM = "iat_ms";
+
+    // Both are immutable and thread-safe, so they are built once instead of per token.
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+    private final long tokenLifetimeMillis;
+    private final TokenRevocationService tokenRevocationService;
+
+    public JwtServiceImpl(@Value("${token.signing.key}") String jwtSigningKey,
+                          @Value("${token.lifetime-ms:144000000}") long tokenLifetimeMillis,
+                          TokenRevocationService tokenRevocationService) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSigningKey));
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+        this.tokenRevocationService = tokenRevocationService;
+    }
 
 
     public String extractUserName(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parseToken(token).getSubject();
+    }
+
+
+    public Claims parseToken(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
 
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         if (userDetails instanceof User customUserDetails) {
-            claims.put("id", customUserDetails.getId());
+            claims.put(USER_ID_CLAIM, customUserDetails.getId());
             claims.put("email", customUserDetails.getEmail());
             claims.put("username", customUserDetails.getUsername());
         }
@@ -42,43 +64,28 @@ public class JwtServiceImpl implements JwtService {
 
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(parseToken(token), userDetails);
     }
 
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolvers) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolvers.apply(claims);
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername())
+                && !isTokenExpired(claims)
+                && !tokenRevocationService.isRevoked(claims);
     }
 
 
     private String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
+        long now = System.currentTimeMillis();
+        extraClaims.put(ISSUED_AT_MILLIS_CLAIM, now);
         return Jwts.builder().setClaims(extraClaims).setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 100000 * 60 * 24))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256).compact();
-    }
-
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser().setSigningKey(getSigningKey()).build().parseClaimsJws(token)
-                .getBody();
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + tokenLifetimeMillis))
+                .signWith(signingKey, SignatureAlgorithm.HS256).compact();
     }
 
 
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSigningKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,340 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.LedgerBalanceDto;
+import com.example.freeandnice.dto.PaymentRequestDto;
+import com.example.freeandnice.dto.PaymentResponseDto;
+import com.example.freeandnice.exceptions.IdempotencyKeyReusedException;
+import com.example.freeandnice.exceptions.InvalidPaymentException;
+import com.example.freeandnice.exceptions.PaymentBusyException;
+import com.example.freeandnice.exceptions.ResourceNotFoundException;
+import com.example.freeandnice.models.ELedgerAccountType;
+import com.example.freeandnice.models.EPaymentStatus;
+import com.example.freeandnice.models.PaymentProviderResult;
+import com.example.freeandnice.services.PaymentProvider;
+import com.example.freeandnice.services.PaymentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A payment is an intent row keyed by buyer and idempotency key, a provider
+ * charge made outside any transaction, and one short transaction that moves
+ * the intent out of PENDING with a conditional UPDATE and appends the ledger
+ * entry. Whoever wins that UPDATE posts; a concurrent retry or the resume
+ * sweep finds the payment finished. The provider gets the payment id as its
+ * idempotency key, so re-driving a pending payment never charges twice.
+ * <p>
+ * Balances are split into slots. A posting locks the first slot of the
+ * account, counted from a random one, that no other transaction holds, and
+ * adds its amount in place, so payments to a popular seller, and to the
+ * system accounts every payment touches, spread over rows instead of queueing
+ * on one. Only when every slot is held does it wait, on a random one. Should
+ * Postgres still break a lock cycle, the finishing transaction is retried as
+ * a whole; the provider result it posts is already known.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentServiceImpl implements PaymentService {
+
+    private static final String INSERT_INTENT =
+            "INSERT INTO payment_intents (buyer_id, idempotency_key, product_id, seller_id, quantity, amount, status," +
+            " provider, created_at) " +
+            "VALUES (:buyerId, :idempotencyKey, :productId, :sellerId, :quantity, :amount, 'PENDING', :provider, :now) " +
+            "ON CONFLICT (buyer_id, idempotency_key) DO NOTHING RETURNING *";
+    private static final String FINISH_INTENT =
+            "UPDATE payment_intents SET status = :status, provider_reference = :reference, failure_reason = :reason," +
+            " updated_at = :now WHERE id = :id AND status = 'PENDING' RETURNING *";
+    private static final String INSERT_ACCOUNT =
+            "INSERT INTO ledger_accounts (type, owner_id, slots) VALUES (:type, :ownerId, :slots) " +
+            "ON CONFLICT (type, owner_id) DO NOTHING";
+    private static final String INSERT_SLOTS =
+            "INSERT INTO ledger_balances (account_id, slot) SELECT :accountId, s FROM generate_series(0, :slots - 1) s " +
+            "ON CONFLICT (account_id, slot) DO NOTHING";
+    private static final String INSERT_POSTING =
+            "INSERT INTO ledger_postings (entry_id, account_id, amount) VALUES (:entryId, :accountId, :amount)";
+    private static final String LOCK_FREE_SLOT =
+            "SELECT slot FROM ledger_balances WHERE account_id = :accountId " +
+            "ORDER BY (slot + :slots - :start) % :slots LIMIT 1 FOR UPDATE SKIP LOCKED";
+    private static final String LOCK_SLOT =
+            "SELECT slot FROM ledger_balances WHERE account_id = :accountId AND slot = :start FOR UPDATE";
+    private static final String ADD_TO_SLOT =
+            "UPDATE ledger_balances SET balance = balance + :amount WHERE account_id = :accountId AND slot = :slot";
+
+    private static final RowMapper<PaymentResponseDto> PAYMENT_MAPPER = (resultSet, rowNum) ->
+            new PaymentResponseDto(
+                    resultSet.getLong("id"),
+                    resultSet.getLong("buyer_id"),
+                    resultSet.getString("idempotency_key"),
+                    resultSet.getLong("product_id"),
+                    resultSet.getLong("seller_id"),
+                    resultSet.getInt("quantity"),
+                    resultSet.getLong("amount"),
+                    EPaymentStatus.valueOf(resultSet.getString("status")),
+                    resultSet.getString("provider"),
+                    resultSet.getString("provider_reference"),
+                    resultSet.getString("failure_reason"),
+                    toLocalDateTime(resultSet.getTimestamp("created_at")),
+                    toLocalDateTime(resultSet.getTimestamp("updated_at")));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentProvider paymentProvider;
+
+    /** Accounts are never deleted, so their ids can be cached for good. */
+    private final Map<String, LedgerAccount> accounts = new ConcurrentHashMap<>();
+
+    @Value("${payments.platform-fee-bps:500}")
+    private long platformFeeBps;
+
+    @Value("${payments.ledger.balance-slots:32}")
+    private int balanceSlots;
+
+    @Value("${payments.ledger.max-attempts:5}")
+    private int maxPostingAttempts;
+
+    @Value("${payments.resume.stale-after:PT5M}")
+    private Duration resumeStaleAfter;
+
+    @Value("${payments.resume.batch-size:100}")
+    private int resumeBatchSize;
+
+    @Override
+    public PaymentResponseDto pay(Long buyerId, String idempotencyKey, PaymentRequestDto request) {
+        if (idempotencyKey == null || idempotencyKey.isBlank() || idempotencyKey.length() > 64) {
+            throw new InvalidPaymentException("An Idempotency-Key of at most 64 characters is required");
+        }
+        PaymentResponseDto payment = findOrCreateIntent(buyerId, idempotencyKey, request);
+        return payment.getStatus() == EPaymentStatus.PENDING ? drive(payment) : payment;
+    }
+
+    @Override
+    public PaymentResponseDto getPayment(Long id, Long userId) {
+        PaymentResponseDto payment = find(id);
+        if (!Objects.equals(payment.getBuyerId(), userId) && !Objects.equals(payment.getSellerId(), userId)) {
+            throw new AccessDeniedException("Payment " + id + " belongs to other users");
+        }
+        return payment;
+    }
+
+    @Override
+    public LedgerBalanceDto getSellerBalance(Long sellerId) {
+        Long balance = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(b.balance), 0) FROM ledger_accounts a " +
+                "JOIN ledger_balances b ON b.account_id = a.id WHERE a.type = :type AND a.owner_id = :ownerId",
+                Map.of("type", ELedgerAccountType.SELLER.name(), "ownerId", sellerId), Long.class);
+        return new LedgerBalanceDto(ELedgerAccountType.SELLER, sellerId, balance);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${payments.resume.interval-ms:60000}")
+    public int resumePending() {
+        List<PaymentResponseDto> pending = jdbcTemplate.query(
+                "SELECT * FROM payment_intents WHERE status = 'PENDING' AND created_at < :before " +
+                "ORDER BY created_at LIMIT :limit",
+                Map.of("before", LocalDateTime.now().minus(resumeStaleAfter), "limit", resumeBatchSize),
+                PAYMENT_MAPPER);
+        int finished = 0;
+        for (PaymentResponseDto payment : pending) {
+            try {
+                if (drive(payment).getStatus() != EPaymentStatus.PENDING) {
+                    finished++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not resume payment {}", payment.getId(), e);
+            }
+        }
+        if (finished > 0) {
+            log.info("Finished {} pending payments", finished);
+        }
+        return finished;
+    }
+
+    private PaymentResponseDto findOrCreateIntent(Long buyerId, String idempotencyKey, PaymentRequestDto request) {
+        // A retry returns what was paid then, even if the price changed since.
+        PaymentResponseDto existing = findByKey(buyerId, idempotencyKey);
+        if (existing != null) {
+            return checkSameRequest(existing, request);
+        }
+
+        List<Map<String, Object>> products = jdbcTemplate.queryForList(
+                "SELECT price, seller_id FROM products WHERE id = :id", Map.of("id", request.getProductId()));
+        if (products.isEmpty()) {
+            throw new ResourceNotFoundException("Product not found with id: " + request.getProductId());
+        }
+        Long sellerId = (Long) products.get(0).get("seller_id");
+        if (sellerId == null) {
+            throw new InvalidPaymentException("Product " + request.getProductId() + " has no seller to pay");
+        }
+        if (sellerId.equals(buyerId)) {
+            throw new InvalidPaymentException("Sellers cannot buy their own products");
+        }
+        long amount = Math.multiplyExact((Long) products.get(0).get("price"), request.getQuantity().longValue());
+        if (amount <= 0) {
+            throw new InvalidPaymentException("Product " + request.getProductId() + " has no price to pay");
+        }
+
+        List<PaymentResponseDto> inserted = jdbcTemplate.query(INSERT_INTENT, new MapSqlParameterSource()
+                .addValue("buyerId", buyerId)
+                .addValue("idempotencyKey", idempotencyKey)
+                .addValue("productId", request.getProductId())
+                .addValue("sellerId", sellerId)
+                .addValue("quantity", request.getQuantity())
+                .addValue("amount", amount)
+                .addValue("provider", paymentProvider.getName())
+                .addValue("now", LocalDateTime.now()), PAYMENT_MAPPER);
+        // Empty when a concurrent request with the same key inserted first.
+        return inserted.isEmpty() ? checkSameRequest(findByKey(buyerId, idempotencyKey), request) : inserted.get(0);
+    }
+
+    private PaymentResponseDto drive(PaymentResponseDto payment) {
+        // Resolved before the transaction, so a rollback cannot leave a cached id that was never committed.
+        LedgerAccount clearing = account(ELedgerAccountType.PROVIDER_CLEARING, 0L);
+        LedgerAccount fees = account(ELedgerAccountType.PLATFORM_FEES, 0L);
+        LedgerAccount seller = account(ELedgerAccountType.SELLER, payment.getSellerId());
+
+        PaymentProviderResult result;
+        try {
+            result = paymentProvider.charge("payment-" + payment.getId(), payment.getBuyerId(), payment.getAmount());
+        } catch (RuntimeException e) {
+            log.warn("Payment provider failed for payment {}, it stays pending", payment.getId(), e);
+            return payment;
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return finish(payment, result, clearing, fees, seller);
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= maxPostingAttempts) {
+                    log.warn("Payment {} lost {} lock conflicts, it stays pending", payment.getId(), attempt, e);
+                    throw new PaymentBusyException();
+                }
+            }
+        }
+    }
+
+    private PaymentResponseDto finish(PaymentResponseDto payment, PaymentProviderResult result,
+                                      LedgerAccount clearing, LedgerAccount fees, LedgerAccount seller) {
+        return transactionTemplate.execute(status -> {
+            List<PaymentResponseDto> finished = jdbcTemplate.query(FINISH_INTENT, new MapSqlParameterSource()
+                    .addValue("id", payment.getId())
+                    .addValue("status", (result.isSucceeded() ? EPaymentStatus.SUCCEEDED : EPaymentStatus.FAILED).name())
+                    .addValue("reference", result.getReference())
+                    .addValue("reason", result.getFailureReason())
+                    .addValue("now", LocalDateTime.now()), PAYMENT_MAPPER);
+            if (finished.isEmpty()) {
+                return find(payment.getId());
+            }
+            PaymentResponseDto captured = finished.get(0);
+            if (captured.getStatus() == EPaymentStatus.SUCCEEDED) {
+                long fee = captured.getAmount() * platformFeeBps / 10_000;
+                post(captured.getId(), List.of(
+                        new Posting(clearing, -captured.getAmount()),
+                        new Posting(seller, captured.getAmount() - fee),
+                        new Posting(fees, fee)));
+            }
+            return captured;
+        });
+    }
+
+    /** Appends one balanced entry; must run in the transaction that finished the payment. */
+    private void post(Long paymentId, List<Posting> postings) {
+        List<Posting> nonZero = postings.stream()
+                .filter(posting -> posting.amount() != 0)
+                // Slots are locked in account order, so a payment only ever waits on one further along.
+                .sorted(Comparator.comparingLong(posting -> posting.account().id()))
+                .toList();
+        if (nonZero.stream().mapToLong(Posting::amount).sum() != 0) {
+            throw new IllegalStateException("Postings of payment " + paymentId + " do not balance");
+        }
+
+        Long entryId = jdbcTemplate.queryForObject(
+                "INSERT INTO ledger_entries (payment_id, created_at) VALUES (:paymentId, :now) RETURNING id",
+                Map.of("paymentId", paymentId, "now", LocalDateTime.now()), Long.class);
+        jdbcTemplate.batchUpdate(INSERT_POSTING, nonZero.stream()
+                .map(posting -> new MapSqlParameterSource()
+                        .addValue("entryId", entryId)
+                        .addValue("accountId", posting.account().id())
+                        .addValue("amount", posting.amount()))
+                .toArray(SqlParameterSource[]::new));
+        for (Posting posting : nonZero) {
+            applyToBalance(posting.account(), posting.amount());
+        }
+    }
+
+    private void applyToBalance(LedgerAccount account, long amount) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("accountId", account.id())
+                .addValue("slots", account.slots())
+                .addValue("start", ThreadLocalRandom.current().nextInt(account.slots()));
+        List<Integer> free = jdbcTemplate.queryForList(LOCK_FREE_SLOT, params, Integer.class);
+        int slot = free.isEmpty()
+                ? jdbcTemplate.queryForObject(LOCK_SLOT, params, Integer.class)
+                : free.get(0);
+        jdbcTemplate.update(ADD_TO_SLOT, params.addValue("slot", slot).addValue("amount", amount));
+    }
+
+    private LedgerAccount account(ELedgerAccountType type, Long ownerId) {
+        return accounts.computeIfAbsent(type + ":" + ownerId, key -> {
+            Map<String, Object> params = Map.of("type", type.name(), "ownerId", ownerId, "slots", balanceSlots);
+            jdbcTemplate.update(INSERT_ACCOUNT, params);
+            LedgerAccount account = jdbcTemplate.queryForObject(
+                    "SELECT id, slots FROM ledger_accounts WHERE type = :type AND owner_id = :ownerId", params,
+                    (resultSet, rowNum) -> new LedgerAccount(resultSet.getLong("id"), resultSet.getInt("slots")));
+            jdbcTemplate.update(INSERT_SLOTS, Map.of("accountId", account.id(), "slots", account.slots()));
+            return account;
+        });
+    }
+
+    private PaymentResponseDto checkSameRequest(PaymentResponseDto payment, PaymentRequestDto request) {
+        if (!payment.getProductId().equals(request.getProductId()) || payment.getQuantity() != request.getQuantity()) {
+            throw new IdempotencyKeyReusedException(payment.getIdempotencyKey());
+        }
+        return payment;
+    }
+
+    private PaymentResponseDto findByKey(Long buyerId, String idempotencyKey) {
+        List<PaymentResponseDto> payments = jdbcTemplate.query(
+                "SELECT * FROM payment_intents WHERE buyer_id = :buyerId AND idempotency_key = :idempotencyKey",
+                Map.of("buyerId", buyerId, "idempotencyKey", idempotencyKey), PAYMENT_MAPPER);
+        return payments.isEmpty() ? null : payments.get(0);
+    }
+
+    private PaymentResponseDto find(Long id) {
+        List<PaymentResponseDto> payments = jdbcTemplate.query(
+                "SELECT * FROM payment_intents WHERE id = :id", Map.of("id", id), PAYMENT_MAPPER);
+        if (payments.isEmpty()) {
+            throw new ResourceNotFoundException("Payment not found with id: " + id);
+        }
+        return payments.get(0);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private record LedgerAccount(long id, int slots) {
+    }
+
+    private record Posting(LedgerAccount account, long amount) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.services.ProductSearchService;
+import com.example.freeandnice.utils.SearchTokenizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over a weighted tsvector document per product (name, then
+ * category names, then description) kept in {@code product_search} behind a
+ * GIN index (see V3__product_search.sql). Documents are rewritten whenever a
+ * product or one of its categories changes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "products.search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresProductSearchServiceImpl implements ProductSearchService {
+
+    private static final String UPSERT_DOCUMENTS =
+            "INSERT INTO product_search (product_id, document) " +
+            "SELECT p.id," +
+            " setweight(to_tsvector('simple', coalesce(p.name, '')), 'A')" +
+            " || setweight(to_tsvector('simple', coalesce(string_agg(c.name, ' '), '')), 'B')" +
+            " || setweight(to_tsvector('simple', coalesce(p.description, '')), 'C') " +
+            "FROM products p" +
+            " LEFT JOIN products_categories pc ON pc.products_id = p.id" +
+            " LEFT JOIN categories c ON c.id = pc.categories_id " +
+            "WHERE %s " +
+            "GROUP BY p.id, p.name, p.description " +
+            "ON CONFLICT (product_id) DO UPDATE SET document = EXCLUDED.document";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        int indexed = jdbcTemplate.update(String.format(UPSERT_DOCUMENTS,
+                "NOT EXISTS (SELECT 1 FROM product_search ps WHERE ps.product_id = p.id)"), Map.of());
+        log.info("Product search index ready, {} missing documents built", indexed);
+    }
+
+    @Override
+    public List<Long> search(String query, int offset, int limit) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        // Tokens are plain letters/digits, so they can be joined into a tsquery safely.
+        String tsQuery = tokens.stream().map(token -> token + ":*").collect(Collectors.joining(" & "));
+        return jdbcTemplate.queryForList(
+                "SELECT ps.product_id FROM product_search ps, to_tsquery('simple', :query) q " +
+                        "WHERE ps.document @@ q " +
+                        "ORDER BY ts_rank(ps.document, q) DESC, ps.product_id " +
+                        "LIMIT :limit OFFSET :offset",
+                new MapSqlParameterSource()
+                        .addValue("query", tsQuery)
+                        .addValue("limit", limit)
+                        .addValue("offset", offset),
+                Long.class);
+    }
+
+    @Override
+    public void index(Long productId) {
+        jdbcTemplate.update(String.format(UPSERT_DOCUMENTS, "p.id = :productId"),
+                Map.of("productId", productId));
+    }
+
+    @Override
+    public void index(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(String.format(UPSERT_DOCUMENTS, "p.id IN (:productIds)"),
+                Map.of("productIds", productIds));
+    }
+
+    @Override
+    public void reindexCategory(Long categoryId) {
+        jdbcTemplate.update(String.format(UPSERT_DOCUMENTS,
+                        "p.id IN (SELECT products_id FROM products_categories WHERE categories_id = :categoryId)"),
+                Map.of("categoryId", categoryId));
+    }
+
+    @Override
+    public void remove(Long productId) {
+        jdbcTemplate.update("DELETE FROM product_search WHERE product_id = :productId",
+                Map.of("productId", productId));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.exceptions.ChangeTokenExpiredException;
+import com.example.freeandnice.models.EProductChangeType;
+import com.example.freeandnice.models.ProductChange;
+import com.example.freeandnice.repositories.ProductChangeRepository;
+import com.example.freeandnice.services.ProductChangeService;
+import com.example.freeandnice.utils.CursorUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes the change feed. A reader must never see seq 11 before seq 10
+ * becomes visible, or it would move its token past 10 and miss it. So rows
+ * are inserted just before commit, under a transaction-scoped advisory lock.
+ * Sequence values are therefore handed out in commit order. Each writer holds
+ * the lock only for that final insert and the commit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductChangeServiceImpl implements ProductChangeService {
+
+    /** Arbitrary application-wide key of the advisory lock serializing feed writers. */
+    private static final long FEED_LOCK_KEY = 0x70726f6475637473L;
+
+    private static final String INSERT_CHANGE =
+            "INSERT INTO product_changes (seq, product_id, change_type, changed_at) " +
+            "VALUES (nextval('product_changes_seq'), :productId, :changeType, :changedAt)";
+
+    private final ProductChangeRepository productChangeRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${products.changes.retention:P30D}")
+    private Duration retention;
+
+    @Override
+    public void record(Collection<Long> productIds, EProductChangeType type) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Product changes must be recorded inside a transaction");
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Long productId : productIds) {
+            pending.changes.add(new MapSqlParameterSource()
+                    .addValue("productId", productId)
+                    .addValue("changeType", type.name())
+                    .addValue("changedAt", now));
+        }
+    }
+
+    @Override
+    public List<ProductChange> findSince(long seq, int limit) {
+        List<ProductChange> changes = productChangeRepository.findBySeqGreaterThanOrderBySeq(seq, Limit.of(limit));
+        if (seq > 0 && (changes.isEmpty() || changes.get(0).getSeq() > seq + 1)) {
+            // Either a gap left by a rolled back writer or changes purged past the token.
+            Long oldest = productChangeRepository.findMinSeq();
+            if (oldest != null && oldest > seq + 1) {
+                throw new ChangeTokenExpiredException(CursorUtils.encode(seq));
+            }
+        }
+        return changes;
+    }
+
+    @Override
+    public long currentSeq() {
+        Long seq = productChangeRepository.findMaxSeq();
+        return seq == null ? 0L : seq;
+    }
+
+    @Scheduled(fixedDelayString = "${products.changes.purge-interval-ms:3600000}")
+    public void purge() {
+        Integer purged = transactionTemplate.execute(status ->
+                productChangeRepository.deleteOlderThan(LocalDateTime.now().minus(retention)));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} product changes older than {}", purged, retention);
+        }
+    }
+
+    private class PendingChanges implements TransactionSynchronization {
+
+        private final List<MapSqlParameterSource> changes = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            jdbcTemplate.getJdbcOperations().execute("SELECT pg_advisory_xact_lock(" + FEED_LOCK_KEY + ")");
+            jdbcTemplate.batchUpdate(INSERT_CHANGE, changes.toArray(MapSqlParameterSource[]::new));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResource(ProductChangeServiceImpl.this);
+        }
+    }
+}
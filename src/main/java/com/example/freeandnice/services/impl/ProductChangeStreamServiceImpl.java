@@ -0,0 +1,155 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.ProductChangeDto;
+import com.example.freeandnice.dto.ProductChangesResponseDto;
+import com.example.freeandnice.exceptions.ChangeTokenExpiredException;
+import com.example.freeandnice.services.ProductChangeService;
+import com.example.freeandnice.services.ProductChangeStreamService;
+import com.example.freeandnice.services.ProductService;
+import com.example.freeandnice.utils.CursorUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes the change feed to SSE subscribers. Instead of querying once per
+ * subscriber, a single pump reads the feed from the oldest position any
+ * subscriber is at and hands every subscriber the part it has not seen yet.
+ * Events carry the change token as their id, so a reconnecting client resumes
+ * through Last-Event-ID without gaps.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductChangeStreamServiceImpl implements ProductChangeStreamService {
+
+    private static final String EVENT_NAME = "product-change";
+
+    private final ProductChangeService productChangeService;
+    private final ProductService productService;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    @Value("${products.changes.stream-timeout:PT30M}")
+    private Duration streamTimeout;
+
+    @Value("${products.changes.stream-page-size:500}")
+    private int pageSize;
+
+    @Value("${products.changes.stream-max-pages:10}")
+    private int maxPagesPerPump;
+
+    @Value("${products.changes.stream-keep-alive:PT15S}")
+    private Duration keepAlive;
+
+    @Override
+    public SseEmitter subscribe(String token) {
+        long since;
+        if (token == null || token.isBlank()) {
+            since = productChangeService.currentSeq();
+        } else {
+            since = CursorUtils.decode(token);
+            // Fails here, with a proper status, rather than after the stream has started.
+            productChangeService.findSince(since, 1);
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        Subscription subscription = new Subscription(emitter, since);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(e -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${products.changes.stream-interval-ms:1000}")
+    public void pump() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        long from = subscriptions.stream().mapToLong(subscription -> subscription.lastSeq).min().orElse(0L);
+        // Bounded so one far-behind subscriber cannot hold the pump for long; it catches up over several runs.
+        for (int page = 0; page < maxPagesPerPump; page++) {
+            ProductChangesResponseDto changes;
+            try {
+                changes = productService.getChanges(CursorUtils.encode(from), pageSize);
+            } catch (ChangeTokenExpiredException e) {
+                expire(from);
+                return;
+            }
+            for (ProductChangeDto change : changes.getChanges()) {
+                long seq = CursorUtils.decode(change.getToken());
+                for (Subscription subscription : subscriptions) {
+                    if (seq > subscription.lastSeq) {
+                        subscription.send(change, seq);
+                    }
+                }
+            }
+            from = CursorUtils.decode(changes.getNextToken());
+            if (!changes.isHasMore()) {
+                break;
+            }
+        }
+        long now = System.nanoTime();
+        for (Subscription subscription : subscriptions) {
+            if (now - subscription.lastSentNanos >= keepAlive.toNanos()) {
+                subscription.keepAlive();
+            }
+        }
+    }
+
+    /** Ends the streams positioned before the oldest retained change, they must resynchronize. */
+    private void expire(long seq) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.lastSeq <= seq) {
+                subscriptions.remove(subscription);
+                subscription.emitter.completeWithError(new ChangeTokenExpiredException(CursorUtils.encode(subscription.lastSeq)));
+            }
+        }
+    }
+
+    private class Subscription {
+
+        private final SseEmitter emitter;
+        private volatile long lastSeq;
+        private volatile long lastSentNanos = System.nanoTime();
+
+        Subscription(SseEmitter emitter, long lastSeq) {
+            this.emitter = emitter;
+            this.lastSeq = lastSeq;
+        }
+
+        void send(ProductChangeDto change, long seq) {
+            try {
+                emitter.send(SseEmitter.event().id(change.getToken()).name(EVENT_NAME).data(change));
+                lastSeq = seq;
+                lastSentNanos = System.nanoTime();
+            } catch (IOException | IllegalStateException e) {
+                drop(e);
+            }
+        }
+
+        void keepAlive() {
+            try {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+                lastSentNanos = System.nanoTime();
+            } catch (IOException | IllegalStateException e) {
+                drop(e);
+            }
+        }
+
+        private void drop(Exception e) {
+            log.debug("Dropping product change subscriber: {}", e.getMessage());
+            subscriptions.remove(this);
+            emitter.completeWithError(e);
+        }
+    }
+}
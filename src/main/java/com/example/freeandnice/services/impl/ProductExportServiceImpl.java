@@ -0,0 +1,223 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.ProductExportFilterDto;
+import com.example.freeandnice.dto.ProductExportRowDto;
+import com.example.freeandnice.models.EExportFormat;
+import com.example.freeandnice.services.CategoryCatalogService;
+import com.example.freeandnice.services.ProductExportService;
+import com.example.freeandnice.utils.CsvWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the catalog from a server-side cursor. Postgres only uses a cursor
+ * when a fetch size is set inside a transaction, so the query runs in a
+ * read-only transaction on a template with its own fetch size. Each row is
+ * written out as soon as it is read and then dropped.
+ */
+@Service
+public class ProductExportServiceImpl implements ProductExportService {
+
+    private static final String EXPORT_QUERY =
+            "SELECT p.id, p.name, p.description, p.price, p.quantity, p.location, p.seller_id," +
+            " p.created_at, p.updated_at," +
+            " (SELECT array_agg(pc.categories_id ORDER BY pc.categories_id) FROM products_categories pc" +
+            "  WHERE pc.products_id = p.id) AS category_ids," +
+            " (SELECT array_agg(pi.image_path) FROM product_images pi WHERE pi.product_id = p.id) AS image_paths " +
+            "FROM products p " +
+            "WHERE %s " +
+            "ORDER BY p.id";
+
+    private static final String[] CSV_HEADER = {"id", "name", "description", "price", "quantity", "location",
+            "sellerId", "createdAt", "updatedAt", "categoryIds", "imagePaths"};
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CategoryCatalogService categoryCatalogService;
+
+    public ProductExportServiceImpl(DataSource dataSource,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    CategoryCatalogService categoryCatalogService,
+                                    @Value("${products.export.fetch-size:1000}") int fetchSize) {
+        JdbcTemplate cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(cursorTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.categoryCatalogService = categoryCatalogService;
+    }
+
+    @Override
+    public void export(ProductExportFilterDto filter, EExportFormat format, OutputStream out) throws IOException {
+        Map<String, Object> params = new HashMap<>();
+        String sql = String.format(EXPORT_QUERY, where(filter, params));
+        RowWriter writer = format == EExportFormat.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.query(sql, params, (RowCallbackHandler) resultSet -> {
+                        try {
+                            writer.write(mapRow(resultSet));
+                        } catch (IOException e) {
+                            // Usually the client went away; this aborts the query and releases the cursor.
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+    }
+
+    private String where(ProductExportFilterDto filter, Map<String, Object> params) {
+        StringBuilder where = new StringBuilder("1 = 1");
+        if (filter.getSellerId() != null) {
+            where.append(" AND p.seller_id = :sellerId");
+            params.put("sellerId", filter.getSellerId());
+        }
+        if (filter.getCategoryId() != null) {
+            Set<Long> categoryIds = categoryCatalogService.getSnapshot().getSubtreeIds(filter.getCategoryId());
+            if (categoryIds.isEmpty()) {
+                where.append(" AND 1 = 0");
+            } else {
+                where.append(" AND p.id IN (SELECT products_id FROM products_categories WHERE categories_id IN (:categoryIds))");
+                params.put("categoryIds", categoryIds);
+            }
+        }
+        if (filter.getUpdatedSince() != null) {
+            where.append(" AND COALESCE(p.updated_at, p.created_at) >= :updatedSince");
+            params.put("updatedSince", filter.getUpdatedSince());
+        }
+        return where.toString();
+    }
+
+    private ProductExportRowDto mapRow(ResultSet resultSet) throws SQLException {
+        ProductExportRowDto row = new ProductExportRowDto();
+        row.setId(resultSet.getLong("id"));
+        row.setName(resultSet.getString("name"));
+        row.setDescription(resultSet.getString("description"));
+        row.setPrice(resultSet.getLong("price"));
+        row.setQuantity(resultSet.getObject("quantity", Integer.class));
+        row.setLocation(resultSet.getString("location"));
+        row.setSellerId(resultSet.getObject("seller_id", Long.class));
+        row.setCreatedAt(toLocalDateTime(resultSet.getTimestamp("created_at")));
+        row.setUpdatedAt(toLocalDateTime(resultSet.getTimestamp("updated_at")));
+        row.setCategoryIds(toList(resultSet.getArray("category_ids"), Long[].class));
+        row.setImagePaths(toList(resultSet.getArray("image_paths"), String[].class));
+        return row;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private static <T> List<T> toList(Array array, Class<T[]> type) throws SQLException {
+        if (array == null) {
+            return List.of();
+        }
+        try {
+            return Arrays.asList(type.cast(array.getArray()));
+        } finally {
+            array.free();
+        }
+    }
+
+    private interface RowWriter {
+        void write(ProductExportRowDto row) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private class NdjsonRowWriter implements RowWriter {
+
+        private final OutputStream out;
+        private final SequenceWriter sequenceWriter;
+        private boolean empty = true;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            this.out = out;
+            // Flushing after every row would send one tiny chunk per product.
+            this.sequenceWriter = objectMapper.writer()
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(out);
+        }
+
+        @Override
+        public void write(ProductExportRowDto row) throws IOException {
+            sequenceWriter.write(row);
+            empty = false;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            sequenceWriter.flush();
+            if (!empty) {
+                out.write('\n');
+            }
+            out.flush();
+        }
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+
+        private final BufferedWriter writer;
+        private final CsvWriter csv;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.csv = new CsvWriter(writer);
+            csv.writeRecord(CSV_HEADER);
+        }
+
+        @Override
+        public void write(ProductExportRowDto row) throws IOException {
+            csv.writeRecord(
+                    String.valueOf(row.getId()),
+                    row.getName(),
+                    row.getDescription(),
+                    String.valueOf(row.getPrice()),
+                    row.getQuantity() == null ? null : String.valueOf(row.getQuantity()),
+                    row.getLocation(),
+                    row.getSellerId() == null ? null : String.valueOf(row.getSellerId()),
+                    row.getCreatedAt() == null ? null : row.getCreatedAt().toString(),
+                    row.getUpdatedAt() == null ? null : row.getUpdatedAt().toString(),
+                    row.getCategoryIds().stream().map(String::valueOf).collect(Collectors.joining("|")),
+                    String.join("|", row.getImagePaths()));
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+}
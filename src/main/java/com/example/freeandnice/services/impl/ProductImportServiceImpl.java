@@ -0,0 +1,311 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.CreateProductRequestDto;
+import com.example.freeandnice.dto.ProductImportErrorDto;
+import com.example.freeandnice.dto.ProductImportResultDto;
+import com.example.freeandnice.exceptions.InvalidImportFileException;
+import com.example.freeandnice.models.CategorySnapshot;
+import com.example.freeandnice.models.EProductChangeType;
+import com.example.freeandnice.models.Product;
+import com.example.freeandnice.services.CategoryCatalogService;
+import com.example.freeandnice.services.ProductChangeService;
+import com.example.freeandnice.services.ProductImportService;
+import com.example.freeandnice.services.ProductSearchService;
+import com.example.freeandnice.utils.CsvReader;
+import com.example.freeandnice.utils.LineReader;
+import com.example.freeandnice.utils.SecurityUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Imports products from a streamed request body. Rows are parsed one at a
+ * time and validated against the category catalog. Valid rows are written in
+ * batches, one transaction and one JDBC batch per table each, so memory use
+ * depends on the batch size, not on the size of the upload.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO products (id, name, description, price, quantity, location, seller_id, created_at) " +
+            "VALUES (:id, :name, :description, :price, :quantity, :location, :sellerId, :createdAt)";
+    private static final String INSERT_IMAGE =
+            "INSERT INTO product_images (product_id, image_path) VALUES (:productId, :imagePath)";
+    private static final String INSERT_CATEGORY =
+            "INSERT INTO products_categories (products_id, categories_id) VALUES (:productId, :categoryId)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CategoryCatalogService categoryCatalogService;
+    private final ProductSearchService productSearchService;
+    private final ProductChangeService productChangeService;
+
+    @Value("${products.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${products.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Value("${products.import.max-line-length:65536}")
+    private int maxLineLength;
+
+    @Override
+    public ProductImportResultDto importNdjson(InputStream body) throws IOException {
+        LineReader reader = new LineReader(
+                new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)), maxLineLength);
+        ImportRun run = new ImportRun();
+        while (true) {
+            String line;
+            try {
+                line = reader.next();
+            } catch (IllegalArgumentException e) {
+                run.reject(reader.getLine(), e.getMessage());
+                continue;
+            }
+            if (line == null) {
+                break;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                CreateProductRequestDto row = objectMapper.readValue(line, CreateProductRequestDto.class);
+                if (row == null) {
+                    run.reject(reader.getLine(), "Expected a JSON object");
+                } else {
+                    run.accept(reader.getLine(), row);
+                }
+            } catch (JsonProcessingException e) {
+                run.reject(reader.getLine(), "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        return run.finish();
+    }
+
+    @Override
+    public ProductImportResultDto importCsv(InputStream body) throws IOException {
+        CsvReader csv = new CsvReader(
+                new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)), maxLineLength);
+        ImportRun run = new ImportRun();
+        try {
+            List<String> header = csv.next();
+            if (header == null) {
+                return run.finish();
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim(), i);
+            }
+            if (!columns.containsKey("name") || !columns.containsKey("price")) {
+                throw new InvalidImportFileException("CSV header must name at least the name and price columns");
+            }
+
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                try {
+                    run.accept(csv.getRecordLine(), toRow(columns, record));
+                } catch (NumberFormatException e) {
+                    run.reject(csv.getRecordLine(), "Invalid number: " + e.getMessage());
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // An unterminated quote or an oversized record leaves no record boundary to resume from.
+            run.reject(csv.getRecordLine(), e.getMessage());
+        }
+        return run.finish();
+    }
+
+    private CreateProductRequestDto toRow(Map<String, Integer> columns, List<String> record) {
+        CreateProductRequestDto row = new CreateProductRequestDto();
+        row.setName(column(columns, record, "name"));
+        row.setDescription(column(columns, record, "description"));
+        row.setLocation(column(columns, record, "location"));
+        String price = column(columns, record, "price");
+        row.setPrice(price == null ? null : Long.parseLong(price.trim()));
+        String quantity = column(columns, record, "quantity");
+        row.setQuantity(quantity == null ? null : Integer.parseInt(quantity.trim()));
+        String categoryIds = column(columns, record, "categoryIds");
+        row.setCategoryIds(categoryIds == null ? null : Arrays.stream(categoryIds.split("\\|"))
+                .map(String::trim)
+                .map(Long::parseLong)
+                .toList());
+        String imagePaths = column(columns, record, "imagePaths");
+        row.setImagePaths(imagePaths == null ? null : Arrays.asList(imagePaths.split("\\|")));
+        return row;
+    }
+
+    private String column(Map<String, Integer> columns, List<String> record, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size() || record.get(index).isEmpty()) {
+            return null;
+        }
+        return record.get(index);
+    }
+
+    /** Returns a message describing the first problem of the row, or null if it can be imported. */
+    private String validate(CreateProductRequestDto row, CategorySnapshot catalog) {
+        if (row.getName() == null || row.getName().isBlank()) {
+            return "name is required";
+        }
+        if (row.getName().length() > 255) {
+            return "name is longer than 255 characters";
+        }
+        if (row.getDescription() != null && row.getDescription().length() > 1000) {
+            return "description is longer than 1000 characters";
+        }
+        if (row.getLocation() != null && row.getLocation().length() > 255) {
+            return "location is longer than 255 characters";
+        }
+        if (row.getPrice() == null || row.getPrice() < 0) {
+            return "price must be a non-negative number";
+        }
+        if (row.getQuantity() != null && row.getQuantity() < 0) {
+            return "quantity must not be negative";
+        }
+        if (row.getCategoryIds() != null) {
+            for (Long categoryId : row.getCategoryIds()) {
+                if (!catalog.contains(categoryId)) {
+                    return "unknown category " + categoryId;
+                }
+            }
+        }
+        if (row.getImagePaths() != null) {
+            for (String imagePath : row.getImagePaths()) {
+                if (imagePath == null || imagePath.isBlank() || imagePath.length() > 255) {
+                    return "image paths must be non-blank and at most 255 characters";
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reserves {@code count} product ids. Each sequence value v stands for the
+     * block v - 49 .. v, the same convention as Hibernate's pooled optimizer,
+     * so imported and individually created products never collide.
+     */
+    private List<Long> allocateIds(int count) {
+        int blocks = (count + Product.ID_ALLOCATION_SIZE - 1) / Product.ID_ALLOCATION_SIZE;
+        List<Long> highs = jdbcTemplate.queryForList(
+                "SELECT nextval('products_seq') FROM generate_series(1, :blocks)",
+                Map.of("blocks", blocks), Long.class);
+        List<Long> ids = new ArrayList<>(count);
+        for (Long high : highs) {
+            for (long id = high - Product.ID_ALLOCATION_SIZE + 1; id <= high && ids.size() < count; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private record PendingRow(long line, CreateProductRequestDto product) {
+    }
+
+    /** State of one import request. */
+    private class ImportRun {
+
+        private final ProductImportResultDto result = new ProductImportResultDto();
+        private final CategorySnapshot catalog = categoryCatalogService.getSnapshot();
+        private final Long sellerId = SecurityUtils.currentUserId();
+        private final List<PendingRow> pending = new ArrayList<>();
+
+        void accept(long line, CreateProductRequestDto row) {
+            String error = validate(row, catalog);
+            if (error != null) {
+                reject(line, error);
+                return;
+            }
+            pending.add(new PendingRow(line, row));
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxReportedErrors) {
+                result.getErrors().add(new ProductImportErrorDto(line, message));
+            }
+        }
+
+        ProductImportResultDto finish() {
+            flush();
+            return result;
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                List<Long> ids = transactionTemplate.execute(status -> write(pending));
+                result.setImported(result.getImported() + pending.size());
+                productSearchService.index(ids);
+            } catch (DataAccessException e) {
+                log.warn("Product import batch of {} rows failed", pending.size(), e);
+                String message = "Batch rejected by the database: " + e.getMostSpecificCause().getMessage();
+                pending.forEach(row -> reject(row.line(), message));
+            }
+            pending.clear();
+        }
+
+        private List<Long> write(List<PendingRow> rows) {
+            List<Long> ids = allocateIds(rows.size());
+            LocalDateTime now = LocalDateTime.now();
+            List<MapSqlParameterSource> products = new ArrayList<>(rows.size());
+            List<MapSqlParameterSource> images = new ArrayList<>();
+            List<MapSqlParameterSource> categories = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                Long id = ids.get(i);
+                CreateProductRequestDto row = rows.get(i).product();
+                products.add(new MapSqlParameterSource()
+                        .addValue("id", id)
+                        .addValue("name", row.getName())
+                        .addValue("description", row.getDescription())
+                        .addValue("price", row.getPrice())
+                        .addValue("quantity", row.getQuantity())
+                        .addValue("location", row.getLocation())
+                        .addValue("sellerId", sellerId)
+                        .addValue("createdAt", now));
+                if (row.getImagePaths() != null) {
+                    row.getImagePaths().forEach(imagePath -> images.add(new MapSqlParameterSource()
+                            .addValue("productId", id)
+                            .addValue("imagePath", imagePath)));
+                }
+                if (row.getCategoryIds() != null) {
+                    row.getCategoryIds().stream().distinct().forEach(categoryId -> categories.add(new MapSqlParameterSource()
+                            .addValue("productId", id)
+                            .addValue("categoryId", categoryId)));
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_PRODUCT, products.toArray(MapSqlParameterSource[]::new));
+            jdbcTemplate.batchUpdate(INSERT_IMAGE, images.toArray(MapSqlParameterSource[]::new));
+            jdbcTemplate.batchUpdate(INSERT_CATEGORY, categories.toArray(MapSqlParameterSource[]::new));
+            productChangeService.record(ids, EProductChangeType.CREATED);
+            return ids;
+        }
+    }
+}
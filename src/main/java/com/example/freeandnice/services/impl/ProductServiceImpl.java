@@ -1,23 +1,47 @@
 package com.example.freeandnice.services.impl;
 
 import com.example.freeandnice.dto.CreateProductRequestDto;
+import com.example.freeandnice.dto.ProductChangeDto;
+import com.example.freeandnice.dto.ProductChangesResponseDto;
+import com.example.freeandnice.dto.ProductFilterRequestDto;
+import com.example.freeandnice.dto.ProductFilterResponseDto;
+import com.example.freeandnice.dto.ProductPageResponseDto;
 import com.example.freeandnice.dto.ProductResponseDto;
+import com.example.freeandnice.dto.RatingSummaryDto;
 import com.example.freeandnice.dto.UpdateProductRequestDto;
+import com.example.freeandnice.exceptions.ResourceNotFoundException;
 import com.example.freeandnice.models.Category;
+import com.example.freeandnice.models.CategorySnapshot;
+import com.example.freeandnice.models.EProductChangeType;
 import com.example.freeandnice.models.Product;
-import com.example.freeandnice.models.User;
+import com.example.freeandnice.models.ProductChange;
 import com.example.freeandnice.repositories.CategoryRepository;
+import com.example.freeandnice.repositories.ProductFilterRepository;
 import com.example.freeandnice.repositories.ProductRepository;
 import com.example.freeandnice.repositories.UserRepository;
+import com.example.freeandnice.services.CategoryCatalogService;
+import com.example.freeandnice.services.ProductChangeService;
+import com.example.freeandnice.services.ProductSearchService;
 import com.example.freeandnice.services.ProductService;
-import io.jsonwebtoken.impl.security.EdwardsCurve;
+import com.example.freeandnice.services.ReviewService;
+import com.example.freeandnice.utils.CursorUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,10 +49,31 @@ import java.util.stream.Collectors;
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductFilterRepository productFilterRepository;
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
+    private final ProductSearchService productSearchService;
+    private final CategoryCatalogService categoryCatalogService;
+    private final ProductChangeService productChangeService;
+    private final ReviewService reviewService;
+
+    @Value("${products.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${products.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${products.changes.default-size:100}")
+    private int defaultChangesSize;
+
+    @Value("${products.changes.max-size:1000}")
+    private int maxChangesSize;
+
+    @Value("${products.filter.price-buckets:0,1000,5000,10000,50000,100000}")
+    private List<Long> priceBuckets;
 
     @Override
+    @Transactional
     public ProductResponseDto createProduct(CreateProductRequestDto createProductRequestDto) {
         Product product = new Product();
         product.setName(createProductRequestDto.getName());
@@ -36,31 +81,52 @@ public class ProductServiceImpl implements ProductService {
         product.setPrice(createProductRequestDto.getPrice());
         product.setQuantity(createProductRequestDto.getQuantity());
         product.setLocation(createProductRequestDto.getLocation());
+        product.setImages(createProductRequestDto.getImagePaths() == null
+                ? new ArrayList<>() : new ArrayList<>(createProductRequestDto.getImagePaths()));
 
-        List<Category> categories = categoryRepository.findAllById(createProductRequestDto.getCategoryIds());
-        product.setCategories(new HashSet<>(categories));
+        product.setCategories(resolveCategories(createProductRequestDto.getCategoryIds()));
 
-        Product savedProduct = productRepository.save(product);
+        // Flushed first: the search index reads the product and its categories back with plain JDBC.
+        Product savedProduct = productRepository.saveAndFlush(product);
+        productSearchService.index(savedProduct.getId());
+        productChangeService.record(List.of(savedProduct.getId()), EProductChangeType.CREATED);
         return mapToProductResponseDto(savedProduct);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<ProductResponseDto> getProductById(Long id) {
-        return productRepository.findById(id).map(this::mapToProductResponseDto);
+        return productRepository.findViewById(id).map(product -> {
+            fillCollections(List.of(product));
+            return product;
+        });
     }
 
     @Override
-    public List<ProductResponseDto> getAllProducts() {
-        return productRepository.findAll()
-                .stream()
-                .map(this::mapToProductResponseDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public ProductPageResponseDto getProductsPage(String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        long afterId = cursor == null || cursor.isBlank() ? 0L : CursorUtils.decode(cursor);
+
+        // Fetch one extra row to know whether another page exists without a count query.
+        List<ProductResponseDto> products = productRepository.findPageAfter(afterId, Limit.of(pageSize + 1));
+        boolean hasNext = products.size() > pageSize;
+        if (hasNext) {
+            products = products.subList(0, pageSize);
+        }
+
+        String nextCursor = hasNext ? CursorUtils.encode(products.get(products.size() - 1).getId()) : null;
+        return new ProductPageResponseDto(fillCollections(products), nextCursor);
     }
 
     @Override
+    @Transactional
     public ProductResponseDto updateProduct(UpdateProductRequestDto updateProductRequestDto) {
         Product product = productRepository.findById(updateProductRequestDto.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + updateProductRequestDto.getId()));
+        if (updateProductRequestDto.getVersion() != null && !updateProductRequestDto.getVersion().equals(product.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Product.class, product.getId());
+        }
 
         product.setName(updateProductRequestDto.getName());
         product.setDescription(updateProductRequestDto.getDescription());
@@ -68,43 +134,198 @@ public class ProductServiceImpl implements ProductService {
         product.setQuantity(updateProductRequestDto.getQuantity());
         product.setLocation(updateProductRequestDto.getLocation());
 
-        List<Category> categories = categoryRepository.findAllById(updateProductRequestDto.getCategoryIds());
-        product.setCategories(new HashSet<>(categories));
+        product.setCategories(resolveCategories(updateProductRequestDto.getCategoryIds()));
 
-        Product updatedProduct = productRepository.save(product);
+        // Flushed here so the response carries the incremented version.
+        Product updatedProduct = productRepository.saveAndFlush(product);
+        productSearchService.index(updatedProduct.getId());
+        productChangeService.record(List.of(updatedProduct.getId()), EProductChangeType.UPDATED);
         return mapToProductResponseDto(updatedProduct);
     }
 
     @Override
+    @Transactional
     public void deleteProduct(Long id) {
+        if (!productRepository.existsById(id)) {
+            return;
+        }
+        reviewService.removeProductRatings(id);
         productRepository.deleteById(id);
+        productSearchService.remove(id);
+        productChangeService.record(List.of(id), EProductChangeType.DELETED);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductResponseDto> getProductsBySeller(Long sellerId) {
-        User seller = userRepository.findById(sellerId)
-                .orElseThrow(() -> new IllegalArgumentException("Seller not found with id: " + sellerId));
-        List<Product> products = productRepository.findBySeller(seller);
+        if (!userRepository.existsById(sellerId)) {
+            throw new IllegalArgumentException("Seller not found with id: " + sellerId);
+        }
+        return fillCollections(productRepository.findBySellerId(sellerId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductResponseDto> searchByNameOrCategory(String keyword, Integer page, Integer size) {
+        int pageSize = resolvePageSize(size);
+        int offset = page == null || page < 0 ? 0 : page * pageSize;
+        List<Long> ids = productSearchService.search(keyword, offset, pageSize);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        return products.stream()
-                .map(this::mapToProductResponseDto)
+        // Restore the ranking order, which the IN query does not preserve.
+        Map<Long, ProductResponseDto> productsById = productRepository.findViewsByIds(ids).stream()
+                .collect(Collectors.toMap(ProductResponseDto::getId, Function.identity()));
+        List<ProductResponseDto> products = ids.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        return fillCollections(products);
     }
 
     @Override
-    public List<ProductResponseDto> searchByNameOrCategory(String keyword) {
-        List<Product> products = productRepository.searchByName(keyword);
-        return products.stream()
-                .map(this::mapToProductResponseDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public ProductFilterResponseDto filterProducts(ProductFilterRequestDto filter, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        long afterId = cursor == null || cursor.isBlank() ? 0L : CursorUtils.decode(cursor);
+        CategorySnapshot catalog = categoryCatalogService.getSnapshot();
+        if (filter.getCategories() != null && !filter.getCategories().isEmpty()) {
+            // A category matches its whole subtree, expanded from the precomputed closure.
+            List<Long> selectedIds = filter.getCategories().stream()
+                    .map(catalog::getId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            filter.setCategoryIds(new ArrayList<>(catalog.getSubtreeIds(selectedIds)));
+        }
+
+        List<ProductResponseDto> products = productFilterRepository.findPage(filter, afterId, pageSize + 1);
+        boolean hasNext = products.size() > pageSize;
+        if (hasNext) {
+            products = products.subList(0, pageSize);
+        }
+
+        ProductFilterResponseDto response = new ProductFilterResponseDto();
+        response.setItems(fillCollections(products));
+        response.setNextCursor(hasNext ? CursorUtils.encode(products.get(products.size() - 1).getId()) : null);
+        ProductFilterRepository.FacetCounts facets = productFilterRepository.countFacets(filter, priceBuckets);
+        response.setTotal(facets.total());
+        response.setCategories(categoryCounts(catalog, productFilterRepository.countByCategory(filter)));
+        response.setLocations(facets.locations());
+        response.setPriceBuckets(facets.priceBuckets());
+        response.setInStock(facets.inStock());
+        return response;
+    }
+
+    /**
+     * Category references for a product write. Ids in the catalog become
+     * proxies without a read. The catalog may predate a category created
+     * through another instance, so the rest are looked up in the database.
+     *
+     * @throws ResourceNotFoundException if a category does not exist
+     */
+    private Set<Category> resolveCategories(List<Long> categoryIds) {
+        if (categoryIds == null) {
+            return new HashSet<>();
+        }
+        CategorySnapshot catalog = categoryCatalogService.getSnapshot();
+        Set<Category> categories = new HashSet<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long id : new LinkedHashSet<>(categoryIds)) {
+            if (catalog.contains(id)) {
+                categories.add(categoryRepository.getReferenceById(id));
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<Category> found = categoryRepository.findAllById(missing);
+            found.forEach(category -> missing.remove(category.getId()));
+            if (!missing.isEmpty()) {
+                throw new ResourceNotFoundException("Category not found with id: " + missing.iterator().next());
+            }
+            categories.addAll(found);
+        }
+        return categories;
+    }
+
+    private Map<String, Long> categoryCounts(CategorySnapshot catalog, Map<Long, Long> countsById) {
+        Map<String, Long> counts = new TreeMap<>();
+        countsById.forEach((id, count) -> {
+            String name = catalog.getName(id);
+            if (name != null) {
+                counts.put(name, count);
+            }
+        });
+        return counts;
     }
 
     @Override
-    public List<ProductResponseDto> filterProducts(String category, Long minPrice, Long maxPrice) {
-        List<Product> products = productRepository.filterProducts(category, minPrice, maxPrice);
-        return products.stream()
-                .map(this::mapToProductResponseDto)
+    @Transactional(readOnly = true)
+    public ProductChangesResponseDto getChanges(String token, Integer size) {
+        int limit = size == null || size <= 0 ? defaultChangesSize : Math.min(size, maxChangesSize);
+        long since = token == null || token.isBlank() ? 0L : CursorUtils.decode(token);
+
+        List<ProductChange> changes = productChangeService.findSince(since, limit + 1);
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+
+        // One lookup for the current state of every product still present.
+        List<Long> liveIds = changes.stream()
+                .filter(change -> change.getChangeType() != EProductChangeType.DELETED)
+                .map(ProductChange::getProductId)
+                .distinct()
                 .collect(Collectors.toList());
+        Map<Long, ProductResponseDto> productsById = liveIds.isEmpty() ? Map.of()
+                : fillCollections(productRepository.findViewsByIds(liveIds)).stream()
+                        .collect(Collectors.toMap(ProductResponseDto::getId, Function.identity()));
+
+        List<ProductChangeDto> items = changes.stream()
+                .map(change -> new ProductChangeDto(
+                        CursorUtils.encode(change.getSeq()),
+                        change.getProductId(),
+                        change.getChangeType(),
+                        change.getChangedAt(),
+                        change.getChangeType() == EProductChangeType.DELETED ? null : productsById.get(change.getProductId())))
+                .collect(Collectors.toList());
+        String nextToken = items.isEmpty() ? CursorUtils.encode(since) : items.get(items.size() - 1).getToken();
+        return new ProductChangesResponseDto(items, nextToken, hasMore);
+    }
+
+    @Override
+    public String getChangesHeadToken() {
+        return CursorUtils.encode(productChangeService.currentSeq());
+    }
+
+    private int resolvePageSize(Integer size) {
+        return size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+    }
+
+    /**
+     * Completes projected rows with their category names and image paths using
+     * one set-based query per collection, without hydrating any entity.
+     */
+    private List<ProductResponseDto> fillCollections(List<ProductResponseDto> products) {
+        if (products.isEmpty()) {
+            return products;
+        }
+        List<Long> ids = products.stream().map(ProductResponseDto::getId).collect(Collectors.toList());
+        Map<Long, List<String>> categoryNames = groupByProduct(productRepository.findCategoryNamesByProductIds(ids));
+        Map<Long, List<String>> imagePaths = groupByProduct(productRepository.findImagePathsByProductIds(ids));
+
+        for (ProductResponseDto product : products) {
+            product.setCategoryNames(categoryNames.getOrDefault(product.getId(), new ArrayList<>()));
+            product.setImagePaths(imagePaths.getOrDefault(product.getId(), new ArrayList<>()));
+        }
+        return products;
+    }
+
+    private Map<Long, List<String>> groupByProduct(List<ProductRepository.ProductItem> items) {
+        return items.stream().collect(Collectors.groupingBy(
+                ProductRepository.ProductItem::getProductId,
+                Collectors.mapping(ProductRepository.ProductItem::getItem, Collectors.toList())));
     }
 
     private ProductResponseDto mapToProductResponseDto(Product product) {
@@ -115,9 +336,15 @@ public class ProductServiceImpl implements ProductService {
         dto.setPrice(product.getPrice());
         dto.setQuantity(product.getQuantity());
         dto.setLocation(product.getLocation());
+        dto.setVersion(product.getVersion());
+        dto.setRating(RatingSummaryDto.of(product.getRating1(), product.getRating2(),
+                product.getRating3(), product.getRating4(), product.getRating5()));
 
+        // Names come from the catalog, so proxies are not loaded, unless it predates the category.
+        CategorySnapshot catalog = categoryCatalogService.getSnapshot();
         dto.setCategoryNames(product.getCategories().stream()
-                .map(Category::getName)
+                .map(category -> catalog.contains(category.getId()) ? catalog.getName(category.getId()) : category.getName())
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList()));
 
         dto.setImagePaths(new ArrayList<>(product.getImages()));
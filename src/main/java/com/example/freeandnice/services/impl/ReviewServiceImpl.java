@@ -0,0 +1,223 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.RatingSummaryDto;
+import com.example.freeandnice.dto.ReviewPageResponseDto;
+import com.example.freeandnice.dto.ReviewRequestDto;
+import com.example.freeandnice.dto.ReviewResponseDto;
+import com.example.freeandnice.exceptions.InvalidReviewException;
+import com.example.freeandnice.exceptions.ResourceNotFoundException;
+import com.example.freeandnice.exceptions.ReviewAlreadyExistsException;
+import com.example.freeandnice.services.ReviewService;
+import com.example.freeandnice.utils.CursorUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Ratings are aggregated when reviews are written, not when they are read:
+ * every insert, edit and delete moves the per-star counts of the product row
+ * and of the seller's {@code seller_ratings} row in the review's transaction.
+ * Reading a rating is reading one row, and product listings get it with the
+ * product projection. The counts are moved by relative UPDATEs, so concurrent
+ * reviews of one product wait on its row lock but never lose a count.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReviewServiceImpl implements ReviewService {
+
+    private static final String INSERT_REVIEW =
+            "INSERT INTO reviews (product_id, seller_id, author_id, rating, comment, created_at) " +
+            "VALUES (:productId, :sellerId, :authorId, :rating, :comment, :now) " +
+            "ON CONFLICT (product_id, author_id) DO NOTHING RETURNING *";
+    private static final String UPDATE_REVIEW =
+            "UPDATE reviews SET rating = :rating, comment = :comment, updated_at = :now WHERE id = :id RETURNING *";
+    private static final String ADJUST_PRODUCT_RATING =
+            "UPDATE products SET rating_1 = rating_1 + :d1, rating_2 = rating_2 + :d2, rating_3 = rating_3 + :d3," +
+            " rating_4 = rating_4 + :d4, rating_5 = rating_5 + :d5 WHERE id = :productId";
+    private static final String ADJUST_SELLER_RATING =
+            "INSERT INTO seller_ratings AS s (seller_id, rating_1, rating_2, rating_3, rating_4, rating_5) " +
+            "VALUES (:sellerId, :d1, :d2, :d3, :d4, :d5) " +
+            "ON CONFLICT (seller_id) DO UPDATE SET rating_1 = s.rating_1 + :d1, rating_2 = s.rating_2 + :d2," +
+            " rating_3 = s.rating_3 + :d3, rating_4 = s.rating_4 + :d4, rating_5 = s.rating_5 + :d5";
+    // Locks the product first, so a review written meanwhile is either counted here or fails on the deleted product.
+    private static final String REMOVE_PRODUCT_FROM_SELLER_RATING =
+            "UPDATE seller_ratings s SET rating_1 = s.rating_1 - p.rating_1, rating_2 = s.rating_2 - p.rating_2," +
+            " rating_3 = s.rating_3 - p.rating_3, rating_4 = s.rating_4 - p.rating_4, rating_5 = s.rating_5 - p.rating_5 " +
+            "FROM (SELECT seller_id, rating_1, rating_2, rating_3, rating_4, rating_5 FROM products" +
+            "      WHERE id = :productId FOR UPDATE) p " +
+            "WHERE s.seller_id = p.seller_id";
+
+    private static final RowMapper<ReviewResponseDto> REVIEW_MAPPER = (resultSet, rowNum) ->
+            new ReviewResponseDto(
+                    resultSet.getLong("id"),
+                    resultSet.getLong("product_id"),
+                    resultSet.getObject("seller_id", Long.class),
+                    resultSet.getLong("author_id"),
+                    resultSet.getInt("rating"),
+                    resultSet.getString("comment"),
+                    toLocalDateTime(resultSet.getTimestamp("created_at")),
+                    toLocalDateTime(resultSet.getTimestamp("updated_at")));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${reviews.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${reviews.page.max-size:100}")
+    private int maxPageSize;
+
+    @Override
+    public ReviewResponseDto createReview(Long productId, Long authorId, ReviewRequestDto request) {
+        return transactionTemplate.execute(status -> {
+            List<Long> sellers = jdbcTemplate.query("SELECT seller_id FROM products WHERE id = :id",
+                    Map.of("id", productId), (resultSet, rowNum) -> resultSet.getObject("seller_id", Long.class));
+            if (sellers.isEmpty()) {
+                throw new ResourceNotFoundException("Product not found with id: " + productId);
+            }
+            Long sellerId = sellers.get(0);
+            if (authorId.equals(sellerId)) {
+                throw new InvalidReviewException("Sellers cannot review their own products");
+            }
+
+            List<ReviewResponseDto> inserted = jdbcTemplate.query(INSERT_REVIEW, new MapSqlParameterSource()
+                    .addValue("productId", productId)
+                    .addValue("sellerId", sellerId)
+                    .addValue("authorId", authorId)
+                    .addValue("rating", request.getRating())
+                    .addValue("comment", request.getComment())
+                    .addValue("now", LocalDateTime.now()), REVIEW_MAPPER);
+            if (inserted.isEmpty()) {
+                throw new ReviewAlreadyExistsException(productId);
+            }
+            ReviewResponseDto review = inserted.get(0);
+            int[] deltas = new int[5];
+            deltas[review.getRating() - 1]++;
+            adjustRatings(review, deltas);
+            return review;
+        });
+    }
+
+    @Override
+    public ReviewResponseDto updateReview(Long id, Long authorId, ReviewRequestDto request) {
+        return transactionTemplate.execute(status -> {
+            ReviewResponseDto previous = lockOwnReview(id, authorId);
+            ReviewResponseDto review = jdbcTemplate.queryForObject(UPDATE_REVIEW, new MapSqlParameterSource()
+                    .addValue("id", id)
+                    .addValue("rating", request.getRating())
+                    .addValue("comment", request.getComment())
+                    .addValue("now", LocalDateTime.now()), REVIEW_MAPPER);
+            if (review.getRating() != previous.getRating()) {
+                int[] deltas = new int[5];
+                deltas[previous.getRating() - 1]--;
+                deltas[review.getRating() - 1]++;
+                adjustRatings(review, deltas);
+            }
+            return review;
+        });
+    }
+
+    @Override
+    public void deleteReview(Long id, Long authorId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            ReviewResponseDto review = lockOwnReview(id, authorId);
+            jdbcTemplate.update("DELETE FROM reviews WHERE id = :id", Map.of("id", id));
+            int[] deltas = new int[5];
+            deltas[review.getRating() - 1]--;
+            adjustRatings(review, deltas);
+        });
+    }
+
+    @Override
+    public ReviewPageResponseDto getProductReviews(Long productId, String cursor, Integer size) {
+        return page("product_id", productId, cursor, size);
+    }
+
+    @Override
+    public ReviewPageResponseDto getSellerReviews(Long sellerId, String cursor, Integer size) {
+        return page("seller_id", sellerId, cursor, size);
+    }
+
+    @Override
+    public RatingSummaryDto getSellerRating(Long sellerId) {
+        List<RatingSummaryDto> ratings = jdbcTemplate.query(
+                "SELECT rating_1, rating_2, rating_3, rating_4, rating_5 FROM seller_ratings WHERE seller_id = :sellerId",
+                Map.of("sellerId", sellerId),
+                (resultSet, rowNum) -> RatingSummaryDto.of(
+                        resultSet.getInt("rating_1"),
+                        resultSet.getInt("rating_2"),
+                        resultSet.getInt("rating_3"),
+                        resultSet.getInt("rating_4"),
+                        resultSet.getInt("rating_5")));
+        return ratings.isEmpty() ? RatingSummaryDto.of(0, 0, 0, 0, 0) : ratings.get(0);
+    }
+
+    @Override
+    public void removeProductRatings(Long productId) {
+        jdbcTemplate.update(REMOVE_PRODUCT_FROM_SELLER_RATING, Map.of("productId", productId));
+    }
+
+    private ReviewPageResponseDto page(String column, Long id, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        long before = cursor == null || cursor.isBlank() ? Long.MAX_VALUE : CursorUtils.decode(cursor);
+
+        // Fetch one extra row to know whether another page exists without a count query.
+        List<ReviewResponseDto> reviews = jdbcTemplate.query(
+                "SELECT * FROM reviews WHERE " + column + " = :id AND id < :before ORDER BY id DESC LIMIT :limit",
+                Map.of("id", id, "before", before, "limit", pageSize + 1), REVIEW_MAPPER);
+        boolean hasMore = reviews.size() > pageSize;
+        if (hasMore) {
+            reviews = reviews.subList(0, pageSize);
+        }
+        String nextCursor = hasMore ? CursorUtils.encode(reviews.get(reviews.size() - 1).getId()) : null;
+        return new ReviewPageResponseDto(reviews, nextCursor);
+    }
+
+    private ReviewResponseDto lockOwnReview(Long id, Long authorId) {
+        List<ReviewResponseDto> reviews = jdbcTemplate.query(
+                "SELECT * FROM reviews WHERE id = :id FOR UPDATE", Map.of("id", id), REVIEW_MAPPER);
+        if (reviews.isEmpty()) {
+            throw new ResourceNotFoundException("Review not found with id: " + id);
+        }
+        ReviewResponseDto review = reviews.get(0);
+        if (!Objects.equals(review.getAuthorId(), authorId)) {
+            throw new AccessDeniedException("Review " + id + " was written by another user");
+        }
+        return review;
+    }
+
+    private void adjustRatings(ReviewResponseDto review, int[] deltas) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("productId", review.getProductId())
+                .addValue("sellerId", review.getSellerId());
+        for (int i = 0; i < deltas.length; i++) {
+            params.addValue("d" + (i + 1), deltas[i]);
+        }
+        jdbcTemplate.update(ADJUST_PRODUCT_RATING, params);
+        if (review.getSellerId() != null) {
+            jdbcTemplate.update(ADJUST_SELLER_RATING, params);
+        }
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
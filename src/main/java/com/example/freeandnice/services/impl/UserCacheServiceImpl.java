@@ -0,0 +1,105 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.models.User;
+import com.example.freeandnice.repositories.UserRepository;
+import com.example.freeandnice.services.UserCacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.example.freeandnice.configs.CacheConfiguration.USERS_BY_ID;
+import static com.example.freeandnice.configs.CacheConfiguration.USERS_BY_USERNAME;
+
+/**
+ * Users are cached once, by id, as snapshots that are never handed out; the
+ * username cache only maps to the id. A username entry left behind by a rename
+ * is ignored, because it only counts when the snapshot still carries that name.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserCacheServiceImpl implements UserCacheService {
+
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        Long id = cache(USERS_BY_USERNAME).get(username, Long.class);
+        User snapshot = id == null ? null : cache(USERS_BY_ID).get(id, User.class);
+        if (snapshot != null && snapshot.getUsername().equals(username)) {
+            return Optional.of(copy(snapshot));
+        }
+        return userRepository.findByUsername(username).map(this::put);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        User snapshot = cache(USERS_BY_ID).get(id, User.class);
+        if (snapshot != null) {
+            return Optional.of(copy(snapshot));
+        }
+        return userRepository.findById(id).map(this::put);
+    }
+
+    @Override
+    public void evict(User user) {
+        evictNow(user.getId(), user.getUsername());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A request reading before the commit may have cached the old row meanwhile.
+            Long id = user.getId();
+            String username = user.getUsername();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(id, username);
+                }
+            });
+        }
+    }
+
+    private void evictNow(Long id, String username) {
+        if (id != null) {
+            cache(USERS_BY_ID).evict(id);
+        }
+        if (username != null) {
+            cache(USERS_BY_USERNAME).evict(username);
+        }
+    }
+
+    private User put(User user) {
+        cache(USERS_BY_ID).put(user.getId(), copy(user));
+        cache(USERS_BY_USERNAME).put(user.getUsername(), user.getId());
+        return user;
+    }
+
+    private Cache cache(String name) {
+        return Objects.requireNonNull(cacheManager.getCache(name), name);
+    }
+
+    private static User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .password(user.getPassword())
+                .role(user.getRole())
+                .firstName(user.getFirstName())
+                .middleName(user.getMiddleName())
+                .lastName(user.getLastName())
+                .address(user.getAddress())
+                .phoneNumber(user.getPhoneNumber())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .enabled(user.getEnabled())
+                .avatar(user.getAvatar())
+                .newsSubscribed(user.getNewsSubscribed())
+                .isConfirmed(user.getIsConfirmed())
+                .build();
+    }
+}
@@ -5,6 +5,8 @@ import com.example.freeandnice.exceptions.UserNotFoundException;
 import com.example.freeandnice.exceptions.UserUsernameAlreadyExistsException;
 import com.example.freeandnice.models.User;
 import com.example.freeandnice.repositories.UserRepository;
+import com.example.freeandnice.services.TokenRevocationService;
+import com.example.freeandnice.services.UserCacheService;
 import com.example.freeandnice.services.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -13,16 +15,21 @@ import org.springframework.stereotype.Service;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserCacheService userCacheService;
 
     @Override
     public User save(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCacheService.evict(saved);
+        return saved;
     }
 
     @Override
@@ -40,13 +47,13 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public User getByUsername(String username) {
-        return userRepository.findByUsername(username)
+        return userCacheService.findByUsername(username)
                 .orElseThrow(() -> new UserNotFoundException(username));
     }
 
     @Override
     public User getById(Long id) {
-        return userRepository.findById(id)
+        return userCacheService.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("User with id " + id + " not found"));
     }
 
@@ -57,18 +64,26 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public User update(User user) {
-        if (user.getId() == null || !userRepository.existsById(user.getId())) {
+        User current = user.getId() == null ? null : userRepository.findById(user.getId()).orElse(null);
+        if (current == null) {
             throw new UserNotFoundException("User with id " + user.getId() + " not found");
         }
-        return save(user);
+        boolean credentialsChanged = !Objects.equals(current.getUsername(), user.getUsername())
+                || !Objects.equals(current.getPassword(), user.getPassword());
+        User saved = save(user);
+        if (credentialsChanged) {
+            tokenRevocationService.revokeAll(saved.getId());
+        }
+        return saved;
     }
 
     @Override
     public void deleteById(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new UserNotFoundException("User with id " + id + " not found");
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException("User with id " + id + " not found"));
+        userRepository.delete(user);
+        userCacheService.evict(user);
+        tokenRevocationService.revokeAll(user.getId());
     }
 
     @Override
@@ -81,6 +96,8 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UserNotFoundException(email));
         userRepository.delete(user);
+        userCacheService.evict(user);
+        tokenRevocationService.revokeAll(user.getId());
     }
 
     @Override
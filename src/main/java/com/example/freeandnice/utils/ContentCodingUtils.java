@@ -0,0 +1,57 @@
+package com.example.freeandnice.utils;
+
+import java.util.Locale;
+
+/**
+ * Reads {@code Accept-Encoding} as RFC 9110 defines it: a list of codings,
+ * each with an optional quality, where {@code q=0} refuses the coding and
+ * {@code *} stands for every coding not listed.
+ */
+public final class ContentCodingUtils {
+
+    private ContentCodingUtils() {
+    }
+
+    /**
+     * Whether a response may be compressed with gzip. {@code x-gzip} counts as
+     * gzip. Without the header the response is sent as is.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return wildcardQuality != null && wildcardQuality > 0;
+    }
+
+    /** The q parameter, 1 when absent; a malformed one refuses the coding. */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && Character.toLowerCase(parameter.charAt(0)) == 'q'
+                    && parameter.charAt(1) == '=') {
+                try {
+                    double quality = Double.parseDouble(parameter.substring(2).trim());
+                    return quality >= 0 && quality <= 1 ? quality : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.freeandnice.utils;
+
+import com.example.freeandnice.exceptions.InvalidCursorException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Encodes keyset positions into opaque continuation tokens so clients do not
+ * depend on the underlying sort key. The encoding is plain Base64, not signed:
+ * a client can still forge a token, which only moves it to another position
+ * of a listing it may read anyway, so tokens must never carry anything else.
+ */
+public final class CursorUtils {
+
+    private CursorUtils() {
+    }
+
+    public static String encode(long position) {
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(position).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public static long decode(String cursor) {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            if (bytes.length != Long.BYTES) {
+                throw new InvalidCursorException(cursor);
+            }
+            return ByteBuffer.wrap(bytes).getLong();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.freeandnice.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Forward-only reader of {@code \n} or {@code \r\n} terminated lines that
+ * never buffers more than {@code maxLength} characters, unlike
+ * {@link java.io.BufferedReader#readLine()}.
+ */
+public final class LineReader {
+
+    private final Reader reader;
+    private final int maxLength;
+    private final StringBuilder buffer = new StringBuilder();
+    private long line;
+
+    public LineReader(Reader reader, int maxLength) {
+        this.reader = reader;
+        this.maxLength = maxLength;
+    }
+
+    /** Number of the line last returned by {@link #next()}, starting at 1. */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * Reads the next line without its terminator, or returns {@code null} at the end of input.
+     *
+     * @throws IllegalArgumentException if the line is longer than the limit; the rest of it is
+     *                                  skipped, so reading can go on with the following line
+     */
+    public String next() throws IOException {
+        buffer.setLength(0);
+        boolean tooLong = false;
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        line++;
+        while (c != -1 && c != '\n') {
+            if (buffer.length() < maxLength) {
+                buffer.append((char) c);
+            } else {
+                tooLong = true;
+            }
+            c = reader.read();
+        }
+        if (tooLong) {
+            throw new IllegalArgumentException("Line longer than " + maxLength + " characters");
+        }
+        int length = buffer.length();
+        if (length > 0 && buffer.charAt(length - 1) == '\r') {
+            buffer.setLength(length - 1);
+        }
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.freeandnice.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+public final class PinUtils {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private PinUtils() {
+    }
+
+    /**
+     * Returns a random six-digit pin.
+     */
+    public static int generate() {
+        return RANDOM.nextInt(900000) + 100000;
+    }
+
+    /**
+     * Compares in time independent of where the pins differ.
+     */
+    public static boolean matches(int expected, Long actual) {
+        if (actual == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                Integer.toString(expected).getBytes(StandardCharsets.US_ASCII),
+                Long.toString(actual).getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.freeandnice.utils;
+
+import com.example.freeandnice.models.JwtPrincipal;
+import com.example.freeandnice.models.User;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+public final class SecurityUtils {
+
+    private SecurityUtils() {
+    }
+
+    /** Id of the authenticated user, or null for anonymous requests. */
+    public static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return null;
+        }
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof User user) {
+            return user.getId();
+        }
+        if (principal instanceof JwtPrincipal jwtPrincipal) {
+            return jwtPrincipal.getId();
+        }
+        return null;
+    }
+
+    /** Id of the authenticated user; anonymous requests are denied. */
+    public static Long requireCurrentUserId() {
+        Long userId = currentUserId();
+        if (userId == null) {
+            throw new AccessDeniedException("Authentication required");
+        }
+        return userId;
+    }
+}
@@ -0,0 +1,23 @@
+-- Optimistic locking for product edits, so a stale edit cannot overwrite stock changed meanwhile.
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Enforced for new writes without scanning existing rows.
+ALTER TABLE products ADD CONSTRAINT chk_products_quantity_non_negative CHECK (quantity >= 0) NOT VALID;
+
+CREATE TABLE IF NOT EXISTS inventory_reservations
+(
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id   BIGINT       NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    buyer_id     BIGINT       NOT NULL,
+    quantity     INTEGER      NOT NULL CHECK (quantity > 0),
+    status       VARCHAR(16)  NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL,
+    expires_at   TIMESTAMP(6) NOT NULL,
+    completed_at TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_reservations_product_id ON inventory_reservations (product_id);
+
+-- Only open reservations are swept, so the index stays small however many completed rows remain.
+CREATE INDEX IF NOT EXISTS idx_inventory_reservations_expiry ON inventory_reservations (expires_at)
+    WHERE status = 'RESERVED';
@@ -0,0 +1,29 @@
+CREATE TABLE IF NOT EXISTS auctions
+(
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id     BIGINT       NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    seller_id      BIGINT,
+    starting_price BIGINT       NOT NULL,
+    min_increment  BIGINT       NOT NULL,
+    status         VARCHAR(16)  NOT NULL,
+    high_bid       BIGINT,
+    high_bidder_id BIGINT,
+    bid_count      INTEGER      NOT NULL DEFAULT 0,
+    created_at     TIMESTAMP(6) NOT NULL,
+    ends_at        TIMESTAMP(6) NOT NULL,
+    closed_at      TIMESTAMP(6)
+);
+
+-- At most one running auction per product.
+CREATE UNIQUE INDEX IF NOT EXISTS uq_auctions_open_product ON auctions (product_id) WHERE status = 'OPEN';
+
+-- Journal of accepted bids, written in batches behind the in-memory engine; seq is the bid's number within its auction.
+CREATE TABLE IF NOT EXISTS auction_bids
+(
+    auction_id BIGINT       NOT NULL REFERENCES auctions (id) ON DELETE CASCADE,
+    seq        INTEGER      NOT NULL,
+    bidder_id  BIGINT       NOT NULL,
+    amount     BIGINT       NOT NULL,
+    placed_at  TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (auction_id, seq)
+);
@@ -0,0 +1,34 @@
+-- One conversation per buyer and product, with the product's seller.
+CREATE TABLE IF NOT EXISTS conversations
+(
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id      BIGINT       NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    buyer_id        BIGINT       NOT NULL,
+    seller_id       BIGINT       NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    last_message_at TIMESTAMP(6),
+    CONSTRAINT uq_conversations_product_buyer UNIQUE (product_id, buyer_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_conversations_buyer_id ON conversations (buyer_id, id);
+CREATE INDEX IF NOT EXISTS idx_conversations_seller_id ON conversations (seller_id, id);
+
+-- Append-only; seq numbers the messages within their conversation, so history pages are primary key range scans.
+CREATE TABLE IF NOT EXISTS chat_messages
+(
+    conversation_id BIGINT        NOT NULL REFERENCES conversations (id) ON DELETE CASCADE,
+    seq             INTEGER       NOT NULL,
+    sender_id       BIGINT        NOT NULL,
+    body            VARCHAR(2000) NOT NULL,
+    sent_at         TIMESTAMP(6)  NOT NULL,
+    PRIMARY KEY (conversation_id, seq)
+);
+
+-- Last message each participant has read, for unread counts.
+CREATE TABLE IF NOT EXISTS conversation_reads
+(
+    conversation_id BIGINT  NOT NULL REFERENCES conversations (id) ON DELETE CASCADE,
+    user_id         BIGINT  NOT NULL,
+    last_read_seq   INTEGER NOT NULL,
+    PRIMARY KEY (conversation_id, user_id)
+);
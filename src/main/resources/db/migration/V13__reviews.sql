@@ -0,0 +1,36 @@
+-- Review counts per star, kept up to date by every review write so listings read ratings with the product row.
+-- Columns with a constant default are added without rewriting the table.
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_1 INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_2 INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_3 INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_4 INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_5 INTEGER NOT NULL DEFAULT 0;
+
+-- The same counts over all reviews of a seller's products.
+CREATE TABLE IF NOT EXISTS seller_ratings
+(
+    seller_id BIGINT  NOT NULL PRIMARY KEY REFERENCES users (id) ON DELETE CASCADE,
+    rating_1  INTEGER NOT NULL DEFAULT 0,
+    rating_2  INTEGER NOT NULL DEFAULT 0,
+    rating_3  INTEGER NOT NULL DEFAULT 0,
+    rating_4  INTEGER NOT NULL DEFAULT 0,
+    rating_5  INTEGER NOT NULL DEFAULT 0
+);
+
+-- seller_id is copied from the product when the review is written, so seller pages need no join.
+CREATE TABLE IF NOT EXISTS reviews
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id BIGINT       NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    seller_id  BIGINT,
+    author_id  BIGINT       NOT NULL,
+    rating     SMALLINT     NOT NULL CHECK (rating BETWEEN 1 AND 5),
+    comment    VARCHAR(2000),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    CONSTRAINT uq_reviews_product_author UNIQUE (product_id, author_id)
+);
+
+-- Keyset pages, newest first.
+CREATE INDEX IF NOT EXISTS idx_reviews_product_id ON reviews (product_id, id);
+CREATE INDEX IF NOT EXISTS idx_reviews_seller_id ON reviews (seller_id, id);
@@ -0,0 +1,81 @@
+-- One row per purchase attempt. A client retrying with the same key gets the same payment back.
+-- product_id and seller_id are kept without foreign keys, payments outlive the products they paid for.
+CREATE TABLE IF NOT EXISTS payment_intents
+(
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    buyer_id           BIGINT       NOT NULL,
+    idempotency_key    VARCHAR(64)  NOT NULL,
+    product_id         BIGINT       NOT NULL,
+    seller_id          BIGINT       NOT NULL,
+    quantity           INTEGER      NOT NULL CHECK (quantity > 0),
+    amount             BIGINT       NOT NULL CHECK (amount > 0),
+    status             VARCHAR(16)  NOT NULL,
+    provider           VARCHAR(32)  NOT NULL,
+    provider_reference VARCHAR(128),
+    failure_reason     VARCHAR(255),
+    created_at         TIMESTAMP(6) NOT NULL,
+    updated_at         TIMESTAMP(6),
+    CONSTRAINT uq_payment_intents_buyer_key UNIQUE (buyer_id, idempotency_key)
+);
+
+-- Only unfinished payments are swept, so the index stays small.
+CREATE INDEX IF NOT EXISTS idx_payment_intents_pending ON payment_intents (created_at) WHERE status = 'PENDING';
+
+-- owner_id is the seller for SELLER accounts and 0 for the system accounts.
+CREATE TABLE IF NOT EXISTS ledger_accounts
+(
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    type     VARCHAR(32) NOT NULL,
+    owner_id BIGINT      NOT NULL,
+    slots    SMALLINT    NOT NULL CHECK (slots > 0),
+    CONSTRAINT uq_ledger_accounts_type_owner UNIQUE (type, owner_id)
+);
+
+-- An account's balance is the sum of its slots. Balances use row locks, not optimistic
+-- versions: a posting locks the first slot no other transaction holds (FOR UPDATE SKIP LOCKED),
+-- starting from a random one, so concurrent payments to one account take different rows
+-- instead of retrying on conflicts.
+CREATE TABLE IF NOT EXISTS ledger_balances
+(
+    account_id BIGINT   NOT NULL REFERENCES ledger_accounts (id),
+    slot       SMALLINT NOT NULL,
+    balance    BIGINT   NOT NULL DEFAULT 0,
+    PRIMARY KEY (account_id, slot)
+);
+
+-- One entry per captured payment; the unique key is a second guard against posting it twice.
+CREATE TABLE IF NOT EXISTS ledger_entries
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    payment_id BIGINT       NOT NULL REFERENCES payment_intents (id),
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uq_ledger_entries_payment_id UNIQUE (payment_id)
+);
+
+-- Double-entry: the postings of an entry sum to zero. Positive amounts move money into the account.
+CREATE TABLE IF NOT EXISTS ledger_postings
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    entry_id   BIGINT NOT NULL REFERENCES ledger_entries (id),
+    account_id BIGINT NOT NULL REFERENCES ledger_accounts (id),
+    amount     BIGINT NOT NULL CHECK (amount <> 0)
+);
+
+CREATE INDEX IF NOT EXISTS idx_ledger_postings_entry_id ON ledger_postings (entry_id);
+CREATE INDEX IF NOT EXISTS idx_ledger_postings_account_id ON ledger_postings (account_id, id);
+
+-- The journal is append-only; corrections are new entries.
+CREATE OR REPLACE FUNCTION ledger_append_only() RETURNS trigger AS
+$$
+BEGIN
+    RAISE EXCEPTION '% is append-only', TG_TABLE_NAME;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_ledger_entries_append_only
+    BEFORE UPDATE OR DELETE ON ledger_entries
+    FOR EACH ROW EXECUTE FUNCTION ledger_append_only();
+
+CREATE TRIGGER trg_ledger_postings_append_only
+    BEFORE UPDATE OR DELETE ON ledger_postings
+    FOR EACH ROW EXECUTE FUNCTION ledger_append_only();
@@ -0,0 +1,66 @@
+-- Schema previously generated by hibernate ddl-auto=update.
+-- Existing databases are baselined at this version and skip it.
+
+CREATE TABLE IF NOT EXISTS users
+(
+    id                    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username              VARCHAR(255) NOT NULL,
+    email                 VARCHAR(255) NOT NULL,
+    password              VARCHAR(255) NOT NULL,
+    role                  SMALLINT     NOT NULL CHECK (role BETWEEN 0 AND 2),
+    first_name            VARCHAR(100) NOT NULL,
+    middle_name           VARCHAR(100) NOT NULL,
+    last_name             VARCHAR(100) NOT NULL,
+    address               VARCHAR(255) NOT NULL,
+    phone_number          VARCHAR(15)  NOT NULL,
+    created_at            TIMESTAMP(6) NOT NULL,
+    updated_at            TIMESTAMP(6),
+    enabled               BOOLEAN      NOT NULL,
+    avatar                VARCHAR(255),
+    is_subscribed_to_news BOOLEAN      NOT NULL,
+    is_confirmed          BOOLEAN      NOT NULL,
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS categories
+(
+    id   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_categories_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS products
+(
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    description VARCHAR(1000),
+    price       BIGINT       NOT NULL,
+    quantity    INTEGER,
+    seller_id   BIGINT REFERENCES users (id),
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6),
+    location    VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS product_images
+(
+    product_id BIGINT NOT NULL REFERENCES products (id),
+    image_path VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS products_categories
+(
+    products_id   BIGINT NOT NULL REFERENCES products (id),
+    categories_id BIGINT NOT NULL REFERENCES categories (id),
+    PRIMARY KEY (products_id, categories_id)
+);
+
+CREATE SEQUENCE IF NOT EXISTS emails_pins_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS emails_pins
+(
+    id    BIGINT PRIMARY KEY,
+    email VARCHAR(255),
+    pin   INTEGER NOT NULL
+);
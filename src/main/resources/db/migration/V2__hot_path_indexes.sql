@@ -0,0 +1,18 @@
+-- users(username) and users(email) are already covered by their unique constraints.
+
+-- AuthenticationServiceImpl pin lookups
+CREATE INDEX IF NOT EXISTS idx_emails_pins_email ON emails_pins (email);
+
+-- ProductRepository.findBySellerId
+CREATE INDEX IF NOT EXISTS idx_products_seller_id ON products (seller_id, id);
+
+-- Product filter criteria and facets
+CREATE INDEX IF NOT EXISTS idx_products_price ON products (price);
+CREATE INDEX IF NOT EXISTS idx_products_location ON products (location);
+CREATE INDEX IF NOT EXISTS idx_products_in_stock ON products (id) WHERE quantity > 0;
+
+-- The primary key serves product -> categories, this one serves category -> products
+CREATE INDEX IF NOT EXISTS idx_products_categories_category ON products_categories (categories_id, products_id);
+
+-- Batch loading of product images
+CREATE INDEX IF NOT EXISTS idx_product_images_product_id ON product_images (product_id);
@@ -0,0 +1,8 @@
+-- Full-text documents maintained by PostgresProductSearchServiceImpl
+CREATE TABLE IF NOT EXISTS product_search
+(
+    product_id BIGINT PRIMARY KEY,
+    document   TSVECTOR NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS product_search_document_idx ON product_search USING GIN (document);
@@ -0,0 +1,18 @@
+CREATE TABLE IF NOT EXISTS email_outbox
+(
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    to_address      VARCHAR(255)  NOT NULL,
+    subject         VARCHAR(255)  NOT NULL,
+    body            VARCHAR(4000) NOT NULL,
+    status          VARCHAR(16)   NOT NULL,
+    attempts        INTEGER       NOT NULL,
+    next_attempt_at TIMESTAMP(6)  NOT NULL,
+    created_at      TIMESTAMP(6)  NOT NULL,
+    sent_at         TIMESTAMP(6),
+    last_error      VARCHAR(1000),
+    version         BIGINT        NOT NULL
+);
+
+-- Only undelivered jobs are polled, so the index stays small however many sent rows remain.
+CREATE INDEX IF NOT EXISTS idx_email_outbox_due ON email_outbox (next_attempt_at)
+    WHERE status IN ('PENDING', 'SENDING');
@@ -0,0 +1,4 @@
+ALTER TABLE emails_pins ADD COLUMN IF NOT EXISTS attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE emails_pins ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP(6);
+
+CREATE INDEX IF NOT EXISTS idx_emails_pins_expires_at ON emails_pins (expires_at);
@@ -0,0 +1,7 @@
+-- Product ids come from a sequence handed out in blocks of 50 (Hibernate's pooled
+-- optimizer and the bulk importer), which lets inserts be batched.
+-- A nextval result v reserves the ids v - 49 .. v.
+ALTER TABLE products ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS products_seq INCREMENT BY 50;
+SELECT setval('products_seq', COALESCE((SELECT MAX(id) FROM products), 0) + 50, false);
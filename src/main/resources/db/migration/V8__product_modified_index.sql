@@ -0,0 +1,2 @@
+-- Incremental catalog exports select products changed since a point in time.
+CREATE INDEX IF NOT EXISTS idx_products_modified_at ON products ((COALESCE(updated_at, created_at)));
@@ -0,0 +1,13 @@
+-- Change feed: one row per product create, update or delete, in commit order.
+-- No foreign key to products, tombstones outlive the product they describe.
+CREATE SEQUENCE IF NOT EXISTS product_changes_seq;
+
+CREATE TABLE IF NOT EXISTS product_changes
+(
+    seq         BIGINT PRIMARY KEY,
+    product_id  BIGINT       NOT NULL,
+    change_type VARCHAR(16)  NOT NULL,
+    changed_at  TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_changes_changed_at ON product_changes (changed_at);
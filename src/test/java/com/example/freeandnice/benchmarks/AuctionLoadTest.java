@@ -0,0 +1,162 @@
+package com.example.freeandnice.benchmarks;
+
+import com.example.freeandnice.dto.AuctionRequestDto;
+import com.example.freeandnice.dto.AuctionResponseDto;
+import com.example.freeandnice.exceptions.AuctionBusyException;
+import com.example.freeandnice.exceptions.BidRejectedException;
+import com.example.freeandnice.services.impl.AuctionBidJournal;
+import com.example.freeandnice.services.impl.AuctionServiceImpl;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Thousands of bidders on one lot, against the engine and its journal on an
+ * embedded PostgreSQL. Each bidder thread reads the current high bid and
+ * outbids it by one to three increments until the duration ends. Most bids
+ * lose the race and are rejected as too low, as in a real bidding war. It
+ * prints bids per second and latency percentiles, then drains the journal and
+ * checks that the database holds exactly the accepted bids. Run {@code main}
+ * from the test classpath:
+ * <pre>
+ * -Dload.bidders=2000 -Dload.duration=PT30S
+ * </pre>
+ */
+public class AuctionLoadTest {
+
+    private static final int SAMPLES_PER_BIDDER = 2000;
+    private static final long SELLER = 1L;
+
+    public static void main(String[] args) throws Exception {
+        int bidders = Integer.getInteger("load.bidders", 2000);
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT30S"));
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start()) {
+            DataSource dataSource = postgres.getPostgresDatabase();
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            NamedParameterJdbcTemplate jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+            jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, first_name, middle_name, " +
+                    "last_name, address, phone_number, created_at, enabled, is_subscribed_to_news, is_confirmed) " +
+                    "VALUES (:id, 'seller', 'seller@example.com', 'x', 0, 'a', 'b', 'c', 'd', '1', now(), true, false, true)",
+                    Map.of("id", SELLER));
+            jdbcTemplate.update("INSERT INTO products (id, name, price, quantity, seller_id, created_at) " +
+                    "VALUES (1, 'hot lot', 100, 1, :sellerId, now())", Map.of("sellerId", SELLER));
+
+            AuctionBidJournal journal = new AuctionBidJournal(jdbcTemplate,
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSource)), 100_000, 1000);
+            ReflectionTestUtils.setField(journal, "retryDelay", Duration.ofSeconds(1));
+            ReflectionTestUtils.setField(journal, "offerTimeout", Duration.ofMillis(100));
+            journal.start();
+            AuctionServiceImpl engine = new AuctionServiceImpl(jdbcTemplate, journal, 0, bidders * 2);
+            ReflectionTestUtils.setField(engine, "bidTimeout", Duration.ofSeconds(2));
+            ReflectionTestUtils.setField(engine, "antiSnipingWindow", Duration.ofMinutes(2));
+            ReflectionTestUtils.setField(engine, "antiSnipingExtension", Duration.ofMinutes(2));
+            AuctionResponseDto auction = engine.createAuction(
+                    new AuctionRequestDto(1L, 100L, 1L, LocalDateTime.now().plusHours(1)), SELLER);
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            List<Bidder> workers = new ArrayList<>();
+            for (int i = 0; i < bidders; i++) {
+                Bidder bidder = new Bidder(engine, auction.getId(), i + 1L, running);
+                workers.add(bidder);
+                bidder.start();
+            }
+            long start = System.nanoTime();
+            Thread.sleep(duration.toMillis());
+            running.set(false);
+            for (Bidder bidder : workers) {
+                bidder.join();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            engine.shutdown();
+            journal.stop();
+
+            long accepted = workers.stream().mapToLong(bidder -> bidder.accepted).sum();
+            long rejected = workers.stream().mapToLong(bidder -> bidder.rejected).sum();
+            long busy = workers.stream().mapToLong(bidder -> bidder.busy).sum();
+            long[] latencies = workers.stream().flatMapToLong(bidder -> Arrays.stream(bidder.latencies()))
+                    .sorted().toArray();
+            System.out.printf("bidders=%d: %.0f bids/s (%d accepted, %d outbid, %d busy in %.1f s)%n",
+                    bidders, (accepted + rejected) / seconds, accepted, rejected, busy, seconds);
+            System.out.printf("latency p50=%d us p99=%d us p99.9=%d us max=%d us%n",
+                    percentile(latencies, 0.5), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                    latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1000);
+
+            long journaled = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM auction_bids", Map.of(), Long.class);
+            Map<String, Object> row = jdbcTemplate.queryForMap("SELECT high_bid, bid_count FROM auctions WHERE id = :id",
+                    Map.of("id", auction.getId()));
+            System.out.printf("journaled %d of %d accepted bids, high bid %s after %s bids: %s%n",
+                    journaled, accepted, row.get("high_bid"), row.get("bid_count"),
+                    journaled == accepted ? "consistent" : "LOST BIDS");
+        }
+    }
+
+    private static long percentile(long[] sortedNanos, double quantile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.floor(quantile * sortedNanos.length))] / 1000;
+    }
+
+    private static class Bidder extends Thread {
+
+        private final AuctionServiceImpl engine;
+        private final Long auctionId;
+        private final long bidderId;
+        private final AtomicBoolean running;
+        /** Reservoir sample of the latencies, so memory stays bounded however long the run. */
+        private final long[] samples = new long[SAMPLES_PER_BIDDER];
+        private long count;
+        private long accepted;
+        private long rejected;
+        private long busy;
+
+        long[] latencies() {
+            return Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+        }
+
+        Bidder(AuctionServiceImpl engine, Long auctionId, long bidderId, AtomicBoolean running) {
+            super("bidder-" + bidderId);
+            this.engine = engine;
+            this.auctionId = auctionId;
+            this.bidderId = bidderId;
+            this.running = running;
+        }
+
+        @Override
+        public void run() {
+            while (running.get()) {
+                AuctionResponseDto current = engine.getAuction(auctionId);
+                long base = current.getHighBid() == null ? current.getStartingPrice() : current.getHighBid();
+                long amount = base + ThreadLocalRandom.current().nextLong(1, 4) * current.getMinIncrement();
+                long start = System.nanoTime();
+                try {
+                    engine.bid(auctionId, bidderId, amount);
+                    accepted++;
+                } catch (BidRejectedException e) {
+                    rejected++;
+                } catch (AuctionBusyException e) {
+                    busy++;
+                }
+                long latency = System.nanoTime() - start;
+                long slot = count++ < samples.length ? count - 1 : ThreadLocalRandom.current().nextLong(count);
+                if (slot < samples.length) {
+                    samples[(int) slot] = latency;
+                }
+            }
+        }
+    }
+}
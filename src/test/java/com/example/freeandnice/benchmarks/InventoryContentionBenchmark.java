@@ -0,0 +1,101 @@
+package com.example.freeandnice.benchmarks;
+
+import com.example.freeandnice.dto.ReservationRequestDto;
+import com.example.freeandnice.exceptions.InsufficientStockException;
+import com.example.freeandnice.services.impl.InventoryServiceImpl;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Many buyers checking out the same product at once, on an embedded
+ * PostgreSQL. Each buyer loops reserve then commit, or reserve then release
+ * for every {@code bench.release-every}-th order, until the stock runs out
+ * or the duration ends. It prints checkouts per second and verifies that
+ * stock plus units sold equals the initial stock. Run {@code main} from the
+ * test classpath:
+ * <pre>
+ * -Dbench.buyers=64 -Dbench.stock=1000000 -Dbench.duration=PT30S -Dbench.release-every=4
+ * </pre>
+ */
+public class InventoryContentionBenchmark {
+
+    private static final long BUYER = 7L;
+
+    public static void main(String[] args) throws Exception {
+        int buyers = Integer.getInteger("bench.buyers", 64);
+        int stock = Integer.getInteger("bench.stock", 1_000_000);
+        Duration duration = Duration.parse(System.getProperty("bench.duration", "PT30S"));
+        int releaseEvery = Integer.getInteger("bench.release-every", 4);
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start()) {
+            DataSource dataSource = postgres.getPostgresDatabase();
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            NamedParameterJdbcTemplate jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+            jdbcTemplate.update("INSERT INTO products (id, name, price, quantity, created_at) " +
+                    "VALUES (1, 'hot product', 100, :stock, now())", Map.of("stock", stock));
+
+            InventoryServiceImpl inventoryService = new InventoryServiceImpl(jdbcTemplate,
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+            ReflectionTestUtils.setField(inventoryService, "ttl", Duration.ofMinutes(15));
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            ExecutorService executor = Executors.newFixedThreadPool(buyers);
+            List<Future<long[]>> results = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < buyers; i++) {
+                results.add(executor.submit(() -> {
+                    long sold = 0;
+                    long released = 0;
+                    long orders = 0;
+                    while (running.get()) {
+                        try {
+                            Long id = inventoryService.reserve(new ReservationRequestDto(1L, 1), BUYER).getId();
+                            if (++orders % releaseEvery == 0) {
+                                inventoryService.release(id, BUYER);
+                                released++;
+                            } else {
+                                inventoryService.commit(id, BUYER);
+                                sold++;
+                            }
+                        } catch (InsufficientStockException e) {
+                            break;
+                        }
+                    }
+                    return new long[]{sold, released};
+                }));
+            }
+            Thread.sleep(duration.toMillis());
+            running.set(false);
+
+            long sold = 0;
+            long released = 0;
+            for (Future<long[]> result : results) {
+                long[] counts = result.get();
+                sold += counts[0];
+                released += counts[1];
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            executor.shutdown();
+
+            int remaining = jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE id = 1", Map.of(), Integer.class);
+            System.out.printf("buyers=%d: %.0f checkouts/s, %.0f reservations/s (%d sold, %d released in %.1f s)%n",
+                    buyers, sold / seconds, (sold + released) / seconds, sold, released, seconds);
+            System.out.printf("stock %d + sold %d = %d, initial %d: %s%n",
+                    remaining, sold, remaining + sold, stock, remaining + sold == stock ? "consistent" : "OVERSOLD");
+        }
+    }
+}
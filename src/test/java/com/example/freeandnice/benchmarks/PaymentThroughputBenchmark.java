@@ -0,0 +1,101 @@
+package com.example.freeandnice.benchmarks;
+
+import com.example.freeandnice.dto.PaymentRequestDto;
+import com.example.freeandnice.exceptions.PaymentBusyException;
+import com.example.freeandnice.services.impl.FakePaymentProviderImpl;
+import com.example.freeandnice.services.impl.PaymentServiceImpl;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Many buyers paying the same seller at once, on an embedded PostgreSQL with
+ * the fake provider, so every payment hits the seller's and both system
+ * accounts. Compare {@code bench.slots=1} (one balance row per account) with
+ * more slots. It prints payments per second, how many were rejected as busy,
+ * and verifies the seller's balance against the captured payments. Run
+ * {@code main} from the test classpath:
+ * <pre>
+ * -Dbench.buyers=64 -Dbench.slots=32 -Dbench.duration=PT30S
+ * </pre>
+ */
+public class PaymentThroughputBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int buyers = Integer.getInteger("bench.buyers", 64);
+        int slots = Integer.getInteger("bench.slots", 32);
+        Duration duration = Duration.parse(System.getProperty("bench.duration", "PT30S"));
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start()) {
+            DataSource dataSource = postgres.getPostgresDatabase();
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            NamedParameterJdbcTemplate jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+            jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, first_name, middle_name, " +
+                    "last_name, address, phone_number, created_at, enabled, is_subscribed_to_news, is_confirmed) " +
+                    "VALUES (1, 'seller', 'seller@example.com', 'x', 0, 'a', 'b', 'c', 'd', '1', now(), true, false, true)",
+                    Map.of());
+            jdbcTemplate.update("INSERT INTO products (id, name, price, quantity, seller_id, created_at) " +
+                    "VALUES (1, 'popular product', 1000, 1, 1, now())", Map.of());
+
+            PaymentServiceImpl paymentService = new PaymentServiceImpl(jdbcTemplate,
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                    new FakePaymentProviderImpl(Long.MAX_VALUE));
+            ReflectionTestUtils.setField(paymentService, "platformFeeBps", 500L);
+            ReflectionTestUtils.setField(paymentService, "balanceSlots", slots);
+            ReflectionTestUtils.setField(paymentService, "maxPostingAttempts", 5);
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            ExecutorService executor = Executors.newFixedThreadPool(buyers);
+            List<Future<long[]>> results = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < buyers; i++) {
+                long buyerId = 1000L + i;
+                results.add(executor.submit(() -> {
+                    long paid = 0;
+                    long busy = 0;
+                    while (running.get()) {
+                        try {
+                            paymentService.pay(buyerId, "order-" + paid, new PaymentRequestDto(1L, 1));
+                            paid++;
+                        } catch (PaymentBusyException e) {
+                            // Retried with the same key on the next loop.
+                            busy++;
+                        }
+                    }
+                    return new long[]{paid, busy};
+                }));
+            }
+            Thread.sleep(duration.toMillis());
+            running.set(false);
+
+            long paid = 0;
+            long busy = 0;
+            for (Future<long[]> result : results) {
+                long[] counts = result.get();
+                paid += counts[0];
+                busy += counts[1];
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            executor.shutdown();
+
+            long balance = paymentService.getSellerBalance(1L).getBalance();
+            System.out.printf("buyers=%d slots=%d: %.0f payments/s (%d paid, %d busy retries in %.1f s)%n",
+                    buyers, slots, paid / seconds, paid, busy, seconds);
+            System.out.printf("seller balance %d, expected %d: %s%n",
+                    balance, paid * 950, balance == paid * 950 ? "consistent" : "MISMATCH");
+        }
+    }
+}
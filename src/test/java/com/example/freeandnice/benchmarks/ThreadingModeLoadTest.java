@@ -0,0 +1,128 @@
+package com.example.freeandnice.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop HTTP load against a running instance, used to compare the
+ * platform-thread and virtual-thread execution modes on the same hardware.
+ * It measures {@code GET /api/products} and {@code POST /auth/sign-in}
+ * separately. Start the app once without and once with the
+ * {@code virtual-threads} profile, then run {@code main} against each with
+ * identical settings:
+ * <pre>
+ * -Dload.base-url=http://localhost:8083 -Dload.concurrency=200 -Dload.duration=PT60S
+ * -Dload.email=jondoe@gmail.com -Dload.password=my_1secret1_password
+ * </pre>
+ * The sign-in account must exist and be confirmed. With more concurrent
+ * sign-ins than the hashing queue holds, some are expected to be answered 429.
+ */
+public class ThreadingModeLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("load.base-url", "http://localhost:8083");
+        int concurrency = Integer.getInteger("load.concurrency", 200);
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT60S"));
+        String email = System.getProperty("load.email", "jondoe@gmail.com");
+        String password = System.getProperty("load.password", "my_1secret1_password");
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        HttpRequest products = HttpRequest.newBuilder(URI.create(baseUrl + "/api/products?size=20"))
+                .GET()
+                .build();
+        HttpRequest signIn = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/sign-in"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                .build();
+
+        run("GET /api/products", client, products, concurrency, duration);
+        run("POST /auth/sign-in", client, signIn, concurrency, duration);
+    }
+
+    private static void run(String name, HttpClient client, HttpRequest request,
+                            int concurrency, Duration duration) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Result>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(workers.submit(() -> drive(client, request, deadline)));
+        }
+
+        Result total = new Result();
+        for (Future<Result> future : futures) {
+            total.merge(future.get());
+        }
+        workers.shutdown();
+
+        long[] latencies = Arrays.copyOf(total.latencies, total.count);
+        Arrays.sort(latencies);
+        double seconds = duration.toMillis() / 1000.0;
+        System.out.printf("%-20s %8.1f req/s  ok=%d  429=%d  errors=%d  p50=%.1fms  p99=%.1fms  max=%.1fms%n",
+                name, total.count / seconds, total.ok, total.rejected, total.errors,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0));
+    }
+
+    private static Result drive(HttpClient client, HttpRequest request, long deadline) {
+        Result result = new Result();
+        while (System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception e) {
+                status = -1;
+            }
+            result.record(System.nanoTime() - start, status);
+        }
+        return result;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private static final class Result {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int ok;
+        private int rejected;
+        private int errors;
+
+        void record(long latencyNanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (status == 200) ok++;
+            else if (status == 429) rejected++;
+            else errors++;
+        }
+
+        void merge(Result other) {
+            for (int i = 0; i < other.count; i++) {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, Math.max(count * 2, count + other.count));
+                }
+                latencies[count++] = other.latencies[i];
+            }
+            ok += other.ok;
+            rejected += other.rejected;
+            errors += other.errors;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.freeandnice.controllers;
+
+import com.example.freeandnice.dto.CategoryRequestDto;
+import com.example.freeandnice.exceptions.GlobalExceptionHandler;
+import com.example.freeandnice.models.Category;
+import com.example.freeandnice.models.Product;
+import com.example.freeandnice.repositories.CategoryRepository;
+import com.example.freeandnice.repositories.ProductRepository;
+import com.example.freeandnice.services.CategoryCatalogService;
+import com.example.freeandnice.services.CategoryService;
+import com.example.freeandnice.services.ProductSearchService;
+import com.example.freeandnice.services.impl.CategoryCatalogServiceImpl;
+import com.example.freeandnice.services.impl.CategoryServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the controller over the real service and an H2 schema, outside a test
+ * transaction, so category writes commit and republish the catalog as they
+ * do in the application.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import({CategoryServiceImpl.class, CategoryCatalogServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CategoryControllerTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryCatalogService categoryCatalogService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @MockBean
+    private ProductSearchService productSearchService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        categoryCatalogService.refresh();
+        mockMvc = MockMvcBuilders.standaloneSetup(new CategoryController(categoryService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void createdCategoryIsListedRightAway() throws Exception {
+        mockMvc.perform(post("/api/categories").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"phones\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("phones"))
+                .andExpect(jsonPath("$.parentId").doesNotExist())
+                .andExpect(jsonPath("$.productCount").doesNotExist());
+
+        mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", containsInAnyOrder("phones")));
+    }
+
+    @Test
+    void listAnswersNotModifiedUntilTheCategoriesChange() throws Exception {
+        Category phones = category("phones", null);
+        categoryCatalogService.refresh();
+        String etag = mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(jsonPath("$[0].productCount").doesNotExist())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).isNotBlank();
+
+        mockMvc.perform(get("/api/categories").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/api/categories/{id}", phones.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"smartphones\"}"))
+                .andExpect(status().isOk());
+        verify(productSearchService).reindexCategory(phones.getId());
+
+        mockMvc.perform(get("/api/categories").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("smartphones"));
+    }
+
+    @Test
+    void productCountsCoverEveryCategory() throws Exception {
+        Category phones = category("phones", null);
+        Category used = category("used", phones.getId());
+        Category tablets = category("tablets", null);
+        product("old phone", Set.of(phones, used));
+        product("new phone", Set.of(phones));
+        categoryCatalogService.refresh();
+
+        mockMvc.perform(get("/api/categories").param("withProductCount", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[?(@.name == 'phones')].productCount").value(2))
+                .andExpect(jsonPath("$[?(@.name == 'used')].productCount").value(1))
+                .andExpect(jsonPath("$[?(@.name == 'used')].parentId").value(phones.getId().intValue()))
+                .andExpect(jsonPath("$[?(@.name == 'tablets')].productCount").value(0));
+
+        mockMvc.perform(get("/api/categories/{id}", phones.getId()).param("withProductCount", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("phones"))
+                .andExpect(jsonPath("$.productCount").value(2));
+        mockMvc.perform(get("/api/categories/{id}", tablets.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productCount").doesNotExist());
+    }
+
+    @Test
+    void unknownCategoryIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/categories/{id}", 404))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/api/categories/{id}", 404).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"phones\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void unknownParentIsRejected() throws Exception {
+        mockMvc.perform(post("/api/categories").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"phones\",\"parentId\":404}"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(categoryRepository.count()).isZero();
+    }
+
+    @Test
+    void failedUpdateIsRolledBackAndNeverPublished() {
+        Category phones = category("phones", null);
+        categoryCatalogService.refresh();
+        String etag = categoryCatalogService.getSnapshot().getEtag();
+        doThrow(new IllegalStateException("index unavailable")).when(productSearchService).reindexCategory(any());
+
+        CategoryRequestDto request = new CategoryRequestDto();
+        request.setName("smartphones");
+        assertThatThrownBy(() -> categoryService.updateCategory(phones.getId(), request))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(categoryRepository.findById(phones.getId())).get().extracting(Category::getName).isEqualTo("phones");
+        assertThat(categoryCatalogService.getSnapshot().getEtag()).isEqualTo(etag);
+    }
+
+    private Category category(String name, Long parentId) {
+        Category category = new Category();
+        category.setName(name);
+        category.setParentId(parentId);
+        return categoryRepository.save(category);
+    }
+
+    private void product(String name, Set<Category> categories) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(100L);
+        product.setQuantity(1);
+        product.setCategories(categories);
+        productRepository.save(product);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.freeandnice.controllers;
+
+import com.example.freeandnice.exceptions.GlobalExceptionHandler;
+import com.example.freeandnice.services.ProductChangeStreamService;
+import com.example.freeandnice.services.ProductExportService;
+import com.example.freeandnice.services.ProductImportService;
+import com.example.freeandnice.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Negotiates the export's content coding through the controller, with the
+ * export itself mocked.
+ */
+class ProductControllerExportTest {
+
+    private static final String ROW = "{\"id\":1}\n";
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ProductExportService productExportService = mock(ProductExportService.class);
+        doAnswer(invocation -> {
+            invocation.getArgument(2, OutputStream.class).write(ROW.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(productExportService).export(any(), any(), any());
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(mock(ProductService.class),
+                        productExportService, mock(ProductImportService.class), mock(ProductChangeStreamService.class)))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void acceptedGzipCompressesTheExport() throws Exception {
+        for (String acceptEncoding : new String[]{"gzip", "br;q=1.0, GZIP;q=0.5", "x-gzip", "*", "identity;q=0.5, *;q=0.1"}) {
+            MockHttpServletResponse response = export(acceptEncoding);
+
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).as(acceptEncoding).isEqualTo("gzip");
+            assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+                assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(ROW);
+            }
+        }
+    }
+
+    @Test
+    void refusedOrUnmentionedGzipSendsTheExportAsIs() throws Exception {
+        for (String acceptEncoding : new String[]{null, "", "identity", "br, deflate", "gzip;q=0", "gzip; q=0.000",
+                "x-gzip;q=0, *", "*;q=0", "gzip;q=bad", "gzipped"}) {
+            MockHttpServletResponse response = export(acceptEncoding);
+
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).as(acceptEncoding).isNull();
+            assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+            assertThat(response.getContentAsString()).isEqualTo(ROW);
+        }
+    }
+
+    private MockHttpServletResponse export(String acceptEncoding) throws Exception {
+        var exportRequest = get("/api/products/export");
+        if (acceptEncoding != null) {
+            exportRequest.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        MvcResult result = mockMvc.perform(exportRequest).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(result)).andReturn().getResponse();
+    }
+}
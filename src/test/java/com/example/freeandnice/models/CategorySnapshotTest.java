@@ -0,0 +1,50 @@
+package com.example.freeandnice.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategorySnapshotTest {
+
+    private static Category category(long id, String name, Long parentId) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        category.setParentId(parentId);
+        return category;
+    }
+
+    @Test
+    void subtreeContainsAllDescendants() {
+        CategorySnapshot snapshot = CategorySnapshot.of(List.of(
+                category(1, "electronics", null),
+                category(2, "phones", 1L),
+                category(3, "smartphones", 2L),
+                category(4, "laptops", 1L),
+                category(5, "books", null)));
+
+        assertThat(snapshot.getSubtreeIds(1L)).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+        assertThat(snapshot.getSubtreeIds(2L)).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(snapshot.getSubtreeIds(5L)).containsExactly(5L);
+        assertThat(snapshot.getSubtreeIds(List.of(2L, 5L))).containsExactlyInAnyOrder(2L, 3L, 5L);
+        assertThat(snapshot.getSubtreeIds(42L)).isEmpty();
+    }
+
+    @Test
+    void etagChangesWhenCategoryMoves() {
+        CategorySnapshot before = CategorySnapshot.of(List.of(category(1, "a", null), category(2, "b", null)));
+        CategorySnapshot after = CategorySnapshot.of(List.of(category(1, "a", null), category(2, "b", 1L)));
+
+        assertThat(before.getEtag()).isEqualTo(CategorySnapshot.of(List.of(category(2, "b", null), category(1, "a", null))).getEtag());
+        assertThat(after.getEtag()).isNotEqualTo(before.getEtag());
+    }
+
+    @Test
+    void cycleInTableDoesNotLoop() {
+        CategorySnapshot snapshot = CategorySnapshot.of(List.of(category(1, "a", 2L), category(2, "b", 1L)));
+
+        assertThat(snapshot.getSubtreeIds(1L)).containsExactlyInAnyOrder(1L, 2L);
+    }
+}
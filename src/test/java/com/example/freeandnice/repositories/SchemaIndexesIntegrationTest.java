@@ -0,0 +1,79 @@
+package com.example.freeandnice.repositories;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Applies the Flyway migrations to an embedded PostgreSQL server and checks
+ * that the hot lookups are planned as index scans.
+ */
+class SchemaIndexesIntegrationTest {
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+
+    @BeforeAll
+    static void migrate() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).load().migrate();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void usersAreLookedUpByUniqueIndexes() throws SQLException {
+        assertThat(plan("SELECT * FROM users WHERE username = 'jondoe'")).contains("uk_users_username");
+        assertThat(plan("SELECT * FROM users WHERE email = 'jondoe@gmail.com'")).contains("uk_users_email");
+    }
+
+    @Test
+    void emailPinsAreLookedUpByEmail() throws SQLException {
+        assertThat(plan("SELECT * FROM emails_pins WHERE email = 'jondoe@gmail.com'")).contains("idx_emails_pins_email");
+    }
+
+    @Test
+    void productsAreLookedUpBySellerAndPrice() throws SQLException {
+        assertThat(plan("SELECT * FROM products WHERE seller_id = 1")).contains("idx_products_seller_id");
+        assertThat(plan("SELECT * FROM products WHERE price >= 100 AND price <= 500")).contains("idx_products_price");
+    }
+
+    @Test
+    void joinTablesAreIndexedFromBothSides() throws SQLException {
+        assertThat(plan("SELECT products_id FROM products_categories WHERE categories_id = 1"))
+                .contains("idx_products_categories_category");
+        assertThat(plan("SELECT categories_id FROM products_categories WHERE products_id = 1"))
+                .contains("products_categories_pkey");
+        assertThat(plan("SELECT image_path FROM product_images WHERE product_id IN (1, 2, 3)"))
+                .contains("idx_product_images_product_id");
+    }
+
+    private static String plan(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            // The tables are empty, so sequential scans would always look cheapest.
+            statement.execute("SET enable_seqscan = off");
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.AuctionRequestDto;
+import com.example.freeandnice.dto.AuctionResponseDto;
+import com.example.freeandnice.exceptions.AuctionBusyException;
+import com.example.freeandnice.exceptions.BidRejectedException;
+import com.example.freeandnice.models.EAuctionStatus;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives the engine directly, with the journal writing to the Flyway schema
+ * on an embedded PostgreSQL.
+ */
+class AuctionServiceImplTest {
+
+    private static final long SELLER = 3L;
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private AuctionBidJournal journal;
+    private AuctionServiceImpl auctionService;
+
+    @BeforeAll
+    static void migrate() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).load().migrate();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        jdbcTemplate.update("TRUNCATE auction_bids, auctions, products, users CASCADE", Map.of());
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, first_name, middle_name, " +
+                "last_name, address, phone_number, created_at, enabled, is_subscribed_to_news, is_confirmed) " +
+                "VALUES (:id, 'seller', 'seller@example.com', 'x', 0, 'a', 'b', 'c', 'd', '1', now(), true, false, true)",
+                Map.of("id", SELLER));
+        jdbcTemplate.update("INSERT INTO products (id, name, price, quantity, seller_id, created_at) " +
+                "VALUES (1, 'painting', 100, 1, :sellerId, now())", Map.of("sellerId", SELLER));
+        jdbcTemplate.update("INSERT INTO products (id, name, price, quantity, created_at) " +
+                "VALUES (2, 'no seller', 100, 1, now())", Map.of());
+
+        journal = new AuctionBidJournal(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), 1000, 100);
+        ReflectionTestUtils.setField(journal, "retryDelay", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(journal, "offerTimeout", Duration.ofMillis(100));
+        journal.start();
+
+        auctionService = new AuctionServiceImpl(jdbcTemplate, journal, 2, 100);
+        ReflectionTestUtils.setField(auctionService, "bidTimeout", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(auctionService, "antiSnipingWindow", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(auctionService, "antiSnipingExtension", Duration.ofMinutes(2));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        auctionService.shutdown();
+        journal.stop();
+    }
+
+    @Test
+    void bidsMustBeatTheHighBidByTheIncrement() {
+        Long auctionId = start(LocalDateTime.now().plusHours(1));
+
+        auctionService.bid(auctionId, 7L, 100);
+        assertThatThrownBy(() -> auctionService.bid(auctionId, 8L, 105))
+                .isInstanceOf(BidRejectedException.class);
+        AuctionResponseDto auction = auctionService.bid(auctionId, 8L, 110);
+
+        assertThat(auction.getHighBid()).isEqualTo(110);
+        assertThat(auction.getHighBidderId()).isEqualTo(8L);
+        assertThat(auction.getBidCount()).isEqualTo(2);
+    }
+
+    @Test
+    void lateBidExtendsTheAuction() {
+        LocalDateTime endsAt = LocalDateTime.now().plusSeconds(30);
+        Long auctionId = start(endsAt);
+
+        AuctionResponseDto auction = auctionService.bid(auctionId, 7L, 100);
+
+        assertThat(auction.getEndsAt()).isAfter(endsAt.plusSeconds(60));
+    }
+
+    @Test
+    void acceptedBidsAndTheCloseAreJournaled() throws InterruptedException {
+        Long auctionId = start(LocalDateTime.now().plusSeconds(1));
+        ReflectionTestUtils.setField(auctionService, "antiSnipingWindow", Duration.ZERO);
+        for (int i = 0; i < 50; i++) {
+            auctionService.bid(auctionId, 7L + i % 2, 100 + i * 10L);
+        }
+
+        Thread.sleep(1100);
+        auctionService.closeEnded();
+        assertThatThrownBy(() -> auctionService.bid(auctionId, 9L, 10_000))
+                .isInstanceOf(BidRejectedException.class);
+        auctionService.shutdown();
+        journal.stop();
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT status, high_bid, bid_count FROM auctions WHERE id = :id", Map.of("id", auctionId));
+        assertThat(row).containsEntry("status", EAuctionStatus.CLOSED.name())
+                .containsEntry("high_bid", 590L)
+                .containsEntry("bid_count", 50);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM auction_bids WHERE auction_id = :id",
+                Map.of("id", auctionId), Long.class)).isEqualTo(50);
+    }
+
+    @Test
+    void bidIsRejectedAndNotAppliedWhenTheJournalIsFull() throws InterruptedException {
+        auctionService.shutdown();
+        journal.stop();
+        // Never started, so nothing drains it: one bid fills it, as a database outage would.
+        journal = new AuctionBidJournal(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), 1, 100);
+        ReflectionTestUtils.setField(journal, "offerTimeout", Duration.ofMillis(100));
+        auctionService = new AuctionServiceImpl(jdbcTemplate, journal, 2, 100);
+        ReflectionTestUtils.setField(auctionService, "bidTimeout", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(auctionService, "antiSnipingWindow", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(auctionService, "antiSnipingExtension", Duration.ofMinutes(2));
+        Long auctionId = start(LocalDateTime.now().plusHours(1));
+        auctionService.bid(auctionId, 7L, 100);
+
+        assertThatThrownBy(() -> auctionService.bid(auctionId, 8L, 200))
+                .isInstanceOf(AuctionBusyException.class);
+
+        AuctionResponseDto auction = auctionService.getAuction(auctionId);
+        assertThat(auction.getHighBid()).isEqualTo(100);
+        assertThat(auction.getHighBidderId()).isEqualTo(7L);
+        assertThat(auction.getBidCount()).isEqualTo(1);
+        journal.start();
+    }
+
+    @Test
+    void onlyTheSellerCanAuctionAProduct() {
+        LocalDateTime endsAt = LocalDateTime.now().plusHours(1);
+
+        assertThatThrownBy(() -> auctionService.createAuction(new AuctionRequestDto(1L, 100L, 10L, endsAt)))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> auctionService.createAuction(new AuctionRequestDto(1L, 100L, 10L, endsAt), 4L))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> auctionService.createAuction(new AuctionRequestDto(2L, 100L, 10L, endsAt), SELLER))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM auctions", Map.of(), Long.class)).isZero();
+    }
+
+    private Long start(LocalDateTime endsAt) {
+        return auctionService.createAuction(new AuctionRequestDto(1L, 100L, 10L, endsAt), SELLER).getId();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.configs.BoundedPasswordEncoder;
+import com.example.freeandnice.controllers.AuthController;
+import com.example.freeandnice.dto.SignInRequest;
+import com.example.freeandnice.exceptions.GlobalExceptionHandler;
+import com.example.freeandnice.models.ERole;
+import com.example.freeandnice.models.User;
+import com.example.freeandnice.repositories.UserRepository;
+import com.example.freeandnice.services.EmailOutboxService;
+import com.example.freeandnice.services.EmailPinStore;
+import com.example.freeandnice.services.JwtService;
+import com.example.freeandnice.services.TokenRevocationService;
+import com.example.freeandnice.services.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sign-in with the bounded BCrypt encoder, the user store mocked out.
+ */
+class AuthenticationServiceImplTest {
+
+    private static final String EMAIL = "alice@example.com";
+    private static final String PASSWORD = "my_1secret1_password";
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ThreadPoolTaskExecutor hashingExecutor;
+    private UserRepository userRepository;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        hashingExecutor = new ThreadPoolTaskExecutor();
+        hashingExecutor.setCorePoolSize(1);
+        hashingExecutor.setMaxPoolSize(1);
+        // Without a queue a busy hashing thread rejects further hashing; tests that sign in add one.
+        hashingExecutor.setQueueCapacity(0);
+        userRepository = mock(UserRepository.class);
+        userService = mock(UserService.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    void signInRehashesPasswordsHashedAtAnOlderCost() {
+        hashingExecutor.setQueueCapacity(2);
+        hashingExecutor.initialize();
+        User user = user(new BCryptPasswordEncoder(4).encode(PASSWORD));
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+
+        assertThat(authenticationService(new BCryptPasswordEncoder(6)).signIn(signIn()).getToken()).isEqualTo("jwt");
+
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        verify(userService).save(saved.capture());
+        assertThat(saved.getValue().getPassword()).startsWith("$2a$06$");
+        assertThat(new BCryptPasswordEncoder(6).matches(PASSWORD, saved.getValue().getPassword())).isTrue();
+    }
+
+    @Test
+    void signInKeepsPasswordsHashedAtTheCurrentCost() {
+        hashingExecutor.setQueueCapacity(2);
+        hashingExecutor.initialize();
+        User user = user(new BCryptPasswordEncoder(6).encode(PASSWORD));
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+
+        authenticationService(new BCryptPasswordEncoder(6)).signIn(signIn());
+
+        verify(userService, never()).save(any());
+    }
+
+    @Test
+    void signInAnswersTooManyRequestsWhenHashingIsSaturated() throws Exception {
+        hashingExecutor.initialize();
+        when(userRepository.findByEmail(EMAIL))
+                .thenReturn(Optional.of(user(new BCryptPasswordEncoder(4).encode(PASSWORD))));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AuthController(authenticationService(
+                        new BCryptPasswordEncoder(4))))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        CountDownLatch hashing = new CountDownLatch(1);
+        hashingExecutor.execute(() -> {
+            hashing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(hashing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        mockMvc.perform(post("/auth/sign-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        verify(userService, never()).save(any());
+    }
+
+    private AuthenticationServiceImpl authenticationService(PasswordEncoder bcrypt) {
+        JwtService jwtService = mock(JwtService.class);
+        when(jwtService.generateToken(any())).thenReturn("jwt");
+        when(userService.userDetailsService()).thenReturn(username -> userRepository.findByEmail(username).orElseThrow());
+        return new AuthenticationServiceImpl(userService, jwtService,
+                new BoundedPasswordEncoder(bcrypt, hashingExecutor, Duration.ofSeconds(5)),
+                mock(EmailOutboxService.class), mock(EmailPinStore.class), userRepository,
+                mock(TokenRevocationService.class));
+    }
+
+    private static SignInRequest signIn() {
+        SignInRequest request = new SignInRequest();
+        request.setEmail(EMAIL);
+        request.setPassword(PASSWORD);
+        return request;
+    }
+
+    private static User user(String password) {
+        return User.builder()
+                .id(1L)
+                .username(EMAIL)
+                .email(EMAIL)
+                .password(password)
+                .role(ERole.ROLE_USER)
+                .firstName("a")
+                .middleName("b")
+                .lastName("c")
+                .address("d")
+                .phoneNumber("1")
+                .createdAt(LocalDateTime.now())
+                .enabled(true)
+                .newsSubscribed(false)
+                .isConfirmed(true)
+                .build();
+    }
+}
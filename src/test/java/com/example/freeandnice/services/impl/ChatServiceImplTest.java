@@ -0,0 +1,163 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.ChatMessageDto;
+import com.example.freeandnice.dto.ChatMessagePageResponseDto;
+import com.example.freeandnice.dto.ChatMessageRequestDto;
+import com.example.freeandnice.dto.ConversationRequestDto;
+import com.example.freeandnice.dto.ConversationResponseDto;
+import com.example.freeandnice.exceptions.InvalidConversationException;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs the chat service against the Flyway schema on an embedded PostgreSQL,
+ * with the broker mocked out.
+ */
+class ChatServiceImplTest {
+
+    private static final long BUYER = 1L;
+    private static final long SELLER = 2L;
+    private static final long STRANGER = 3L;
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private SimpMessagingTemplate messagingTemplate;
+    private ChatMessageJournal journal;
+    private ChatServiceImpl chatService;
+
+    @BeforeAll
+    static void migrate() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).load().migrate();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        jdbcTemplate.update("TRUNCATE chat_messages, conversation_reads, conversations, products, users CASCADE", Map.of());
+        for (long id = BUYER; id <= STRANGER; id++) {
+            jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, first_name, middle_name, " +
+                    "last_name, address, phone_number, created_at, enabled, is_subscribed_to_news, is_confirmed) " +
+                    "VALUES (:id, :name, :email, 'x', 0, 'a', 'b', 'c', 'd', '1', now(), true, false, true)",
+                    Map.of("id", id, "name", "user" + id, "email", "user" + id + "@example.com"));
+        }
+        jdbcTemplate.update("INSERT INTO products (id, name, price, quantity, seller_id, created_at) " +
+                "VALUES (1, 'bike', 100, 1, :sellerId, now())", Map.of("sellerId", SELLER));
+
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        startService();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        journal.stop();
+    }
+
+    @Test
+    void messagesAreNumberedAndCountedUnreadForTheOtherParticipant() {
+        Long conversationId = chatService.startConversation(BUYER, new ConversationRequestDto(1L)).getId();
+
+        for (int i = 1; i <= 3; i++) {
+            ChatMessageDto message = chatService.sendMessage(conversationId, BUYER, new ChatMessageRequestDto("hi " + i));
+            assertThat(message.getSeq()).isEqualTo(i);
+        }
+
+        ConversationResponseDto forSeller = chatService.getConversations(SELLER, null, null).getConversations().get(0);
+        assertThat(forSeller.getLastSeq()).isEqualTo(3);
+        assertThat(forSeller.getUnreadCount()).isEqualTo(3);
+        assertThat(chatService.getConversations(BUYER, null, null).getConversations().get(0).getUnreadCount()).isZero();
+        verify(messagingTemplate, times(3)).convertAndSendToUser(eq(String.valueOf(SELLER)),
+                eq(ChatServiceImpl.MESSAGES_DESTINATION), any(ChatMessageDto.class));
+
+        assertThat(chatService.markRead(conversationId, SELLER, 2).getUnreadCount()).isEqualTo(1);
+        // Markers only move forward.
+        assertThat(chatService.markRead(conversationId, SELLER, 1).getUnreadCount()).isEqualTo(1);
+    }
+
+    @Test
+    void startingTheSameConversationTwiceReturnsTheExistingOne() {
+        Long first = chatService.startConversation(BUYER, new ConversationRequestDto(1L)).getId();
+        Long second = chatService.startConversation(BUYER, new ConversationRequestDto(1L)).getId();
+
+        assertThat(second).isEqualTo(first);
+        assertThatThrownBy(() -> chatService.startConversation(SELLER, new ConversationRequestDto(1L)))
+                .isInstanceOf(InvalidConversationException.class);
+    }
+
+    @Test
+    void onlyParticipantsCanReadOrWrite() {
+        Long conversationId = chatService.startConversation(BUYER, new ConversationRequestDto(1L)).getId();
+
+        assertThatThrownBy(() -> chatService.sendMessage(conversationId, STRANGER, new ChatMessageRequestDto("hi")))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> chatService.getMessages(conversationId, STRANGER, null, null))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void historyPagesAcrossWrittenAndQueuedMessages() throws InterruptedException {
+        Long conversationId = chatService.startConversation(BUYER, new ConversationRequestDto(1L)).getId();
+        for (int i = 1; i <= 5; i++) {
+            chatService.sendMessage(conversationId, i % 2 == 0 ? SELLER : BUYER, new ChatMessageRequestDto("m" + i));
+        }
+
+        ChatMessagePageResponseDto firstPage = chatService.getMessages(conversationId, BUYER, null, 3);
+        assertThat(firstPage.getMessages()).extracting(ChatMessageDto::getSeq).containsExactly(5, 4, 3);
+        ChatMessagePageResponseDto secondPage = chatService.getMessages(conversationId, BUYER, firstPage.getNextCursor(), 3);
+        assertThat(secondPage.getMessages()).extracting(ChatMessageDto::getSeq).containsExactly(2, 1);
+        assertThat(secondPage.getNextCursor()).isNull();
+
+        // A restart reloads the seq and read markers from what the journal wrote.
+        journal.stop();
+        startService();
+        assertThat(jdbcTemplate.queryForList("SELECT seq FROM chat_messages ORDER BY seq", Map.of(), Integer.class))
+                .containsExactly(1, 2, 3, 4, 5);
+        assertThat(chatService.sendMessage(conversationId, BUYER, new ChatMessageRequestDto("m6")).getSeq()).isEqualTo(6);
+        ConversationResponseDto forSeller = chatService.getConversations(SELLER, null, null).getConversations().get(0);
+        assertThat(forSeller.getUnreadCount()).isEqualTo(2);
+    }
+
+    private void startService() {
+        journal = new ChatMessageJournal(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), 1000, 100);
+        ReflectionTestUtils.setField(journal, "retryDelay", Duration.ofMillis(100));
+        journal.start();
+
+        chatService = new ChatServiceImpl(jdbcTemplate, journal, messagingTemplate);
+        ReflectionTestUtils.setField(chatService, "defaultPageSize", 50);
+        ReflectionTestUtils.setField(chatService, "maxPageSize", 200);
+        ReflectionTestUtils.setField(chatService, "idleEviction", Duration.ofHours(1));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.models.EEmailJobStatus;
+import com.example.freeandnice.models.EmailJob;
+import com.example.freeandnice.repositories.EmailJobRepository;
+import com.example.freeandnice.services.EmailOutboxService;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.mail.MailSenderAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Delivers the outbox to an in-memory SMTP server.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.username=",
+        "spring.mail.password=",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "email.outbox.chunk-size=2",
+        // dispatch() is driven by the test, not by the scheduler
+        "email.outbox.poll-interval-ms=3600000"
+})
+@ImportAutoConfiguration(MailSenderAutoConfiguration.class)
+@Import(EmailOutboxServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailOutboxServiceImplTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailJobRepository emailJobRepository;
+
+    @Test
+    void enqueuedEmailsAreDeliveredInChunks() {
+        emailOutboxService.enqueue("first@example.com", "Pin", "111111");
+        emailOutboxService.enqueue("second@example.com", "Pin", "222222");
+        emailOutboxService.enqueue("third@example.com", "Pin", "333333");
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+
+        assertThat(emailOutboxService.dispatch()).isEqualTo(3);
+
+        // Sending happens on the sender pool after dispatch() returned.
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(emailJobRepository.findAll())
+                .extracting(EmailJob::getStatus)
+                .containsOnly(EEmailJobStatus.SENT));
+        assertThat(greenMail.getReceivedMessages()).hasSize(3);
+        assertThat(emailOutboxService.dispatch()).isZero();
+    }
+}
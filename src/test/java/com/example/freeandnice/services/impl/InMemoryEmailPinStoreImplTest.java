@@ -0,0 +1,92 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.exceptions.EmailPinNotFoundException;
+import com.example.freeandnice.exceptions.InvalidPinException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryEmailPinStoreImplTest {
+
+    private static final String EMAIL = "alice@example.com";
+
+    private InMemoryEmailPinStoreImpl pinStore;
+
+    @BeforeEach
+    void setUp() {
+        pinStore = new InMemoryEmailPinStoreImpl(Duration.ofMinutes(15), 100, 3);
+    }
+
+    @Test
+    void matchingPinIsConsumedOnce() {
+        pinStore.put(EMAIL, 123456);
+
+        pinStore.verify(EMAIL, 123456L);
+
+        assertThatThrownBy(() -> pinStore.verify(EMAIL, 123456L))
+                .isInstanceOf(EmailPinNotFoundException.class);
+    }
+
+    @Test
+    void pinIsDroppedOnceTheAttemptsAreUsedUp() {
+        pinStore.put(EMAIL, 123456);
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> pinStore.verify(EMAIL, 111111L))
+                    .isInstanceOf(InvalidPinException.class);
+        }
+
+        assertThatThrownBy(() -> pinStore.verify(EMAIL, 123456L))
+                .isInstanceOf(EmailPinNotFoundException.class);
+    }
+
+    @Test
+    void concurrentGuessesNeverExceedTheAttemptsOrConsumeThePinTwice() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            pinStore.put(EMAIL, 123456);
+            List<Callable<String>> guesses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                long pin = i % 2 == 0 ? 123456L : 111111L;
+                guesses.add(() -> guess(pin));
+            }
+
+            List<String> outcomes = run(guesses);
+
+            assertThat(outcomes.stream().filter("ok"::equals).count()).isLessThanOrEqualTo(1);
+            assertThat(outcomes.stream().filter(o -> !o.equals("not found")).count()).isLessThanOrEqualTo(3);
+        }
+    }
+
+    private String guess(long pin) {
+        try {
+            pinStore.verify(EMAIL, pin);
+            return "ok";
+        } catch (InvalidPinException e) {
+            return "invalid";
+        } catch (EmailPinNotFoundException e) {
+            return "not found";
+        }
+    }
+
+    private static List<String> run(List<Callable<String>> guesses) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(guesses.size());
+        try {
+            List<String> outcomes = new ArrayList<>();
+            for (Future<String> future : executor.invokeAll(guesses)) {
+                outcomes.add(future.get());
+            }
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryProductSearchServiceImplTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final InMemoryProductSearchServiceImpl searchService = new InMemoryProductSearchServiceImpl(productRepository);
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.streamTexts()).thenReturn(Stream.of(
+                text(1L, "iPhone 13", "Used phone, good battery"),
+                text(2L, "Phone case", "Silicone case for iPhone"),
+                text(3L, "Bicycle", "Mountain bike")));
+        when(productRepository.streamCategoryNames()).thenReturn(Stream.of(
+                item(1L, "Phones"),
+                item(3L, "Sport")));
+        searchService.initialize();
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        assertThat(searchService.search("iphone", 0, 10)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void matchesPrefixesAcrossFieldsAndRequiresEveryToken() {
+        assertThat(searchService.search("spo bic", 0, 10)).containsExactly(3L);
+        assertThat(searchService.search("phone bike", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void appliesOffsetAndLimit() {
+        assertThat(searchService.search("phone", 0, 1)).containsExactly(2L);
+        assertThat(searchService.search("phone", 1, 1)).containsExactly(1L);
+    }
+
+    @Test
+    void reflectsIncrementalUpdates() {
+        when(productRepository.findTextById(3L)).thenReturn(Optional.of(text(3L, "Road bicycle", "Carbon frame")));
+        when(productRepository.findCategoryNamesByProductIds(any())).thenReturn(List.of());
+        searchService.index(3L);
+
+        assertThat(searchService.search("mountain", 0, 10)).isEmpty();
+        assertThat(searchService.search("carbon", 0, 10)).containsExactly(3L);
+
+        searchService.remove(3L);
+        assertThat(searchService.search("bicycle", 0, 10)).isEmpty();
+    }
+
+    private static ProductRepository.ProductText text(Long id, String name, String description) {
+        return new ProductRepository.ProductText() {
+            @Override
+            public Long getProductId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+
+    private static ProductRepository.ProductItem item(Long id, String value) {
+        return new ProductRepository.ProductItem() {
+            @Override
+            public Long getProductId() {
+                return id;
+            }
+
+            @Override
+            public String getItem() {
+                return value;
+            }
+        };
+    }
+}
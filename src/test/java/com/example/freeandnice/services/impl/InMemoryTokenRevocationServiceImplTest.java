@@ -0,0 +1,111 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.models.ERole;
+import com.example.freeandnice.models.User;
+import com.example.freeandnice.repositories.UserRepository;
+import com.example.freeandnice.services.TokenRevocationService;
+import com.example.freeandnice.services.UserCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InMemoryTokenRevocationServiceImplTest {
+
+    private static final String SIGNING_KEY = "ZnJlZWFuZG5pY2UtYmVuY2htYXJrLXNpZ25pbmcta2V5LWF0LWxlYXN0LTI1Ni1iaXRz";
+
+    private InMemoryTokenRevocationServiceImpl revocationService;
+    private JwtServiceImpl jwtService;
+
+    @BeforeEach
+    void setUp() {
+        revocationService = new InMemoryTokenRevocationServiceImpl();
+        jwtService = new JwtServiceImpl(SIGNING_KEY, TimeUnit.HOURS.toMillis(1), revocationService);
+    }
+
+    @Test
+    void tokensIssuedEarlierInTheSameSecondAreRevoked() {
+        User alice = user(1L, "alice", "old");
+        String token = jwtService.generateToken(alice);
+
+        revocationService.revokeAll(1L);
+
+        assertThat(jwtService.isTokenValid(token, alice)).isFalse();
+    }
+
+    @Test
+    void tokensIssuedAfterTheRevocationStayValid() throws InterruptedException {
+        User alice = user(1L, "alice", "old");
+        revocationService.revokeAll(1L);
+        Thread.sleep(2);
+
+        assertThat(jwtService.isTokenValid(jwtService.generateToken(alice), alice)).isTrue();
+    }
+
+    @Test
+    void revokingOneUserKeepsTheOthersTokens() {
+        User alice = user(1L, "alice", "old");
+        User bob = user(2L, "bob", "old");
+        String token = jwtService.generateToken(bob);
+
+        revocationService.revokeAll(alice.getId());
+
+        assertThat(jwtService.isTokenValid(token, bob)).isTrue();
+    }
+
+    @Test
+    void revocationFollowsTheUserAcrossARename() {
+        String token = jwtService.generateToken(user(1L, "alice", "old"));
+
+        revocationService.revokeAll(1L);
+
+        assertThat(revocationService.isRevoked(jwtService.parseToken(token))).isTrue();
+    }
+
+    @Test
+    void updatingTheUsernameOrPasswordRevokesTheUsersTokens() {
+        UserRepository userRepository = mock(UserRepository.class);
+        TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+        UserServiceImpl userService = new UserServiceImpl(userRepository, tokenRevocationService,
+                mock(UserCacheService.class));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L, "alice", "old")));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        User unchanged = user(1L, "alice", "old");
+        unchanged.setFirstName("Alice");
+        userService.update(unchanged);
+        verify(tokenRevocationService, never()).revokeAll(anyLong());
+
+        userService.update(user(1L, "bob", "old"));
+        verify(tokenRevocationService).revokeAll(1L);
+    }
+
+    private static User user(Long id, String username, String password) {
+        return User.builder()
+                .id(id)
+                .username(username)
+                .email(username + "@example.com")
+                .password(password)
+                .role(ERole.ROLE_USER)
+                .firstName("a")
+                .middleName("b")
+                .lastName("c")
+                .address("d")
+                .phoneNumber("1")
+                .createdAt(LocalDateTime.now())
+                .enabled(true)
+                .newsSubscribed(false)
+                .isConfirmed(true)
+                .build();
+    }
+}
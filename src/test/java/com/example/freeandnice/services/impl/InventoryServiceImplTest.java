@@ -0,0 +1,148 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.ReservationRequestDto;
+import com.example.freeandnice.dto.ReservationResponseDto;
+import com.example.freeandnice.exceptions.InsufficientStockException;
+import com.example.freeandnice.exceptions.ReservationNotActiveException;
+import com.example.freeandnice.models.EReservationStatus;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the reservations against the Flyway schema on an embedded PostgreSQL,
+ * where the conditional updates and row locks behave as in production.
+ */
+class InventoryServiceImplTest {
+
+    private static final long BUYER = 7L;
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private InventoryServiceImpl inventoryService;
+
+    @BeforeAll
+    static void migrate() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).load().migrate();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        jdbcTemplate.update("TRUNCATE inventory_reservations, products CASCADE", Map.of());
+        jdbcTemplate.update("INSERT INTO products (id, name, price, quantity, created_at) " +
+                "VALUES (1, 'phone', 100, 20, now())", Map.of());
+
+        inventoryService = new InventoryServiceImpl(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        ReflectionTestUtils.setField(inventoryService, "ttl", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(inventoryService, "expireBatchSize", 2);
+    }
+
+    @Test
+    void releaseReturnsReservedStock() {
+        ReservationResponseDto reservation = inventoryService.reserve(new ReservationRequestDto(1L, 5), BUYER);
+        assertThat(quantity()).isEqualTo(15);
+
+        ReservationResponseDto released = inventoryService.release(reservation.getId(), BUYER);
+
+        assertThat(released.getStatus()).isEqualTo(EReservationStatus.RELEASED);
+        assertThat(quantity()).isEqualTo(20);
+        assertThatThrownBy(() -> inventoryService.commit(reservation.getId(), BUYER))
+                .isInstanceOf(ReservationNotActiveException.class);
+    }
+
+    @Test
+    void onlyTheBuyerCanCompleteAReservation() {
+        ReservationResponseDto reservation = inventoryService.reserve(new ReservationRequestDto(1L, 5), BUYER);
+
+        assertThatThrownBy(() -> inventoryService.commit(reservation.getId(), 8L))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> inventoryService.release(reservation.getId(), 8L))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> inventoryService.release(reservation.getId()))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> inventoryService.reserve(new ReservationRequestDto(1L, 5)))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThat(quantity()).isEqualTo(15);
+    }
+
+    @Test
+    void reserveFailsWithoutTouchingStockWhenShort() {
+        assertThatThrownBy(() -> inventoryService.reserve(new ReservationRequestDto(1L, 21), BUYER))
+                .isInstanceOf(InsufficientStockException.class);
+        assertThat(quantity()).isEqualTo(20);
+    }
+
+    @Test
+    void expiredReservationsReturnToStock() {
+        ReflectionTestUtils.setField(inventoryService, "ttl", Duration.ZERO);
+        for (int i = 0; i < 5; i++) {
+            inventoryService.reserve(new ReservationRequestDto(1L, 2), BUYER);
+        }
+        assertThat(quantity()).isEqualTo(10);
+
+        assertThat(inventoryService.expireReservations()).isEqualTo(5);
+
+        assertThat(quantity()).isEqualTo(20);
+        assertThat(inventoryService.expireReservations()).isZero();
+    }
+
+    @Test
+    void concurrentBuyersNeverOversell() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            attempts.add(executor.submit(() -> {
+                try {
+                    inventoryService.commit(inventoryService.reserve(new ReservationRequestDto(1L, 1), BUYER).getId(), BUYER);
+                    return true;
+                } catch (InsufficientStockException e) {
+                    return false;
+                }
+            }));
+        }
+        int sold = 0;
+        for (Future<Boolean> attempt : attempts) {
+            sold += attempt.get() ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertThat(sold).isEqualTo(20);
+        assertThat(quantity()).isZero();
+    }
+
+    private int quantity() {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE id = 1", Map.of(), Integer.class);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.exceptions.EmailPinNotFoundException;
+import com.example.freeandnice.exceptions.InvalidPinException;
+import com.example.freeandnice.repositories.EmailsPinsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs outside a test transaction, so every verification commits on its own
+ * as it does in the application.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "email.pins.store=jpa",
+        "email.pins.max-attempts=3"
+})
+@Import(JpaEmailPinStoreImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JpaEmailPinStoreImplTest {
+
+    private static final String EMAIL = "alice@example.com";
+
+    @Autowired
+    private JpaEmailPinStoreImpl pinStore;
+
+    @Autowired
+    private EmailsPinsRepository emailsPinsRepository;
+
+    @AfterEach
+    void tearDown() {
+        emailsPinsRepository.deleteAll();
+    }
+
+    @Test
+    void matchingPinIsConsumedOnce() {
+        pinStore.put(EMAIL, 123456);
+
+        pinStore.verify(EMAIL, 123456L);
+
+        assertThatThrownBy(() -> pinStore.verify(EMAIL, 123456L))
+                .isInstanceOf(EmailPinNotFoundException.class);
+    }
+
+    @Test
+    void wrongGuessesAreCountedUntilThePinIsDropped() {
+        pinStore.put(EMAIL, 123456);
+        assertThatThrownBy(() -> pinStore.verify(EMAIL, 111111L)).isInstanceOf(InvalidPinException.class);
+        assertThat(emailsPinsRepository.findByEmail(EMAIL)).get().extracting(p -> p.getAttempts()).isEqualTo(1);
+        assertThatThrownBy(() -> pinStore.verify(EMAIL, 111111L)).isInstanceOf(InvalidPinException.class);
+        assertThatThrownBy(() -> pinStore.verify(EMAIL, 111111L)).isInstanceOf(InvalidPinException.class);
+
+        assertThat(emailsPinsRepository.existsByEmail(EMAIL)).isFalse();
+        assertThatThrownBy(() -> pinStore.verify(EMAIL, 123456L))
+                .isInstanceOf(EmailPinNotFoundException.class);
+    }
+
+    @Test
+    void concurrentGuessesNeverExceedTheAttemptsOrConsumeThePinTwice() throws Exception {
+        for (int round = 0; round < 10; round++) {
+            pinStore.put(EMAIL, 123456);
+            List<Callable<String>> guesses = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                long pin = i % 2 == 0 ? 123456L : 111111L;
+                guesses.add(() -> guess(pin));
+            }
+
+            List<String> outcomes = run(guesses);
+
+            assertThat(outcomes.stream().filter("ok"::equals).count()).isLessThanOrEqualTo(1);
+            assertThat(outcomes.stream().filter(o -> !o.equals("not found")).count()).isLessThanOrEqualTo(3);
+        }
+    }
+
+    private String guess(long pin) {
+        try {
+            pinStore.verify(EMAIL, pin);
+            return "ok";
+        } catch (InvalidPinException e) {
+            return "invalid";
+        } catch (EmailPinNotFoundException e) {
+            return "not found";
+        }
+    }
+
+    private static List<String> run(List<Callable<String>> guesses) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(guesses.size());
+        try {
+            List<String> outcomes = new ArrayList<>();
+            for (Future<String> future : executor.invokeAll(guesses)) {
+                outcomes.add(future.get());
+            }
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.PaymentRequestDto;
+import com.example.freeandnice.dto.PaymentResponseDto;
+import com.example.freeandnice.exceptions.IdempotencyKeyReusedException;
+import com.example.freeandnice.models.EPaymentStatus;
+import com.example.freeandnice.models.PaymentProviderResult;
+import com.example.freeandnice.services.PaymentProvider;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs payments against the Flyway schema on an embedded PostgreSQL with the
+ * fake provider, and checks that the ledger balances after each scenario.
+ */
+class PaymentServiceImplTest {
+
+    private static final long SELLER = 1L;
+    private static final long BUYER = 2L;
+    private static final long PRICE = 1000L;
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private FakePaymentProviderImpl fakeProvider;
+
+    @BeforeAll
+    static void migrate() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).load().migrate();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        jdbcTemplate.update("TRUNCATE ledger_postings, ledger_entries, ledger_balances, ledger_accounts, " +
+                "payment_intents, products, users CASCADE", Map.of());
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, first_name, middle_name, " +
+                "last_name, address, phone_number, created_at, enabled, is_subscribed_to_news, is_confirmed) " +
+                "VALUES (:id, 'seller', 'seller@example.com', 'x', 0, 'a', 'b', 'c', 'd', '1', now(), true, false, true)",
+                Map.of("id", SELLER));
+        jdbcTemplate.update("INSERT INTO products (id, name, price, quantity, seller_id, created_at) " +
+                "VALUES (1, 'chair', :price, 100, :sellerId, now())", Map.of("price", PRICE, "sellerId", SELLER));
+        fakeProvider = new FakePaymentProviderImpl(5_000L);
+    }
+
+    @Test
+    void retryingWithTheSameKeyChargesOnce() {
+        PaymentServiceImpl paymentService = paymentService(fakeProvider);
+
+        PaymentResponseDto first = paymentService.pay(BUYER, "order-1", new PaymentRequestDto(1L, 2));
+        PaymentResponseDto retry = paymentService.pay(BUYER, "order-1", new PaymentRequestDto(1L, 2));
+
+        assertThat(first.getStatus()).isEqualTo(EPaymentStatus.SUCCEEDED);
+        assertThat(retry.getId()).isEqualTo(first.getId());
+        assertThat(retry.getProviderReference()).isEqualTo(first.getProviderReference());
+        assertThat(count("ledger_entries")).isEqualTo(1);
+        // 5% platform fee.
+        assertThat(paymentService.getSellerBalance(SELLER).getBalance()).isEqualTo(1900L);
+        assertLedgerBalances();
+
+        assertThatThrownBy(() -> paymentService.pay(BUYER, "order-1", new PaymentRequestDto(1L, 3)))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+    }
+
+    @Test
+    void declinedPaymentsPostNothing() {
+        PaymentResponseDto payment = paymentService(fakeProvider).pay(BUYER, "order-1", new PaymentRequestDto(1L, 6));
+
+        assertThat(payment.getStatus()).isEqualTo(EPaymentStatus.FAILED);
+        assertThat(payment.getFailureReason()).isNotBlank();
+        assertThat(count("ledger_postings")).isZero();
+    }
+
+    @Test
+    void paymentsLeftPendingByTheProviderAreFinishedLater() {
+        AtomicInteger outages = new AtomicInteger(1);
+        PaymentProvider flaky = new PaymentProvider() {
+            @Override
+            public String getName() {
+                return "flaky";
+            }
+
+            @Override
+            public PaymentProviderResult charge(String idempotencyKey, Long buyerId, long amount) {
+                if (outages.getAndDecrement() > 0) {
+                    throw new IllegalStateException("provider unreachable");
+                }
+                return fakeProvider.charge(idempotencyKey, buyerId, amount);
+            }
+        };
+        PaymentServiceImpl paymentService = paymentService(flaky);
+
+        PaymentResponseDto payment = paymentService.pay(BUYER, "order-1", new PaymentRequestDto(1L, 1));
+        assertThat(payment.getStatus()).isEqualTo(EPaymentStatus.PENDING);
+
+        ReflectionTestUtils.setField(paymentService, "resumeStaleAfter", Duration.ZERO);
+        assertThat(paymentService.resumePending()).isEqualTo(1);
+        assertThat(paymentService.pay(BUYER, "order-1", new PaymentRequestDto(1L, 1)).getStatus())
+                .isEqualTo(EPaymentStatus.SUCCEEDED);
+        assertThat(count("ledger_entries")).isEqualTo(1);
+        assertLedgerBalances();
+    }
+
+    @Test
+    void concurrentPaymentsToOneSellerAllBalance() throws Exception {
+        PaymentServiceImpl paymentService = paymentService(fakeProvider);
+        int payments = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<PaymentResponseDto>> futures = new ArrayList<>();
+            for (int i = 0; i < payments; i++) {
+                // Every order is sent twice, as by a client retrying on a timeout.
+                String key = "order-" + (i / 2);
+                futures.add(executor.submit(() -> paymentService.pay(BUYER, key, new PaymentRequestDto(1L, 1))));
+            }
+            for (Future<PaymentResponseDto> future : futures) {
+                assertThat(future.get().getStatus()).isEqualTo(EPaymentStatus.SUCCEEDED);
+            }
+        } finally {
+            // Nothing may still hold ledger rows when the next test truncates them.
+            executor.shutdownNow();
+            assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(count("ledger_entries")).isEqualTo(payments / 2);
+        assertThat(paymentService.getSellerBalance(SELLER).getBalance()).isEqualTo(payments / 2 * 950L);
+        assertLedgerBalances();
+    }
+
+    private PaymentServiceImpl paymentService(PaymentProvider provider) {
+        PaymentServiceImpl paymentService = new PaymentServiceImpl(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), provider);
+        ReflectionTestUtils.setField(paymentService, "platformFeeBps", 500L);
+        ReflectionTestUtils.setField(paymentService, "balanceSlots", 4);
+        ReflectionTestUtils.setField(paymentService, "maxPostingAttempts", 5);
+        ReflectionTestUtils.setField(paymentService, "resumeStaleAfter", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(paymentService, "resumeBatchSize", 100);
+        return paymentService;
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Map.of(), Integer.class);
+    }
+
+    /** Every entry sums to zero, and every account's slots sum to its postings. */
+    private void assertLedgerBalances() {
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT entry_id FROM ledger_postings " +
+                "GROUP BY entry_id HAVING SUM(amount) <> 0) unbalanced", Map.of(), Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ledger_accounts a WHERE " +
+                "(SELECT COALESCE(SUM(balance), 0) FROM ledger_balances b WHERE b.account_id = a.id) <> " +
+                "(SELECT COALESCE(SUM(amount), 0) FROM ledger_postings p WHERE p.account_id = a.id)",
+                Map.of(), Integer.class)).isZero();
+    }
+}
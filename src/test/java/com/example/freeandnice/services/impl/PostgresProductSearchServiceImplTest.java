@@ -0,0 +1,108 @@
+package com.example.freeandnice.services.impl;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Same cases as the in-memory engine, against the Flyway schema on an
+ * embedded PostgreSQL.
+ */
+class PostgresProductSearchServiceImplTest {
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private PostgresProductSearchServiceImpl searchService;
+
+    @BeforeAll
+    static void migrate() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).load().migrate();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        jdbcTemplate.update("TRUNCATE product_search, products_categories, categories, products CASCADE", Map.of());
+        product(1L, "iPhone 13", "Used phone, good battery");
+        product(2L, "Phone case", "Silicone case for iPhone");
+        product(3L, "Bicycle", "Mountain bike");
+        category(1L, "Phones", 1L);
+        category(2L, "Sport", 3L);
+
+        searchService = new PostgresProductSearchServiceImpl(jdbcTemplate);
+        searchService.initialize();
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        assertThat(searchService.search("iphone", 0, 10)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void matchesPrefixesAcrossFieldsAndRequiresEveryToken() {
+        assertThat(searchService.search("spo bic", 0, 10)).containsExactly(3L);
+        assertThat(searchService.search("phone bike", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void appliesOffsetAndLimit() {
+        List<Long> all = searchService.search("phone", 0, 10);
+
+        assertThat(all).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(searchService.search("phone", 0, 1)).containsExactly(all.get(0));
+        assertThat(searchService.search("phone", 1, 1)).containsExactly(all.get(1));
+    }
+
+    @Test
+    void reflectsIncrementalUpdates() {
+        jdbcTemplate.update("UPDATE products SET name = 'Road bicycle', description = 'Carbon frame' WHERE id = 3", Map.of());
+        searchService.index(3L);
+
+        assertThat(searchService.search("mountain", 0, 10)).isEmpty();
+        assertThat(searchService.search("carbon", 0, 10)).containsExactly(3L);
+
+        searchService.remove(3L);
+        assertThat(searchService.search("bicycle", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void renamedCategoriesAreReindexed() {
+        jdbcTemplate.update("UPDATE categories SET name = 'Cycling' WHERE id = 2", Map.of());
+        searchService.reindexCategory(2L);
+
+        assertThat(searchService.search("cycling", 0, 10)).containsExactly(3L);
+        assertThat(searchService.search("sport", 0, 10)).isEmpty();
+    }
+
+    private void product(Long id, String name, String description) {
+        jdbcTemplate.update("INSERT INTO products (id, name, description, price, quantity, created_at) " +
+                "VALUES (:id, :name, :description, 100, 1, now())",
+                Map.of("id", id, "name", name, "description", description));
+    }
+
+    private void category(Long id, String name, Long productId) {
+        jdbcTemplate.update("INSERT INTO categories (id, name) VALUES (:id, :name)", Map.of("id", id, "name", name));
+        jdbcTemplate.update("INSERT INTO products_categories (products_id, categories_id) VALUES (:productId, :id)",
+                Map.of("productId", productId, "id", id));
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.exceptions.ChangeTokenExpiredException;
+import com.example.freeandnice.models.EProductChangeType;
+import com.example.freeandnice.models.ProductChange;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the feed against the Flyway schema on an embedded PostgreSQL, outside
+ * a test transaction, so writers commit concurrently and the advisory lock is
+ * the real one.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProductChangeServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductChangeServiceImplTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private ProductChangeServiceImpl productChangeService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void dataSource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("TRUNCATE product_changes", Map.of());
+    }
+
+    @Test
+    void concurrentWritersAppearWithoutGapsOrReordering() throws Exception {
+        int writers = 6;
+        int transactionsPerWriter = 30;
+        long start = productChangeService.currentSeq();
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            // Polls while the writers commit; a seq seen before an earlier one committed would show up as a gap.
+            Future<List<Long>> reader = executor.submit(() -> {
+                List<Long> seen = new ArrayList<>();
+                long last = start;
+                while (true) {
+                    boolean done = !writing.get();
+                    List<ProductChange> changes = productChangeService.findSince(last, 100);
+                    if (done && changes.isEmpty()) {
+                        return seen;
+                    }
+                    for (ProductChange change : changes) {
+                        assertThat(change.getSeq()).isEqualTo(last + 1);
+                        last = change.getSeq();
+                        seen.add(last);
+                    }
+                }
+            });
+            List<Future<?>> writes = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                long productId = w;
+                writes.add(executor.submit(() -> {
+                    for (int i = 0; i < transactionsPerWriter; i++) {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            productChangeService.record(List.of(productId), EProductChangeType.UPDATED);
+                            // Runs after the feed insert, widening the window between taking a seq and committing.
+                            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                                @Override
+                                public void beforeCommit(boolean readOnly) {
+                                    jdbcTemplate.queryForObject("SELECT pg_sleep(:seconds)", Map.of("seconds",
+                                            ThreadLocalRandom.current().nextInt(10) / 1000.0), Object.class);
+                                }
+                            });
+                        });
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+            writing.set(false);
+
+            assertThat(reader.get()).hasSize(writers * transactionsPerWriter);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void readingResumesAfterTheToken() {
+        for (long productId = 1; productId <= 5; productId++) {
+            long id = productId;
+            transactionTemplate.executeWithoutResult(status ->
+                    productChangeService.record(List.of(id), EProductChangeType.CREATED));
+        }
+        long head = productChangeService.currentSeq();
+
+        List<ProductChange> changes = productChangeService.findSince(head - 2, 10);
+
+        assertThat(changes).extracting(ProductChange::getSeq).containsExactly(head - 1, head);
+        assertThat(changes).extracting(ProductChange::getProductId).containsExactly(4L, 5L);
+        assertThat(productChangeService.findSince(head, 10)).isEmpty();
+    }
+
+    @Test
+    void rolledBackChangesAreNeverRecorded() {
+        long head = productChangeService.currentSeq();
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            productChangeService.record(List.of(1L), EProductChangeType.CREATED);
+            throw new IllegalStateException("rolled back");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(productChangeService.currentSeq()).isEqualTo(head);
+    }
+
+    @Test
+    void tokenBeforeThePurgedChangesIsExpired() {
+        for (long productId = 1; productId <= 3; productId++) {
+            long id = productId;
+            transactionTemplate.executeWithoutResult(status ->
+                    productChangeService.record(List.of(id), EProductChangeType.UPDATED));
+        }
+        long head = productChangeService.currentSeq();
+        ReflectionTestUtils.setField(productChangeService, "retention", Duration.ofMinutes(-1));
+
+        productChangeService.purge();
+
+        assertThatThrownBy(() -> productChangeService.findSince(head - 3, 10))
+                .isInstanceOf(ChangeTokenExpiredException.class);
+        assertThat(productChangeService.findSince(head - 1, 10)).extracting(ProductChange::getSeq)
+                .containsExactly(head);
+    }
+}
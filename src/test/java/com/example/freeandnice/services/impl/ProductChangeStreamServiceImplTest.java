@@ -0,0 +1,114 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.controllers.ProductController;
+import com.example.freeandnice.dto.ProductChangeDto;
+import com.example.freeandnice.dto.ProductChangesResponseDto;
+import com.example.freeandnice.exceptions.ChangeTokenExpiredException;
+import com.example.freeandnice.exceptions.GlobalExceptionHandler;
+import com.example.freeandnice.models.EProductChangeType;
+import com.example.freeandnice.services.ProductChangeService;
+import com.example.freeandnice.services.ProductExportService;
+import com.example.freeandnice.services.ProductImportService;
+import com.example.freeandnice.services.ProductService;
+import com.example.freeandnice.utils.CursorUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Subscribes through the controller, with the feed and the product lookups
+ * mocked, and drives the pump by hand.
+ */
+class ProductChangeStreamServiceImplTest {
+
+    private ProductChangeService productChangeService;
+    private ProductService productService;
+    private ProductChangeStreamServiceImpl streamService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        productChangeService = mock(ProductChangeService.class);
+        productService = mock(ProductService.class);
+        streamService = new ProductChangeStreamServiceImpl(productChangeService, productService);
+        ReflectionTestUtils.setField(streamService, "streamTimeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(streamService, "pageSize", 2);
+        ReflectionTestUtils.setField(streamService, "maxPagesPerPump", 10);
+        ReflectionTestUtils.setField(streamService, "keepAlive", Duration.ofHours(1));
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(productService,
+                        mock(ProductExportService.class), mock(ProductImportService.class), streamService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void pumpHandsEverySubscriberTheChangesAfterItsPosition() throws Exception {
+        when(productService.getChanges(CursorUtils.encode(1), 2))
+                .thenReturn(new ProductChangesResponseDto(List.of(change(2), change(3)), CursorUtils.encode(3), true));
+        when(productService.getChanges(CursorUtils.encode(3), 2))
+                .thenReturn(new ProductChangesResponseDto(List.of(change(4)), CursorUtils.encode(4), false));
+        MvcResult fromOne = subscribe(1);
+        MvcResult fromTwo = subscribe(2);
+
+        streamService.pump();
+
+        assertThat(eventIds(fromOne)).containsExactly(CursorUtils.encode(2), CursorUtils.encode(3), CursorUtils.encode(4));
+        assertThat(eventIds(fromTwo)).containsExactly(CursorUtils.encode(3), CursorUtils.encode(4));
+    }
+
+    @Test
+    void subscribingWithAnExpiredTokenAnswersGone() throws Exception {
+        when(productChangeService.findSince(1L, 1)).thenThrow(new ChangeTokenExpiredException(CursorUtils.encode(1)));
+
+        mockMvc.perform(get("/api/products/changes/stream").param("since", CursorUtils.encode(1)))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void subscribersBehindThePurgedChangesAreDropped() throws Exception {
+        when(productService.getChanges(any(), anyInt()))
+                .thenThrow(new ChangeTokenExpiredException(CursorUtils.encode(1)));
+        subscribe(1);
+
+        streamService.pump();
+        streamService.pump();
+
+        // The second run finds no subscriber left and reads nothing.
+        verify(productService, times(1)).getChanges(any(), anyInt());
+    }
+
+    private MvcResult subscribe(long seq) throws Exception {
+        return mockMvc.perform(get("/api/products/changes/stream").param("since", CursorUtils.encode(seq)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static List<String> eventIds(MvcResult result) throws Exception {
+        return result.getResponse().getContentAsString().lines()
+                .filter(line -> line.startsWith("id:"))
+                .map(line -> line.substring("id:".length()))
+                .toList();
+    }
+
+    private static ProductChangeDto change(long seq) {
+        return new ProductChangeDto(CursorUtils.encode(seq), seq, EProductChangeType.UPDATED, LocalDateTime.now(), null);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.ProductExportFilterDto;
+import com.example.freeandnice.models.Category;
+import com.example.freeandnice.models.CategorySnapshot;
+import com.example.freeandnice.models.EExportFormat;
+import com.example.freeandnice.services.CategoryCatalogService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Exports from the Flyway schema on an embedded PostgreSQL, with a fetch
+ * size smaller than the catalog so the cursor is read in several round trips.
+ */
+class ProductExportServiceImplTest {
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+    private static ProductExportServiceImpl exportService;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO categories (id, name) VALUES (1, 'electronics'), (2, 'phones')");
+        jdbcTemplate.update("UPDATE categories SET parent_id = 1 WHERE id = 2");
+        jdbcTemplate.update("INSERT INTO products (id, name, description, price, quantity, created_at) " +
+                "SELECT i, 'product ' || i, 'says \"hi\", twice', i * 10, 1, TIMESTAMP '2024-01-01 00:00:00' " +
+                "FROM generate_series(1, 25) i");
+        jdbcTemplate.update("UPDATE products SET updated_at = TIMESTAMP '2024-06-01 00:00:00' WHERE id > 20");
+        jdbcTemplate.update("INSERT INTO products_categories (products_id, categories_id) VALUES (3, 2), (4, 1)");
+        jdbcTemplate.update("INSERT INTO product_images (product_id, image_path) VALUES (3, 'a.png'), (3, 'b.png')");
+
+        Category electronics = new Category();
+        electronics.setId(1L);
+        electronics.setName("electronics");
+        Category phones = new Category();
+        phones.setId(2L);
+        phones.setName("phones");
+        phones.setParentId(1L);
+        CategoryCatalogService catalog = mock(CategoryCatalogService.class);
+        when(catalog.getSnapshot()).thenReturn(CategorySnapshot.of(List.of(electronics, phones)));
+
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new ProductExportServiceImpl(dataSource, new DataSourceTransactionManager(dataSource),
+                objectMapper, catalog, 10);
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void ndjsonHasOneLinePerProductInIdOrder() throws IOException {
+        List<String> lines = export(ProductExportFilterDto.builder().build(), EExportFormat.NDJSON);
+
+        assertThat(lines).hasSize(25);
+        assertThat(lines.get(0)).startsWith("{\"id\":1,");
+        assertThat(lines.get(2)).contains("\"categoryIds\":[2]", "\"imagePaths\":[\"a.png\",\"b.png\"]");
+        assertThat(lines.get(24)).startsWith("{\"id\":25,");
+    }
+
+    @Test
+    void categoryFilterIncludesSubcategories() throws IOException {
+        List<String> lines = export(ProductExportFilterDto.builder().categoryId(1L).build(), EExportFormat.NDJSON);
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).startsWith("{\"id\":3,");
+        assertThat(lines.get(1)).startsWith("{\"id\":4,");
+    }
+
+    @Test
+    void csvExportsOnlyRecentlyChangedProducts() throws IOException {
+        ProductExportFilterDto filter = ProductExportFilterDto.builder()
+                .updatedSince(LocalDateTime.of(2024, 3, 1, 0, 0))
+                .build();
+        List<String> lines = export(filter, EExportFormat.CSV);
+
+        assertThat(lines.get(0)).isEqualTo("id,name,description,price,quantity,location,sellerId,createdAt,updatedAt,categoryIds,imagePaths");
+        assertThat(lines).hasSize(6);
+        assertThat(lines.get(1)).startsWith("21,product 21,\"says \"\"hi\"\", twice\",210,1,,,");
+    }
+
+    private static List<String> export(ProductExportFilterDto filter, EExportFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(filter, format, out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+}
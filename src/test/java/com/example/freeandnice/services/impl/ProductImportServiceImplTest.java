@@ -0,0 +1,163 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.ProductImportResultDto;
+import com.example.freeandnice.models.Category;
+import com.example.freeandnice.models.CategorySnapshot;
+import com.example.freeandnice.services.CategoryCatalogService;
+import com.example.freeandnice.services.ProductChangeService;
+import com.example.freeandnice.services.ProductSearchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the importer against the Flyway schema on an embedded PostgreSQL, so
+ * the sequence, the batch statements and the constraints are the real ones.
+ */
+class ProductImportServiceImplTest {
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private ProductImportServiceImpl importService;
+
+    @BeforeAll
+    static void migrate() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).load().migrate();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        jdbcTemplate.update("TRUNCATE products_categories, product_images, products, categories CASCADE", Map.of());
+        jdbcTemplate.update("INSERT INTO categories (id, name) VALUES (1, 'phones')", Map.of());
+
+        Category phones = new Category();
+        phones.setId(1L);
+        phones.setName("phones");
+        CategoryCatalogService catalog = mock(CategoryCatalogService.class);
+        when(catalog.getSnapshot()).thenReturn(CategorySnapshot.of(List.of(phones)));
+
+        importService = new ProductImportServiceImpl(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                new ObjectMapper(), catalog, mock(ProductSearchService.class), mock(ProductChangeService.class));
+        ReflectionTestUtils.setField(importService, "batchSize", 1000);
+        ReflectionTestUtils.setField(importService, "maxReportedErrors", 100);
+        ReflectionTestUtils.setField(importService, "maxLineLength", 1000);
+    }
+
+    @Test
+    void ndjsonImportsValidRowsAndReportsInvalidOnes() throws IOException {
+        String body = """
+                {"name":"phone","price":100,"quantity":2,"categoryIds":[1],"imagePaths":["a.png","b.png"]}
+                {"name":"","price":100}
+                not json
+
+                {"name":"tablet","price":200,"categoryIds":[42]}
+                {"name":"case","price":5}
+                """;
+
+        ProductImportResultDto result = importService.importNdjson(stream(body));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting("line").containsExactly(2L, 3L, 5L);
+        assertThat(count("SELECT COUNT(*) FROM products")).isEqualTo(2);
+        assertThat(count("SELECT COUNT(*) FROM product_images")).isEqualTo(2);
+        assertThat(count("SELECT COUNT(*) FROM products_categories")).isEqualTo(1);
+    }
+
+    @Test
+    void ndjsonRejectsNullAndOversizedLinesAndCarriesOn() throws IOException {
+        String body = "{\"name\":\"phone\",\"price\":100}\n" +
+                "null\n" +
+                "{\"name\":\"" + "x".repeat(5000) + "\",\"price\":1}\n" +
+                "{\"name\":\"case\",\"price\":5}\n";
+
+        ProductImportResultDto result = importService.importNdjson(stream(body));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting("line").containsExactly(2L, 3L);
+        assertThat(result.getErrors()).extracting("message")
+                .containsExactly("Expected a JSON object", "Line longer than 1000 characters");
+    }
+
+    @Test
+    void csvStopsAtAnUnterminatedQuoteWithoutBufferingTheRest() throws IOException {
+        String body = "name,price\n" +
+                "phone,100\n" +
+                "\"never closed,1\n" + "filler,1\n".repeat(1000);
+
+        ProductImportResultDto result = importService.importCsv(stream(body));
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting("line").containsExactly(3L);
+        assertThat(result.getErrors().get(0).getMessage()).contains("longer than 1000 characters");
+    }
+
+    @Test
+    void csvImportsQuotedFieldsAndLists() throws IOException {
+        String body = "name,price,description,categoryIds,imagePaths\n" +
+                "\"phone, used\",100,\"says \"\"hi\"\"\",1,a.png|b.png\n" +
+                "broken,abc,,,\n";
+
+        ProductImportResultDto result = importService.importCsv(stream(body));
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting("line").containsExactly(3L);
+        assertThat(jdbcTemplate.queryForObject("SELECT description FROM products WHERE name = 'phone, used'",
+                Map.of(), String.class)).isEqualTo("says \"hi\"");
+    }
+
+    @Test
+    void importedIdsDoNotCollideWithSequenceBlocks() throws IOException {
+        StringBuilder body = new StringBuilder();
+        int rows = 20_000;
+        for (int i = 0; i < rows; i++) {
+            body.append("{\"name\":\"product ").append(i).append("\",\"price\":").append(i).append("}\n");
+        }
+
+        ProductImportResultDto result = importService.importNdjson(stream(body.toString()));
+
+        assertThat(result.getImported()).isEqualTo(rows);
+        assertThat(count("SELECT COUNT(DISTINCT id) FROM products")).isEqualTo(rows);
+        // The next block handed out by the sequence starts above every imported id.
+        long nextBlockStart = jdbcTemplate.queryForObject("SELECT nextval('products_seq')", Map.of(), Long.class) - 49;
+        assertThat(count("SELECT MAX(id) FROM products")).isLessThan(nextBlockStart);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Map.of(), Long.class);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.PriceBucketDto;
+import com.example.freeandnice.dto.ProductFilterRequestDto;
+import com.example.freeandnice.dto.ProductResponseDto;
+import com.example.freeandnice.models.Category;
+import com.example.freeandnice.models.Product;
+import com.example.freeandnice.repositories.ProductFilterRepository;
+import com.example.freeandnice.services.CategoryCatalogService;
+import com.example.freeandnice.services.ProductChangeService;
+import com.example.freeandnice.services.ProductSearchService;
+import com.example.freeandnice.services.ProductService;
+import com.example.freeandnice.services.ReviewService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ProductServiceImpl.class, ProductFilterRepository.class, CategoryCatalogServiceImpl.class})
+class ProductServiceImplQueryCountTest {
+
+    private static final int PRODUCTS = 25;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryCatalogService categoryCatalogService;
+
+    @MockBean
+    private ProductSearchService productSearchService;
+
+    @MockBean
+    private ProductChangeService productChangeService;
+
+    @MockBean
+    private ReviewService reviewService;
+
+    private Statistics statistics;
+    private Category phones;
+    private Category used;
+
+    @BeforeEach
+    void setUp() {
+        phones = new Category();
+        phones.setName("phones");
+        used = new Category();
+        used.setName("used");
+        entityManager.persist(phones);
+        entityManager.persist(used);
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("phone " + i);
+            product.setPrice(100L + i);
+            product.setQuantity(1);
+            product.setImages(List.of("img/" + i + "-a.png", "img/" + i + "-b.png"));
+            product.setCategories(Set.of(phones, used));
+            entityManager.persist(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        categoryCatalogService.refresh();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void productsPageUsesSetBasedQueries() {
+        var page = productService.getProductsPage(null, PRODUCTS);
+
+        assertThat(page.getItems()).hasSize(PRODUCTS);
+        assertThat(page.getItems()).allSatisfy(dto -> {
+            assertThat(dto.getCategoryNames()).hasSize(2);
+            assertThat(dto.getImagePaths()).hasSize(2);
+        });
+        // products + one query for categories + one query for images
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void filterComputesFacetsWithConstantQueries() {
+        var filter = ProductFilterRequestDto.builder().categories(List.of("phones", "used")).build();
+        var response = productService.filterProducts(filter, null, PRODUCTS);
+
+        assertThat(response.getItems()).hasSize(PRODUCTS);
+        assertThat(response.getTotal()).isEqualTo(PRODUCTS);
+        assertThat(response.getCategories()).containsEntry("phones", (long) PRODUCTS).containsEntry("used", (long) PRODUCTS);
+        assertThat(response.getInStock()).isEqualTo(PRODUCTS);
+        // page + two collections + one pass for the scalar and location facets + one for the categories
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    void facetsCountUncategorizedProductsAndEachProductOnce() {
+        persist("loose", "Lviv", 700L, 2, Set.of());
+        persist("bundle", "Kyiv", 5000L, 0, Set.of(phones, used));
+        statistics.clear();
+
+        var response = productService.filterProducts(ProductFilterRequestDto.builder().build(), null, 1);
+
+        assertThat(response.getTotal()).isEqualTo(PRODUCTS + 2);
+        assertThat(response.getInStock()).isEqualTo(PRODUCTS + 1);
+        assertThat(response.getCategories()).containsOnly(
+                Map.entry("phones", PRODUCTS + 1L), Map.entry("used", PRODUCTS + 1L));
+        assertThat(response.getLocations()).containsExactly(Map.entry("Kyiv", 1L), Map.entry("Lviv", 1L));
+        assertThat(response.getPriceBuckets()).extracting(PriceBucketDto::getCount)
+                .containsExactly(PRODUCTS + 1L, 0L, 1L, 0L, 0L, 0L);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    void eachFacetIgnoresOnlyItsOwnCriterion() {
+        persist("loose", "Lviv", 700L, 2, Set.of());
+        persist("bundle", "Kyiv", 5000L, 0, Set.of(phones, used));
+
+        var filter = ProductFilterRequestDto.builder().categories(List.of("phones")).locations(List.of("Kyiv")).build();
+        var response = productService.filterProducts(filter, null, PRODUCTS);
+
+        assertThat(response.getItems()).extracting(ProductResponseDto::getName).containsExactly("bundle");
+        assertThat(response.getTotal()).isEqualTo(1);
+        assertThat(response.getInStock()).isZero();
+        // The uncategorized product only counts where the category criterion is left out.
+        assertThat(response.getCategories()).containsOnly(Map.entry("phones", 1L), Map.entry("used", 1L));
+        assertThat(response.getLocations()).containsExactly(Map.entry("Kyiv", 1L));
+    }
+
+    @Test
+    void unknownCategoryMatchesNothing() {
+        var filter = ProductFilterRequestDto.builder().categories(List.of("tablets")).build();
+        var response = productService.filterProducts(filter, null, PRODUCTS);
+
+        assertThat(response.getItems()).isEmpty();
+        assertThat(response.getTotal()).isZero();
+        assertThat(response.getCategories()).containsEntry("phones", (long) PRODUCTS);
+    }
+
+    private void persist(String name, String location, long price, int quantity, Set<Category> categories) {
+        Product product = new Product();
+        product.setName(name);
+        product.setLocation(location);
+        product.setPrice(price);
+        product.setQuantity(quantity);
+        product.setCategories(new HashSet<>(categories));
+        entityManager.persist(product);
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.CreateProductRequestDto;
+import com.example.freeandnice.dto.ProductResponseDto;
+import com.example.freeandnice.exceptions.ResourceNotFoundException;
+import com.example.freeandnice.models.Category;
+import com.example.freeandnice.repositories.ProductFilterRepository;
+import com.example.freeandnice.services.CategoryCatalogService;
+import com.example.freeandnice.services.ProductChangeService;
+import com.example.freeandnice.services.ProductService;
+import com.example.freeandnice.services.ReviewService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Creates products through the service on the Flyway schema in an embedded
+ * PostgreSQL, so the JPA writes and the JDBC search index meet in one
+ * transaction as they do in production.
+ */
+@DataJpaTest(properties = "products.search.engine=postgres")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductServiceImpl.class, ProductFilterRepository.class, CategoryCatalogServiceImpl.class,
+        PostgresProductSearchServiceImpl.class, ProductServiceImplSearchTest.EmbeddedDatabase.class})
+class ProductServiceImplSearchTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryCatalogService categoryCatalogService;
+
+    @MockBean
+    private ProductChangeService productChangeService;
+
+    @MockBean
+    private ReviewService reviewService;
+
+    private Long bikesId;
+
+    @BeforeEach
+    void setUp() {
+        Category bikes = new Category();
+        bikes.setName("bicycles");
+        bikesId = entityManager.persistAndFlush(bikes).getId();
+        categoryCatalogService.refresh();
+    }
+
+    @Test
+    void createdProductsAreSearchableByNameAndCategory() {
+        CreateProductRequestDto request = new CreateProductRequestDto();
+        request.setName("Mountain bike");
+        request.setDescription("Carbon frame");
+        request.setPrice(50_000L);
+        request.setQuantity(1);
+        request.setImagePaths(List.of("img/bike.png"));
+        request.setCategoryIds(List.of(bikesId));
+
+        ProductResponseDto created = productService.createProduct(request);
+
+        assertThat(productService.searchByNameOrCategory("mountain", 0, 10))
+                .extracting(ProductResponseDto::getId).containsExactly(created.getId());
+        assertThat(productService.searchByNameOrCategory("bicycle", 0, 10))
+                .extracting(ProductResponseDto::getId).containsExactly(created.getId());
+        assertThat(created.getImagePaths()).containsExactly("img/bike.png");
+    }
+
+    @Test
+    void categoriesMissingFromTheCatalogAreLookedUp() {
+        // Created through another instance: this catalog has not been refreshed since.
+        Category scooters = new Category();
+        scooters.setName("scooters");
+        Long scootersId = entityManager.persistAndFlush(scooters).getId();
+        CreateProductRequestDto request = request("Kick scooter", List.of(bikesId, scootersId));
+
+        ProductResponseDto created = productService.createProduct(request);
+
+        assertThat(created.getCategoryNames()).containsExactlyInAnyOrder("bicycles", "scooters");
+        assertThat(productService.searchByNameOrCategory("scooters", 0, 10))
+                .extracting(ProductResponseDto::getId).containsExactly(created.getId());
+    }
+
+    @Test
+    void unknownCategoryIsRejected() {
+        CreateProductRequestDto request = request("Kick scooter", List.of(bikesId, bikesId + 1000));
+
+        assertThatThrownBy(() -> productService.createProduct(request))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining(String.valueOf(bikesId + 1000));
+    }
+
+    private static CreateProductRequestDto request(String name, List<Long> categoryIds) {
+        CreateProductRequestDto request = new CreateProductRequestDto();
+        request.setName(name);
+        request.setPrice(10_000L);
+        request.setQuantity(1);
+        request.setCategoryIds(categoryIds);
+        return request;
+    }
+
+    @TestConfiguration
+    static class EmbeddedDatabase {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres embeddedPostgres) {
+            return embeddedPostgres.getPostgresDatabase();
+        }
+    }
+}
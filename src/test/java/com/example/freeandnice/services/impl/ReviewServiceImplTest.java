@@ -0,0 +1,194 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.dto.RatingSummaryDto;
+import com.example.freeandnice.dto.ReviewPageResponseDto;
+import com.example.freeandnice.dto.ReviewRequestDto;
+import com.example.freeandnice.dto.ReviewResponseDto;
+import com.example.freeandnice.exceptions.InvalidReviewException;
+import com.example.freeandnice.exceptions.ReviewAlreadyExistsException;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that the incrementally kept counts always match the reviews table,
+ * on the Flyway schema in an embedded PostgreSQL.
+ */
+class ReviewServiceImplTest {
+
+    private static final long SELLER = 1L;
+    private static final long FIRST_AUTHOR = 10L;
+    private static final int AUTHORS = 40;
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ReviewServiceImpl reviewService;
+
+    @BeforeAll
+    static void migrate() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).load().migrate();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        jdbcTemplate.update("TRUNCATE reviews, seller_ratings, products, users CASCADE", Map.of());
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, first_name, middle_name, " +
+                "last_name, address, phone_number, created_at, enabled, is_subscribed_to_news, is_confirmed) " +
+                "VALUES (:id, 'seller', 'seller@example.com', 'x', 0, 'a', 'b', 'c', 'd', '1', now(), true, false, true)",
+                Map.of("id", SELLER));
+        for (long id = 1; id <= 2; id++) {
+            jdbcTemplate.update("INSERT INTO products (id, name, price, quantity, seller_id, created_at) " +
+                    "VALUES (:id, 'lamp', 100, 1, :sellerId, now())", Map.of("id", id, "sellerId", SELLER));
+        }
+
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        reviewService = new ReviewServiceImpl(jdbcTemplate, transactionTemplate);
+        ReflectionTestUtils.setField(reviewService, "defaultPageSize", 20);
+        ReflectionTestUtils.setField(reviewService, "maxPageSize", 100);
+    }
+
+    @Test
+    void ratingsFollowCreatesEditsAndDeletes() {
+        ReviewResponseDto five = reviewService.createReview(1L, FIRST_AUTHOR, new ReviewRequestDto(5, "great"));
+        reviewService.createReview(1L, FIRST_AUTHOR + 1, new ReviewRequestDto(3, null));
+        reviewService.createReview(2L, FIRST_AUTHOR, new ReviewRequestDto(4, null));
+
+        assertThat(productRating(1L).getHistogram()).containsExactly(0, 0, 1, 0, 1);
+        assertThat(productRating(1L).getAverage()).isEqualTo(4.0);
+        assertThat(reviewService.getSellerRating(SELLER).getCount()).isEqualTo(3);
+
+        reviewService.updateReview(five.getId(), FIRST_AUTHOR, new ReviewRequestDto(1, "broke"));
+        assertThat(productRating(1L).getHistogram()).containsExactly(1, 0, 1, 0, 0);
+        assertThat(reviewService.getSellerRating(SELLER).getHistogram()).containsExactly(1, 0, 1, 1, 0);
+
+        reviewService.deleteReview(five.getId(), FIRST_AUTHOR);
+        assertThat(productRating(1L).getHistogram()).containsExactly(0, 0, 1, 0, 0);
+        assertThat(reviewService.getSellerRating(SELLER).getAverage()).isEqualTo(3.5);
+        assertMatchesReviews();
+    }
+
+    @Test
+    void deletingAProductTakesItsReviewsOutOfTheSellerRating() {
+        reviewService.createReview(1L, FIRST_AUTHOR, new ReviewRequestDto(2, null));
+        reviewService.createReview(2L, FIRST_AUTHOR, new ReviewRequestDto(4, null));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            reviewService.removeProductRatings(1L);
+            jdbcTemplate.update("DELETE FROM products WHERE id = 1", Map.of());
+        });
+
+        assertThat(reviewService.getSellerRating(SELLER).getHistogram()).containsExactly(0, 0, 0, 1, 0);
+        assertMatchesReviews();
+    }
+
+    @Test
+    void rejectsDuplicateOwnAndForeignReviews() {
+        ReviewResponseDto review = reviewService.createReview(1L, FIRST_AUTHOR, new ReviewRequestDto(5, null));
+
+        assertThatThrownBy(() -> reviewService.createReview(1L, FIRST_AUTHOR, new ReviewRequestDto(4, null)))
+                .isInstanceOf(ReviewAlreadyExistsException.class);
+        assertThatThrownBy(() -> reviewService.createReview(1L, SELLER, new ReviewRequestDto(5, null)))
+                .isInstanceOf(InvalidReviewException.class);
+        assertThatThrownBy(() -> reviewService.deleteReview(review.getId(), FIRST_AUTHOR + 1))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThat(productRating(1L).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void reviewPagesWalkBackwardsFromTheNewest() {
+        for (int i = 0; i < 5; i++) {
+            reviewService.createReview(1L, FIRST_AUTHOR + i, new ReviewRequestDto(5, null));
+        }
+
+        ReviewPageResponseDto first = reviewService.getProductReviews(1L, null, 3);
+        ReviewPageResponseDto second = reviewService.getProductReviews(1L, first.getNextCursor(), 3);
+
+        assertThat(first.getReviews()).extracting(ReviewResponseDto::getAuthorId)
+                .containsExactly(FIRST_AUTHOR + 4, FIRST_AUTHOR + 3, FIRST_AUTHOR + 2);
+        assertThat(second.getReviews()).extracting(ReviewResponseDto::getAuthorId)
+                .containsExactly(FIRST_AUTHOR + 1, FIRST_AUTHOR);
+        assertThat(second.getNextCursor()).isNull();
+        assertThat(reviewService.getSellerReviews(SELLER, null, 10).getReviews()).hasSize(5);
+    }
+
+    @Test
+    void concurrentReviewsOfOneProductLoseNoCounts() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < AUTHORS; i++) {
+                long author = FIRST_AUTHOR + i;
+                int rating = i % 5 + 1;
+                futures.add(executor.submit(() -> {
+                    ReviewResponseDto review = reviewService.createReview(1L, author, new ReviewRequestDto(rating, null));
+                    reviewService.updateReview(review.getId(), author, new ReviewRequestDto(6 - rating, null));
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(productRating(1L).getCount()).isEqualTo(AUTHORS);
+        assertMatchesReviews();
+    }
+
+    private RatingSummaryDto productRating(Long productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT rating_1, rating_2, rating_3, rating_4, rating_5 FROM products WHERE id = :id",
+                Map.of("id", productId),
+                (resultSet, rowNum) -> RatingSummaryDto.of(resultSet.getInt(1), resultSet.getInt(2),
+                        resultSet.getInt(3), resultSet.getInt(4), resultSet.getInt(5)));
+    }
+
+    /** The kept counts equal a full recount of the reviews. */
+    private void assertMatchesReviews() {
+        Integer mismatchedProducts = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM products p WHERE (p.rating_1, p.rating_2, p.rating_3, p.rating_4, p.rating_5) <> " +
+                "(SELECT COUNT(*) FILTER (WHERE r.rating = 1), COUNT(*) FILTER (WHERE r.rating = 2)," +
+                " COUNT(*) FILTER (WHERE r.rating = 3), COUNT(*) FILTER (WHERE r.rating = 4)," +
+                " COUNT(*) FILTER (WHERE r.rating = 5) FROM reviews r WHERE r.product_id = p.id)",
+                Map.of(), Integer.class);
+        Integer mismatchedSellers = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM seller_ratings s WHERE (s.rating_1, s.rating_2, s.rating_3, s.rating_4, s.rating_5) <> " +
+                "(SELECT COUNT(*) FILTER (WHERE r.rating = 1), COUNT(*) FILTER (WHERE r.rating = 2)," +
+                " COUNT(*) FILTER (WHERE r.rating = 3), COUNT(*) FILTER (WHERE r.rating = 4)," +
+                " COUNT(*) FILTER (WHERE r.rating = 5) FROM reviews r WHERE r.seller_id = s.seller_id)",
+                Map.of(), Integer.class);
+        assertThat(mismatchedProducts).isZero();
+        assertThat(mismatchedSellers).isZero();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.freeandnice.services.impl;
+
+import com.example.freeandnice.models.ERole;
+import com.example.freeandnice.models.User;
+import com.example.freeandnice.repositories.UserRepository;
+import com.example.freeandnice.services.TokenRevocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static com.example.freeandnice.configs.CacheConfiguration.USERS_BY_ID;
+import static com.example.freeandnice.configs.CacheConfiguration.USERS_BY_USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserCacheServiceImplTest {
+
+    private UserRepository userRepository;
+    private UserCacheServiceImpl userCacheService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userCacheService = new UserCacheServiceImpl(userRepository,
+                new ConcurrentMapCacheManager(USERS_BY_USERNAME, USERS_BY_ID));
+    }
+
+    @Test
+    void repeatedLookupsAreServedFromTheCache() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user(1L, "alice", "old")));
+
+        assertThat(userCacheService.findByUsername("alice")).get().extracting(User::getId).isEqualTo(1L);
+        assertThat(userCacheService.findByUsername("alice")).isPresent();
+        assertThat(userCacheService.findById(1L)).get().extracting(User::getUsername).isEqualTo("alice");
+
+        verify(userRepository, times(1)).findByUsername("alice");
+        verify(userRepository, times(0)).findById(any());
+    }
+
+    @Test
+    void changingAReturnedUserDoesNotChangeTheCachedOne() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L, "alice", "old")));
+
+        User first = userCacheService.findById(1L).orElseThrow();
+        first.setPassword("half-written");
+
+        User second = userCacheService.findById(1L).orElseThrow();
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getPassword()).isEqualTo("old");
+    }
+
+    @Test
+    void evictingAUserReloadsItOnTheNextLookup() {
+        when(userRepository.findById(1L))
+                .thenReturn(Optional.of(user(1L, "alice", "old")))
+                .thenReturn(Optional.of(user(1L, "alice", "new")));
+
+        userCacheService.findById(1L);
+        userCacheService.evict(user(1L, "alice", "new"));
+
+        assertThat(userCacheService.findById(1L)).get().extracting(User::getPassword).isEqualTo("new");
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void evictingOneUserKeepsTheOthers() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L, "alice", "old")));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(user(2L, "bob", "old")));
+
+        userCacheService.findById(1L);
+        userCacheService.findById(2L);
+        userCacheService.evict(user(1L, "alice", "new"));
+        userCacheService.findById(2L);
+
+        verify(userRepository, times(1)).findById(2L);
+    }
+
+    @Test
+    void theOldUsernameIsNotServedAfterARename() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user(1L, "alice", "old")));
+        userCacheService.findByUsername("alice");
+
+        // Saved as "bob", then cached again under the new name before the old one expired.
+        userCacheService.evict(user(1L, "bob", "old"));
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.empty());
+        when(userRepository.findByUsername("bob")).thenReturn(Optional.of(user(1L, "bob", "old")));
+        assertThat(userCacheService.findByUsername("bob")).isPresent();
+
+        assertThat(userCacheService.findByUsername("alice")).isEmpty();
+    }
+
+    @Test
+    void updatingThroughTheUserServiceEvictsTheUser() {
+        UserServiceImpl userService = new UserServiceImpl(userRepository, mock(TokenRevocationService.class),
+                userCacheService);
+        when(userRepository.findByUsername("alice"))
+                .thenReturn(Optional.of(user(1L, "alice", "old")))
+                .thenReturn(Optional.of(user(1L, "alice", "new")));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L, "alice", "old")));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        User user = userService.getByUsername("alice");
+        user.setPassword("new");
+        userService.update(user);
+
+        assertThat(userService.getByUsername("alice").getPassword()).isEqualTo("new");
+    }
+
+    private static User user(Long id, String username, String password) {
+        return User.builder()
+                .id(id)
+                .username(username)
+                .email(username + "@example.com")
+                .password(password)
+                .role(ERole.ROLE_USER)
+                .firstName("a")
+                .middleName("b")
+                .lastName("c")
+                .address("d")
+                .phoneNumber("1")
+                .createdAt(LocalDateTime.now())
+                .enabled(true)
+                .newsSubscribed(false)
+                .isConfirmed(true)
+                .build();
+    }
+}